@@ -21,54 +21,72 @@
  */
 package org.gatein.cdi.contexts.beanstore;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Taken from weld and incorporated with custom portlet scopes.
+ * Taken from weld and incorporated with custom portlet scopes. The reference counted locks are kept in a concurrent
+ * map so that locking beans with different ids does not contend on a shared monitor, a lock is removed when its count
+ * drops to zero and it can't be acquired anymore once removed.
  *
  * @author <a href="mailto:nscavell@redhat.com">Nick Scavelli</a>
  */
 public class LockStore {
     static final String SESSION_KEY = LockStore.class.getName();
 
-    private transient volatile Map<String, ReferenceCountedLock> locks = new HashMap<String, ReferenceCountedLock>();
+    private final transient ConcurrentMap<String, ReferenceCountedLock> locks = new ConcurrentHashMap<String, ReferenceCountedLock>();
 
     public LockedBean lock(String id) {
-        ReferenceCountedLock refLock;
-        synchronized (locks) {
-            if (locks == null) {
-                locks = new HashMap<String, ReferenceCountedLock>();
-            }
-            refLock = locks.get(id);
-            if (refLock != null) {
-                refLock.count++;
-            } else {
+        while (true) {
+            ReferenceCountedLock refLock = locks.get(id);
+            if (refLock == null) {
                 refLock = new ReferenceCountedLock(id);
-                locks.put(id, refLock);
+                ReferenceCountedLock existing = locks.putIfAbsent(id, refLock);
+                if (existing == null) {
+                    refLock.lock.lock();
+                    return refLock;
+                }
+                refLock = existing;
+            }
+            if (refLock.acquire()) {
+                refLock.lock.lock();
+                return refLock;
             }
+            // the lock was released by its last holder and removed meanwhile
         }
-        refLock.lock.lock();
-        return refLock;
+    }
+
+    int size() {
+        return locks.size();
     }
 
     private class ReferenceCountedLock implements LockedBean {
         private final String key;
-        int count = 1;
+        final AtomicInteger count = new AtomicInteger(1);
         final ReentrantLock lock = new ReentrantLock();
 
         private ReferenceCountedLock(final String key) {
             this.key = key;
         }
 
-        public void unlock() {
-            synchronized (locks) {
-                lock.unlock();
-                --count;
-                if (count == 0) {
-                    locks.remove(key);
+        private boolean acquire() {
+            while (true) {
+                int current = count.get();
+                if (current == 0) {
+                    return false;
                 }
+                if (count.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        public void unlock() {
+            lock.unlock();
+            if (count.decrementAndGet() == 0) {
+                locks.remove(key, this);
             }
         }
     }
@@ -0,0 +1,109 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2013, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.gatein.cdi.contexts.beanstore;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LockStoreTest {
+
+    private static final int THREADS = 16;
+
+    private static final int ITERATIONS = 2000;
+
+    @Test
+    public void testReferenceCount() {
+        LockStore store = new LockStore();
+        LockedBean first = store.lock("bean");
+        LockedBean second = store.lock("bean");
+        assertEquals(1, store.size());
+        first.unlock();
+        assertEquals(1, store.size());
+        second.unlock();
+        assertEquals(0, store.size());
+
+        // a removed lock is replaced by a new one
+        store.lock("bean").unlock();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testContention() throws Exception {
+        final LockStore store = new LockStore();
+        final int[] counters = new int[4];
+        final AtomicInteger[] holders = new AtomicInteger[counters.length];
+        for (int i = 0; i < holders.length; i++) {
+            holders[i] = new AtomicInteger();
+        }
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < threads.length; i++) {
+            final int offset = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < ITERATIONS; j++) {
+                            int bean = (offset + j) % counters.length;
+                            LockedBean lock = store.lock("window#bean" + bean);
+                            try {
+                                if (holders[bean].incrementAndGet() != 1) {
+                                    throw new AssertionError("Bean " + bean + " is locked by several threads");
+                                }
+                                counters[bean]++;
+                                holders[bean].decrementAndGet();
+                            } finally {
+                                lock.unlock();
+                            }
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        //
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        //
+        assertNull(failure.get());
+        int total = 0;
+        for (int counter : counters) {
+            total += counter;
+        }
+        assertEquals(THREADS * ITERATIONS, total);
+        assertEquals(0, store.size());
+    }
+}
@@ -22,10 +22,14 @@
 
 package org.gatein.api.navigation;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 import org.exoplatform.commons.utils.ExpressionUtil;
+import org.exoplatform.commons.utils.Safe;
 import org.exoplatform.portal.mop.Described;
 import org.exoplatform.portal.mop.SiteKey;
 import org.exoplatform.portal.mop.description.DescriptionService;
@@ -43,6 +47,8 @@ public class Navigation18NResolver {
     private final ResourceBundleManager bundleManager;
     private final Locale siteLocale;
     private final SiteId siteId;
+    private final Map<String, Described.State> descriptions = new HashMap<String, Described.State>();
+    private Locale descriptionsLocale;
 
     public Navigation18NResolver(DescriptionService service, ResourceBundleManager bundleManager, Locale siteLocale,
             SiteId siteId) {
@@ -71,6 +77,34 @@ public class Navigation18NResolver {
         return PortalRequest.getInstance().getLocale();
     }
 
+    /**
+     * Resolves at once the descriptions of nodes whose names are about to be resolved, typically the siblings of a node.
+     *
+     * @param descriptionIds the description ids
+     */
+    public void loadDescriptions(Collection<String> descriptionIds) {
+        Locale userLocale = getUserLocale();
+        Map<String, Described.State> loaded;
+        try {
+            loaded = service.resolveDescriptions(descriptionIds, userLocale != null ? userLocale : siteLocale, siteLocale);
+        } catch (Throwable t) {
+            throw new ApiException("Failed to resolve descriptions", t);
+        }
+        if (!Safe.equals(userLocale, descriptionsLocale)) {
+            descriptions.clear();
+            descriptionsLocale = userLocale;
+        }
+        descriptions.putAll(loaded);
+    }
+
+    public boolean isDescriptionLoaded(String descriptionId) {
+        return descriptions.containsKey(descriptionId) && Safe.equals(getUserLocale(), descriptionsLocale);
+    }
+
+    public void removeDescription(String descriptionId) {
+        descriptions.remove(descriptionId);
+    }
+
     public String resolveName(String string, String descriptionId, String defaultValue) {
         return resolve(string, descriptionId, defaultValue, true);
     }
@@ -88,7 +122,9 @@ public class Navigation18NResolver {
             Locale userLocale = getUserLocale();
             Described.State described;
             try {
-                if (userLocale != null) {
+                if (isDescriptionLoaded(descriptionId)) {
+                    described = descriptions.get(descriptionId);
+                } else if (userLocale != null) {
                     described = service.resolveDescription(descriptionId, siteLocale, userLocale);
                 } else {
                     described = service.resolveDescription(descriptionId, siteLocale);
@@ -21,6 +21,8 @@
  */
 package org.gatein.api.navigation;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -194,7 +196,24 @@ public class NavigationImpl implements Navigation {
             i18nResolver = new Navigation18NResolver(descriptionService, bundleManager, site.getLocale(), siteId);
         }
 
-        return i18nResolver.resolveName(ctx.getState().getLabel(), ctx.getId(), ctx.getName());
+        String id = ctx.getId();
+        if (ctx.getState().getLabel() == null && id != null && !i18nResolver.isDescriptionLoaded(id)) {
+            // The siblings are usually displayed together, so their descriptions are resolved at once
+            List<String> ids = new ArrayList<String>();
+            NodeContext<ApiNode> parent = ctx.getParent();
+            if (parent != null) {
+                for (NodeContext<ApiNode> sibling = parent.getFirst(); sibling != null; sibling = sibling.getNext()) {
+                    if (sibling.getState().getLabel() == null && sibling.getId() != null) {
+                        ids.add(sibling.getId());
+                    }
+                }
+            } else {
+                ids.add(id);
+            }
+            i18nResolver.loadDescriptions(ids);
+        }
+
+        return i18nResolver.resolveName(ctx.getState().getLabel(), id, ctx.getName());
     }
 
     NodeContext<ApiNode> getNodeContext(NodePath nodePath, NodeVisitor visitor) {
@@ -269,5 +288,8 @@ public class NavigationImpl implements Navigation {
         } catch (Throwable t) {
             throw new ApiException("Failed to set descriptions", t);
         }
+        if (i18nResolver != null) {
+            i18nResolver.removeDescription(id);
+        }
     }
 }
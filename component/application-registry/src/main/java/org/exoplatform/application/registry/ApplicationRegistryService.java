@@ -37,6 +37,16 @@ public interface ApplicationRegistryService {
      */
     List<ApplicationCategory> getApplicationCategories(String accessUser, ApplicationType<?>... appTypes) throws Exception;
 
+    /**
+     * Return list of ApplicationCategory the current user can access, each category contains its applications of the
+     * specified types. A category is accessible when the current user has one of its access permissions.
+     *
+     * @param sortComparator - Comparator used to sort the returned list, may be null
+     * @param appTypes - array of ApplicationType, used to filter applications in each application category
+     */
+    List<ApplicationCategory> getAccessibleApplicationCategories(Comparator<ApplicationCategory> sortComparator,
+            ApplicationType<?>... appTypes);
+
     void initListener(ComponentPlugin com);
 
     /**
@@ -18,12 +18,14 @@
  */
 package org.exoplatform.application.registry.impl;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.chromattic.api.ChromatticSession;
 import org.exoplatform.application.gadget.Gadget;
@@ -34,10 +36,15 @@ import org.exoplatform.application.registry.ApplicationCategory;
 import org.exoplatform.application.registry.ApplicationRegistryService;
 import org.exoplatform.commons.chromattic.ChromatticLifeCycle;
 import org.exoplatform.commons.chromattic.ChromatticManager;
+import org.exoplatform.commons.chromattic.SessionContext;
+import org.exoplatform.commons.chromattic.SynchronizationListener;
+import org.exoplatform.commons.chromattic.SynchronizationStatus;
 import org.exoplatform.container.ExoContainer;
 import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.container.component.ComponentPlugin;
 import org.exoplatform.container.component.RequestLifeCycle;
+import org.exoplatform.services.cache.CacheService;
+import org.exoplatform.services.cache.ExoCache;
 import org.exoplatform.services.security.MembershipEntry;
 import org.exoplatform.portal.config.UserACL;
 import org.exoplatform.portal.config.model.ApplicationType;
@@ -69,6 +76,12 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
     /** . */
     private static final String REMOTE_CATEGORY_NAME = "remote";
 
+    /** The cache key of the registry snapshot. */
+    private static final String SNAPSHOT_KEY = "snapshot";
+
+    /** The session context attachment marking a session that modified the registry. */
+    private static final String MODIFIED_ATTACHMENT = "app.registry.modified";
+
     /** . */
     private List<ApplicationCategoriesPlugins> plugins;
 
@@ -84,6 +97,12 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
     /** . */
     final POMSessionManager mopManager;
 
+    /** The snapshot of the registry shared by the sessions that did not modify the registry. */
+    private final ExoCache<Serializable, ApplicationRegistrySnapshot> cache;
+
+    /** Incremented when the registry is modified so a snapshot loaded concurrently is not cached. */
+    private final AtomicLong generation = new AtomicLong();
+
     /** Should match WSRPPortletInfo.PRODUCER_NAME_META_INFO_KEY */
     private static final String PRODUCER_NAME_META_INFO_KEY = "producer-name";
 
@@ -100,7 +119,8 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
     private UserACL acl;
     private String anyOfAdminGroup;
 
-    public ApplicationRegistryServiceImpl(ChromatticManager manager, POMSessionManager mopManager, UserACL userACL) {
+    public ApplicationRegistryServiceImpl(ChromatticManager manager, POMSessionManager mopManager, UserACL userACL,
+            CacheService cacheService) {
 
         ApplicationRegistryChromatticLifeCycle lifeCycle = (ApplicationRegistryChromatticLifeCycle) manager.getLifeCycle("app");
         lifeCycle.registry = this;
@@ -111,6 +131,7 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
         this.mopManager = mopManager;
         this.acl = userACL;
         this.anyOfAdminGroup = new MembershipEntry(acl.getAdminGroups()).toString();
+        this.cache = cacheService.getCacheInstance(ApplicationRegistryService.class.getSimpleName());
     }
 
     public ContentRegistry getContentRegistry() {
@@ -122,6 +143,63 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
         return registry;
     }
 
+    /**
+     * Returns the snapshot of the registry. The cached snapshot is used unless the current session modified the registry,
+     * in which case the snapshot is loaded from the session and is not cached.
+     *
+     * @return the snapshot
+     */
+    ApplicationRegistrySnapshot getSnapshot() {
+        SessionContext context = lifeCycle.getContext();
+        boolean modified = context != null && context.getAttachment(MODIFIED_ATTACHMENT) != null;
+        if (!modified) {
+            ApplicationRegistrySnapshot snapshot = cache.get(SNAPSHOT_KEY);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+
+        //
+        long current = generation.get();
+        ContentRegistry registry = getContentRegistry();
+        List<ApplicationCategory> categories = new ArrayList<ApplicationCategory>();
+        for (CategoryDefinition categoryDef : registry.getCategoryList()) {
+            categories.add(load(categoryDef));
+        }
+        ApplicationRegistrySnapshot snapshot = new ApplicationRegistrySnapshot(categories);
+        if (!modified && current == generation.get()) {
+            cache.put(SNAPSHOT_KEY, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Invalidates the snapshot of the registry now and once the current session is saved, until then the current session
+     * does not use the cached snapshot.
+     */
+    private void modified() {
+        invalidate();
+        SessionContext context = lifeCycle.getContext();
+        if (context != null && context.getAttachment(MODIFIED_ATTACHMENT) == null) {
+            context.setAttachment(MODIFIED_ATTACHMENT, Boolean.TRUE);
+            context.addSynchronizationListener(new SynchronizationListener() {
+                public void beforeSynchronization() {
+                }
+
+                public void afterSynchronization(SynchronizationStatus status) {
+                    if (status == SynchronizationStatus.SAVED) {
+                        invalidate();
+                    }
+                }
+            });
+        }
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        cache.remove(SNAPSHOT_KEY);
+    }
+
     public void initListener(ComponentPlugin com) {
         if (com instanceof ApplicationCategoriesPlugins) {
             if (plugins == null) {
@@ -133,16 +211,7 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
 
     public List<ApplicationCategory> getApplicationCategories(final Comparator<ApplicationCategory> sortComparator,
             String accessUser, final ApplicationType<?>... appTypes) {
-        final List<ApplicationCategory> categories = new ArrayList<ApplicationCategory>();
-
-        //
-        ContentRegistry registry = getContentRegistry();
-
-        //
-        for (CategoryDefinition categoryDef : registry.getCategoryList()) {
-            ApplicationCategory category = load(categoryDef, appTypes);
-            categories.add(category);
-        }
+        List<ApplicationCategory> categories = getSnapshot().getCategories(appTypes);
 
         //
         if (sortComparator != null) {
@@ -166,21 +235,32 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
         return getApplicationCategories(sortComparator, null);
     }
 
-    public ApplicationCategory getApplicationCategory(final String name) {
-        ContentRegistry registry = getContentRegistry();
+    public List<ApplicationCategory> getAccessibleApplicationCategories(Comparator<ApplicationCategory> sortComparator,
+            ApplicationType<?>... appTypes) {
+        ApplicationRegistrySnapshot snapshot = getSnapshot();
 
-        //
-        CategoryDefinition categoryDef = registry.getCategory(name);
-        if (categoryDef != null) {
-            ApplicationCategory applicationCategory = load(categoryDef);
-            return applicationCategory;
+        // Each distinct permission is checked once whatever the number of categories it protects
+        Set<String> granted = new HashSet<String>();
+        for (String permission : snapshot.getPermissions()) {
+            if (acl.hasPermission(permission)) {
+                granted.add(permission);
+            }
         }
 
         //
-        return null;
+        List<ApplicationCategory> categories = snapshot.getCategories(granted, appTypes);
+        if (sortComparator != null) {
+            Collections.sort(categories, sortComparator);
+        }
+        return categories;
+    }
+
+    public ApplicationCategory getApplicationCategory(final String name) {
+        return getSnapshot().getCategory(name);
     }
 
     public void save(final ApplicationCategory category) {
+        modified();
         ContentRegistry registry = getContentRegistry();
 
         //
@@ -201,6 +281,7 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
     }
 
     public void remove(final ApplicationCategory category) {
+        modified();
         ContentRegistry registry = getContentRegistry();
         registry.getCategoryMap().remove(category.getName());
     }
@@ -211,11 +292,11 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
 
     public List<Application> getApplications(final ApplicationCategory category, final Comparator<Application> sortComparator,
             final ApplicationType<?>... appTypes) {
-        ContentRegistry registry = getContentRegistry();
-
-        //
-        CategoryDefinition categoryDef = registry.getCategory(category.getName());
-        List<Application> applications = load(categoryDef, appTypes).getApplications();
+        ApplicationCategory applicationCategory = getSnapshot().getCategory(category.getName(), appTypes);
+        if (applicationCategory == null) {
+            return new ArrayList<Application>();
+        }
+        List<Application> applications = applicationCategory.getApplications();
 
         //
         if (sortComparator != null) {
@@ -253,22 +334,11 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
     }
 
     public Application getApplication(final String category, final String name) {
-        ContentRegistry registry = getContentRegistry();
-
-        //
-        CategoryDefinition categoryDef = registry.getCategory(category);
-        if (categoryDef != null) {
-            ContentDefinition contentDef = categoryDef.getContentMap().get(name);
-            if (contentDef != null) {
-                return load(contentDef);
-            }
-        }
-
-        //
-        return null;
+        return getSnapshot().getApplication(category, name);
     }
 
     public void save(final ApplicationCategory category, final Application application) {
+        modified();
         ContentRegistry registry = getContentRegistry();
 
         //
@@ -301,6 +371,7 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
     }
 
     public void update(final Application application) {
+        modified();
         ContentRegistry registry = getContentRegistry();
 
         //
@@ -326,6 +397,7 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
         }
 
         //
+        modified();
         ContentRegistry registry = getContentRegistry();
 
         //
@@ -341,6 +413,7 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
     }
 
     public void importExoGadgets() throws Exception {
+        modified();
         ContentRegistry registry = getContentRegistry();
 
         //
@@ -379,6 +452,7 @@ public class ApplicationRegistryServiceImpl implements ApplicationRegistryServic
     }
 
     public void importAllPortlets() throws Exception {
+        modified();
         ContentRegistry registry = getContentRegistry();
 
         //
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.application.registry.impl;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.exoplatform.application.registry.Application;
+import org.exoplatform.application.registry.ApplicationCategory;
+import org.exoplatform.portal.config.model.ApplicationType;
+
+/**
+ * An immutable snapshot of the categories and the applications of the registry with indexes by application type and by
+ * access permission. The snapshot never hands out the objects it holds, the returned categories and applications are
+ * copies the caller can modify.
+ *
+ * @version $Revision$
+ */
+class ApplicationRegistrySnapshot implements Serializable {
+
+    /** The categories in registry order. */
+    private final Map<String, Entry> entries;
+
+    /** The names of the categories for each access permission. */
+    private final Map<String, Set<String>> categoriesByPermission;
+
+    /** The distinct access permissions of the categories. */
+    private final Set<String> permissions;
+
+    ApplicationRegistrySnapshot(List<ApplicationCategory> categories) {
+        Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+        Map<String, Set<String>> categoriesByPermission = new HashMap<String, Set<String>>();
+        for (ApplicationCategory category : categories) {
+            Entry entry = new Entry(category);
+            entries.put(category.getName(), entry);
+            index(categoriesByPermission, category.getAccessPermissions(), category.getName());
+        }
+
+        //
+        this.entries = entries;
+        this.categoriesByPermission = categoriesByPermission;
+        this.permissions = Collections.unmodifiableSet(new HashSet<String>(categoriesByPermission.keySet()));
+    }
+
+    private static void index(Map<String, Set<String>> index, List<String> permissions, String value) {
+        if (permissions != null) {
+            for (String permission : permissions) {
+                Set<String> values = index.get(permission);
+                if (values == null) {
+                    values = new HashSet<String>();
+                    index.put(permission, values);
+                }
+                values.add(value);
+            }
+        }
+    }
+
+    /**
+     * Returns the distinct access permissions of the categories.
+     *
+     * @return the permissions
+     */
+    Set<String> getPermissions() {
+        return permissions;
+    }
+
+    List<ApplicationCategory> getCategories(ApplicationType<?>... appTypes) {
+        List<ApplicationCategory> categories = new ArrayList<ApplicationCategory>(entries.size());
+        for (Entry entry : entries.values()) {
+            categories.add(entry.copy(appTypes));
+        }
+        return categories;
+    }
+
+    /**
+     * Returns the categories that have at least one of the granted permissions, each category contains its applications of
+     * the specified types.
+     *
+     * @param granted the granted permissions
+     * @param appTypes the application types
+     * @return the accessible categories
+     */
+    List<ApplicationCategory> getCategories(Set<String> granted, ApplicationType<?>... appTypes) {
+        Set<String> categoryNames = new HashSet<String>();
+        for (String permission : granted) {
+            Set<String> names = categoriesByPermission.get(permission);
+            if (names != null) {
+                categoryNames.addAll(names);
+            }
+        }
+
+        //
+        List<ApplicationCategory> categories = new ArrayList<ApplicationCategory>(categoryNames.size());
+        for (Entry entry : entries.values()) {
+            if (categoryNames.contains(entry.category.getName())) {
+                categories.add(entry.copy(appTypes));
+            }
+        }
+        return categories;
+    }
+
+    ApplicationCategory getCategory(String name, ApplicationType<?>... appTypes) {
+        Entry entry = entries.get(name);
+        return entry != null ? entry.copy(appTypes) : null;
+    }
+
+    Application getApplication(String category, String name) {
+        Entry entry = entries.get(category);
+        if (entry != null) {
+            Application application = entry.applicationsByName.get(name);
+            if (application != null) {
+                return copy(application);
+            }
+        }
+        return null;
+    }
+
+    static Application copy(Application application) {
+        Application copy = new Application();
+        copy.setId(application.getId());
+        copy.setCategoryName(application.getCategoryName());
+        copy.setType(application.getType());
+        copy.setApplicationName(application.getApplicationName());
+        copy.setIconURL(application.getIconURL());
+        copy.setDisplayName(application.getDisplayName());
+        copy.setDescription(application.getDescription());
+        copy.setAccessPermissions(new ArrayList<String>(application.getAccessPermissions()));
+        copy.setCreatedDate(application.getCreatedDate());
+        copy.setModifiedDate(application.getModifiedDate());
+        copy.setStorageId(application.getStorageId());
+        copy.setContentId(application.getContentId());
+        return copy;
+    }
+
+    private static class Entry implements Serializable {
+
+        /** The category without its applications. */
+        private final ApplicationCategory category;
+
+        /** . */
+        private final List<Application> applications;
+
+        /** . */
+        private final Map<String, Application> applicationsByName;
+
+        /** . */
+        private final Map<String, List<Application>> applicationsByType;
+
+        private Entry(ApplicationCategory category) {
+            List<Application> applications = category.getApplications();
+            Map<String, Application> applicationsByName = new HashMap<String, Application>();
+            Map<String, List<Application>> applicationsByType = new HashMap<String, List<Application>>();
+            for (Application application : applications) {
+                applicationsByName.put(application.getApplicationName(), application);
+                ApplicationType<?> type = application.getType();
+                if (type != null) {
+                    List<Application> list = applicationsByType.get(type.getName());
+                    if (list == null) {
+                        list = new ArrayList<Application>();
+                        applicationsByType.put(type.getName(), list);
+                    }
+                    list.add(application);
+                }
+            }
+
+            //
+            ApplicationCategory template = new ApplicationCategory();
+            template.setName(category.getName());
+            template.setDisplayName(category.getDisplayName());
+            template.setDescription(category.getDescription());
+            template.setAccessPermissions(new ArrayList<String>(category.getAccessPermissions()));
+            template.setCreatedDate(category.getCreatedDate());
+            template.setModifiedDate(category.getModifiedDate());
+
+            //
+            this.category = template;
+            this.applications = new ArrayList<Application>(applications);
+            this.applicationsByName = applicationsByName;
+            this.applicationsByType = applicationsByType;
+        }
+
+        private List<Application> getApplications(ApplicationType<?>... appTypes) {
+            if (appTypes == null || appTypes.length == 0) {
+                return applications;
+            } else if (appTypes.length == 1) {
+                List<Application> list = applicationsByType.get(appTypes[0].getName());
+                return list != null ? list : Collections.<Application> emptyList();
+            } else {
+                List<Application> list = new ArrayList<Application>();
+                for (Application application : applications) {
+                    for (ApplicationType<?> appType : appTypes) {
+                        if (appType.equals(application.getType())) {
+                            list.add(application);
+                            break;
+                        }
+                    }
+                }
+                return list;
+            }
+        }
+
+        /**
+         * Copies the category with its applications of the specified types.
+         *
+         * @param applicationIds the ids of the applications to retain or null to retain them all
+         * @param appTypes the application types
+         * @return the copy
+         */
+        private ApplicationCategory copy(ApplicationType<?>... appTypes) {
+            ApplicationCategory copy = new ApplicationCategory();
+            copy.setName(category.getName());
+            copy.setDisplayName(category.getDisplayName());
+            copy.setDescription(category.getDescription());
+            copy.setAccessPermissions(new ArrayList<String>(category.getAccessPermissions()));
+            copy.setCreatedDate(category.getCreatedDate());
+            copy.setModifiedDate(category.getModifiedDate());
+            for (Application application : getApplications(appTypes)) {
+                copy.getApplications().add(ApplicationRegistrySnapshot.copy(application));
+            }
+            return copy;
+        }
+    }
+}
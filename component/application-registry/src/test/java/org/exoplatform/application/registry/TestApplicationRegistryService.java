@@ -143,6 +143,49 @@ public class TestApplicationRegistryService extends AbstractApplicationRegistryT
         assertEquals(2, returnCategories.get(1).getApplications().size());
     }
 
+    public void testAccessibleAppCategories() throws Exception {
+        ArrayList<String> everyone = new ArrayList<String>();
+        everyone.add("Everyone");
+        ArrayList<String> admin = new ArrayList<String>();
+        admin.add("*:/platform/administrators");
+
+        //
+        ApplicationCategory publicCategory = createAppCategory("Public", "None");
+        publicCategory.setAccessPermissions(everyone);
+        service_.save(publicCategory);
+        Application publicApp = createApplication("PublicApp", "Public");
+        publicApp.setAccessPermissions(everyone);
+        service_.save(publicCategory, publicApp);
+        Application adminApp = createApplication("AdminApp", "Public");
+        adminApp.setAccessPermissions(admin);
+        service_.save(publicCategory, adminApp);
+        Application publicGadget = createApplication("PublicGadget", "Public");
+        publicGadget.setType(ApplicationType.GADGET);
+        publicGadget.setAccessPermissions(everyone);
+        service_.save(publicCategory, publicGadget);
+
+        //
+        ApplicationCategory adminCategory = createAppCategory("Admin", "None");
+        adminCategory.setAccessPermissions(admin);
+        service_.save(adminCategory);
+        Application otherApp = createApplication("OtherApp", "Admin");
+        otherApp.setAccessPermissions(everyone);
+        service_.save(adminCategory, otherApp);
+
+        // The guest only sees the public category, with all its applications
+        List<ApplicationCategory> categories = service_.getAccessibleApplicationCategories(null);
+        assertEquals(1, categories.size());
+        assertEquals("Public", categories.get(0).getName());
+        assertEquals(3, categories.get(0).getApplications().size());
+        categories = service_.getAccessibleApplicationCategories(null, ApplicationType.PORTLET);
+        assertEquals(2, categories.get(0).getApplications().size());
+
+        // The returned objects are copies
+        categories.get(0).getApplications().clear();
+        assertEquals(3, service_.getApplicationCategory("Public").getApplications().size());
+        assertEquals(2, service_.getApplicationCategories(null, ApplicationType.PORTLET).size());
+    }
+
     private ApplicationCategory createAppCategory(String categoryName, String categoryDes) {
         ApplicationCategory category = new ApplicationCategory();
         category.setName(categoryName);
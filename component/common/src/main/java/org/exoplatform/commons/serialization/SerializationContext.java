@@ -24,6 +24,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.lang.reflect.ParameterizedType;
 import java.util.HashMap;
 import java.util.Map;
@@ -31,6 +32,9 @@ import java.util.Map;
 import org.exoplatform.commons.serialization.api.factory.DefaultObjectFactory;
 import org.exoplatform.commons.serialization.api.factory.ObjectFactory;
 import org.exoplatform.commons.serialization.model.TypeDomain;
+import org.exoplatform.commons.serialization.serial.CompactFormat;
+import org.exoplatform.commons.serialization.serial.CompactObjectReader;
+import org.exoplatform.commons.serialization.serial.CompactObjectWriter;
 import org.exoplatform.commons.serialization.serial.ObjectReader;
 import org.exoplatform.commons.serialization.serial.ObjectWriter;
 
@@ -46,6 +50,12 @@ public class SerializationContext {
     /** . */
     private final Map<Class<?>, ObjectFactory<?>> factories;
 
+    /** . */
+    private volatile boolean compact;
+
+    /** . */
+    private volatile boolean compressed;
+
     public SerializationContext(TypeDomain typeDomain) {
         HashMap<Class<?>, ObjectFactory<?>> factories = new HashMap<Class<?>, ObjectFactory<?>>();
         factories.put(Object.class, new DefaultObjectFactory());
@@ -69,6 +79,34 @@ public class SerializationContext {
         factories.put(objectType, factory);
     }
 
+    /**
+     * Returns true when objects are written with the {@link CompactFormat}, otherwise Java serialization is used. Both
+     * formats are always readable, so a node writing the compact format can interoperate with a node writing the Java
+     * serialization format.
+     *
+     * @return true when the compact format is written
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    /**
+     * Returns true when the payload of the compact format is compressed.
+     *
+     * @return true when the compact format is compressed
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
     public TypeDomain getTypeDomain() {
         return typeDomain;
     }
@@ -87,37 +125,53 @@ public class SerializationContext {
     }
 
     public <O> O clone(O o) throws IOException, ClassNotFoundException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ObjectWriter writer = new ObjectWriter(this, baos);
-        writer.writeObject(o);
-        writer.close();
-        ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-        ObjectReader in = new ObjectReader(this, bais);
-        return (O) in.readObject();
+        return (O) read(write(o));
     }
 
     public void write(Object o, OutputStream out) throws IOException {
-        ObjectWriter writer = new ObjectWriter(this, out);
-        writer.writeObject(o);
-        writer.flush();
+        if (compact) {
+            CompactObjectWriter writer = new CompactObjectWriter(this, out, compressed);
+            writer.writeObject(o);
+            writer.finish();
+        } else {
+            ObjectWriter writer = new ObjectWriter(this, out);
+            writer.writeObject(o);
+            writer.flush();
+        }
     }
 
     public byte[] write(Object o) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ObjectWriter writer = new ObjectWriter(this, baos);
-        writer.writeObject(o);
-        writer.close();
+        write(o, baos);
+        baos.close();
         return baos.toByteArray();
     }
 
     public Object read(byte[] bytes) throws IOException, ClassNotFoundException {
         ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
-        ObjectReader in = new ObjectReader(this, bais);
-        return in.readObject();
+        if (CompactFormat.isCompact(bytes)) {
+            return new CompactObjectReader(this, bais).readObject();
+        } else {
+            return new ObjectReader(this, bais).readObject();
+        }
     }
 
     public Object read(InputStream in) throws IOException, ClassNotFoundException {
-        ObjectReader or = new ObjectReader(this, in);
-        return or.readObject();
+        PushbackInputStream pin = new PushbackInputStream(in, 2);
+        byte[] magic = new byte[2];
+        int len = 0;
+        while (len < magic.length) {
+            int b = pin.read();
+            if (b == -1) {
+                break;
+            }
+            magic[len++] = (byte) b;
+        }
+        pin.unread(magic, 0, len);
+        if (len == magic.length && CompactFormat.isCompact(magic)) {
+            return new CompactObjectReader(this, pin).readObject();
+        } else {
+            return new ObjectReader(this, pin).readObject();
+        }
     }
 }
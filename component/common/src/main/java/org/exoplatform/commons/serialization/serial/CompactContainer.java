@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.serialization.serial;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+
+/**
+ * Replaces an object reached by Java serialization that must be written with the {@link CompactFormat}. The compact form
+ * is written in the data of the Java stream that contains it, so the objects keep a single identity in both formats.
+ *
+ * @version $Revision$
+ */
+class CompactContainer implements Externalizable {
+
+    /** . */
+    private Object object;
+
+    public CompactContainer() {
+    }
+
+    CompactContainer(Object object) {
+        this.object = object;
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        ((CompactObjectWriter.NestedObjectOutputStream) out).writeCompact(object);
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        object = ((CompactObjectReader.NestedObjectInputStream) in).readCompact();
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return object;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactContainer[" + object + "]";
+    }
+}
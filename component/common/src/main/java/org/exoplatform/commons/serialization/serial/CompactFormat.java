@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.serialization.serial;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.Charset;
+
+/**
+ * The compact serialization format. A stream starts with a four bytes header: two magic bytes that cannot start a Java
+ * serialization stream, the format version and the flags. The payload is a sequence of tagged values using variable length
+ * integers, classes are written once per stream and then referenced by an index.
+ */
+public final class CompactFormat {
+
+    /** . */
+    static final byte MAGIC_0 = 'G';
+
+    /** . */
+    static final byte MAGIC_1 = 'S';
+
+    /** The current version of the format. */
+    public static final int VERSION = 1;
+
+    /** The payload is compressed with deflate. */
+    static final int FLAG_DEFLATE = 0x01;
+
+    /** . */
+    static final int NULL_VALUE = 0;
+
+    /** . */
+    static final int OBJECT_REF = 1;
+
+    /** . */
+    static final int OBJECT = 2;
+
+    /** . */
+    static final int CONVERTED_OBJECT = 3;
+
+    /** . */
+    static final int SERIALIZED_OBJECT = 4;
+
+    /** . */
+    static final int STRING = 5;
+
+    /** . */
+    static final int INTEGER = 6;
+
+    /** . */
+    static final int LONG = 7;
+
+    /** . */
+    static final int TRUE = 8;
+
+    /** . */
+    static final int FALSE = 9;
+
+    /** . */
+    static final int ENUM = 10;
+
+    /** . */
+    static final int COLLECTION = 11;
+
+    /** . */
+    static final int MAP = 12;
+
+    /** . */
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private CompactFormat() {
+    }
+
+    /**
+     * Returns true if the bytes start with the compact format header.
+     *
+     * @param bytes the bytes
+     * @return true for the compact format
+     */
+    public static boolean isCompact(byte[] bytes) {
+        return bytes.length >= 2 && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable length integer");
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte(((int) value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable length long");
+    }
+
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static byte[] readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.serialization.serial;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.InflaterInputStream;
+
+import org.exoplatform.commons.serialization.SerializationContext;
+import org.exoplatform.commons.serialization.api.TypeConverter;
+import org.exoplatform.commons.serialization.api.factory.ObjectFactory;
+import org.exoplatform.commons.serialization.model.ClassTypeModel;
+import org.exoplatform.commons.serialization.model.ConvertedTypeModel;
+import org.exoplatform.commons.serialization.model.FieldModel;
+import org.exoplatform.commons.serialization.model.TypeModel;
+
+/**
+ * Reads an object graph written by the {@link CompactObjectWriter}.
+ *
+ * @version $Revision$
+ */
+public class CompactObjectReader {
+
+    /** . */
+    private final SerializationContext context;
+
+    /** . */
+    private final List<Object> idToObject;
+
+    /** . */
+    private final Map<Integer, List<FutureFieldUpdate<?>>> idToResolutions;
+
+    /** . */
+    private final List<Class<?>> idToClass;
+
+    /** The current input, either the compact stream or the Java stream when an object is nested in it. */
+    private DataInput in;
+
+    /** . */
+    private SerializedInputStream serializedInput;
+
+    /** The Java stream of the serializable objects, created when the first one is read. */
+    private NestedObjectInputStream serialized;
+
+    public CompactObjectReader(SerializationContext context, InputStream in) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        if (header.readByte() != CompactFormat.MAGIC_0 || header.readByte() != CompactFormat.MAGIC_1) {
+            throw new StreamCorruptedException("Not a compact serialization stream");
+        }
+        int version = header.readUnsignedByte();
+        if (version > CompactFormat.VERSION) {
+            throw new StreamCorruptedException("Unsupported compact serialization version " + version);
+        }
+        int flags = header.readUnsignedByte();
+
+        //
+        if ((flags & CompactFormat.FLAG_DEFLATE) != 0) {
+            in = new InflaterInputStream(in);
+        }
+
+        //
+        this.context = context;
+        this.idToObject = new ArrayList<Object>();
+        this.idToResolutions = new HashMap<Integer, List<FutureFieldUpdate<?>>>();
+        this.idToClass = new ArrayList<Class<?>>();
+        this.in = new DataInputStream(in);
+    }
+
+    public Object readObject() throws IOException, ClassNotFoundException {
+        return read(in.readUnsignedByte());
+    }
+
+    private int reserve() {
+        idToObject.add(null);
+        return idToObject.size() - 1;
+    }
+
+    private void bind(int id, Object instance) {
+        idToObject.set(id, instance);
+
+        // Resolve future field updates
+        List<FutureFieldUpdate<?>> resolutions = idToResolutions.remove(id);
+        if (resolutions != null) {
+            for (FutureFieldUpdate<?> resolution : resolutions) {
+                resolution.fieldModel.castAndSet(resolution.target, instance);
+            }
+        }
+    }
+
+    private Object lookup(int id) throws IOException {
+        Object o = id < idToObject.size() ? idToObject.get(id) : null;
+        if (o == null) {
+            throw new InvalidObjectException("Unresolved reference " + id);
+        }
+        return o;
+    }
+
+    private Class<?> readClass() throws IOException, ClassNotFoundException {
+        int id = CompactFormat.readVarInt(in);
+        if (id > 0) {
+            if (id > idToClass.size()) {
+                throw new StreamCorruptedException("Unknown class reference " + id);
+            }
+            return idToClass.get(id - 1);
+        }
+        Class<?> clazz = loadClass(CompactFormat.readString(in));
+        idToClass.add(clazz);
+        return clazz;
+    }
+
+    private Object read(int sw) throws IOException, ClassNotFoundException {
+        switch (sw) {
+            case CompactFormat.NULL_VALUE:
+                return null;
+            case CompactFormat.OBJECT_REF:
+                return lookup(CompactFormat.readVarInt(in));
+            case CompactFormat.STRING:
+                return CompactFormat.readString(in);
+            case CompactFormat.INTEGER:
+                return CompactFormat.unZigZag(CompactFormat.readVarInt(in));
+            case CompactFormat.LONG:
+                return CompactFormat.unZigZag(CompactFormat.readVarLong(in));
+            case CompactFormat.TRUE:
+                return Boolean.TRUE;
+            case CompactFormat.FALSE:
+                return Boolean.FALSE;
+            case CompactFormat.ENUM:
+                return readEnum(readClass(), CompactFormat.readString(in));
+            case CompactFormat.COLLECTION:
+                return readCollection(readClass());
+            case CompactFormat.MAP:
+                return readMap(readClass());
+            case CompactFormat.OBJECT: {
+                Class<?> clazz = readClass();
+                TypeModel<?> typeModel = context.getTypeDomain().getTypeModel(clazz);
+                if (!(typeModel instanceof ClassTypeModel<?>)) {
+                    throw new InvalidClassException(clazz.getName(), "Type is not described");
+                }
+                return instantiate((ClassTypeModel<?>) typeModel);
+            }
+            case CompactFormat.CONVERTED_OBJECT: {
+                Class<?> clazz = readClass();
+                TypeModel<?> typeModel = context.getTypeDomain().getTypeModel(clazz);
+                if (!(typeModel instanceof ConvertedTypeModel<?, ?>)) {
+                    throw new InvalidClassException(clazz.getName(), "Type is not described");
+                }
+                return convertObject((ConvertedTypeModel<?, ?>) typeModel);
+            }
+            case CompactFormat.SERIALIZED_OBJECT: {
+                int id = reserve();
+                Object o;
+                if (in == serialized) {
+                    o = serialized.readObject();
+                } else {
+                    if (serializedInput == null) {
+                        serializedInput = new SerializedInputStream();
+                    }
+                    serializedInput.current = new ByteArrayInputStream(CompactFormat.readBytes(in));
+                    if (serialized == null) {
+                        // The header of the Java stream comes with the data of the first object
+                        serialized = new NestedObjectInputStream(serializedInput);
+                    }
+                    o = serialized.readObject();
+                }
+                bind(id, o);
+                return o;
+            }
+            default:
+                throw new StreamCorruptedException("Unrecognized data " + sw);
+        }
+    }
+
+    private Object readEnum(Class<?> enumType, String name) throws InvalidObjectException {
+        Object[] constants = enumType.getEnumConstants();
+        if (constants != null) {
+            for (Object constant : constants) {
+                if (((Enum<?>) constant).name().equals(name)) {
+                    return constant;
+                }
+            }
+        }
+        throw new InvalidObjectException("Enum constant " + name + " does not exist in " + enumType.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readCollection(Class<?> clazz) throws IOException, ClassNotFoundException {
+        int id = reserve();
+        Collection<Object> collection = (Collection<Object>) newInstance(clazz);
+        bind(id, collection);
+        int size = CompactFormat.readVarInt(in);
+
+        // Avoid copying the array of a copy on write list for each added element
+        Collection<Object> target = collection instanceof CopyOnWriteArrayList<?> ? new ArrayList<Object>(size) : collection;
+        while (size-- > 0) {
+            target.add(read(in.readUnsignedByte()));
+        }
+        if (target != collection) {
+            collection.addAll(target);
+        }
+        return collection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readMap(Class<?> clazz) throws IOException, ClassNotFoundException {
+        int id = reserve();
+        Map<Object, Object> map = (Map<Object, Object>) newInstance(clazz);
+        bind(id, map);
+        int size = CompactFormat.readVarInt(in);
+        while (size-- > 0) {
+            Object key = read(in.readUnsignedByte());
+            Object value = read(in.readUnsignedByte());
+            map.put(key, value);
+        }
+        return map;
+    }
+
+    private Object newInstance(Class<?> clazz) throws InvalidClassException {
+        try {
+            return clazz.newInstance();
+        } catch (Exception e) {
+            InvalidClassException ice = new InvalidClassException("Cannot instantiate object from class " + clazz.getName());
+            ice.initCause(e);
+            throw ice;
+        }
+    }
+
+    private <O> O instantiate(ClassTypeModel<O> typeModel, Map<FieldModel<? super O, ?>, ?> state) throws InvalidClassException {
+        try {
+            ObjectFactory<? super O> factory = context.getFactory(typeModel.getJavaType());
+
+            //
+            return factory.create(typeModel.getJavaType(), state);
+        } catch (Exception e) {
+            InvalidClassException ice = new InvalidClassException("Cannot instantiate object from class "
+                    + typeModel.getJavaType().getName());
+            ice.initCause(e);
+            throw ice;
+        }
+    }
+
+    private <O> O instantiate(ClassTypeModel<O> typeModel) throws IOException, ClassNotFoundException {
+        int id = reserve();
+        Map<FieldModel<? super O, ?>, Object> state = new HashMap<FieldModel<? super O, ?>, Object>();
+        List<FieldUpdate<O>> sets = new ArrayList<FieldUpdate<O>>();
+        for (ClassTypeModel<? super O> currentTypeModel = typeModel; currentTypeModel != null; currentTypeModel = currentTypeModel
+                .getSuperType()) {
+            for (FieldModel<? super O, ?> fieldModel : currentTypeModel.getFields()) {
+                if (!fieldModel.isTransient()) {
+                    int sw = in.readUnsignedByte();
+                    if (sw == CompactFormat.OBJECT_REF) {
+                        int refId = CompactFormat.readVarInt(in);
+                        Object refO = refId < idToObject.size() ? idToObject.get(refId) : null;
+                        if (refO != null) {
+                            state.put(fieldModel, refO);
+                        } else {
+                            sets.add(new FieldUpdate<O>(refId, fieldModel));
+                        }
+                    } else {
+                        state.put(fieldModel, read(sw));
+                    }
+                }
+            }
+        }
+
+        //
+        O instance = instantiate(typeModel, state);
+
+        // Create future field updates
+        for (FieldUpdate<O> set : sets) {
+            List<FutureFieldUpdate<?>> resolutions = idToResolutions.get(set.ref);
+            if (resolutions == null) {
+                resolutions = new ArrayList<FutureFieldUpdate<?>>();
+                idToResolutions.put(set.ref, resolutions);
+            }
+            resolutions.add(new FutureFieldUpdate<O>(instance, set.fieldModel));
+        }
+
+        //
+        bind(id, instance);
+
+        //
+        return instance;
+    }
+
+    private <O, T> O convertObject(ConvertedTypeModel<O, T> convertedType) throws IOException, ClassNotFoundException {
+        Object inner = read(in.readUnsignedByte());
+        T t = convertedType.getTargetType().getJavaType().cast(inner);
+
+        TypeConverter<O, T> converter;
+        try {
+            converter = convertedType.getConverterJavaType().newInstance();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+        //
+        O o = null;
+        try {
+            o = converter.read(t);
+        } catch (Exception e) {
+            InvalidObjectException ioe = new InvalidObjectException("The object " + t + " conversion throw an exception "
+                    + converter);
+            ioe.initCause(e);
+            throw ioe;
+        }
+        if (o == null) {
+            throw new InvalidObjectException("The object " + t + " was converted to null by converter " + converter);
+        }
+
+        //
+        return o;
+    }
+
+    private static Class<?> loadClass(String name) throws ClassNotFoundException {
+        try {
+            ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            return Class.forName(name, false, cl);
+        } catch (ClassNotFoundException ex) {
+            return Class.forName(name, false, CompactObjectReader.class.getClassLoader());
+        }
+    }
+
+    private static class FieldUpdate<O> {
+        /** . */
+        private final int ref;
+
+        /** . */
+        private final FieldModel<? super O, ?> fieldModel;
+
+        private FieldUpdate(int ref, FieldModel<? super O, ?> fieldModel) {
+            this.ref = ref;
+            this.fieldModel = fieldModel;
+        }
+    }
+
+    private static class FutureFieldUpdate<O> {
+        /** . */
+        private final O target;
+
+        /** . */
+        private final FieldModel<? super O, ?> fieldModel;
+
+        private FutureFieldUpdate(O target, FieldModel<? super O, ?> fieldModel) {
+            this.target = target;
+            this.fieldModel = fieldModel;
+        }
+    }
+
+    /**
+     * The data of the Java stream, each serializable object of the compact stream provides the data of the next object.
+     */
+    private static class SerializedInputStream extends InputStream {
+
+        /** . */
+        private ByteArrayInputStream current;
+
+        @Override
+        public int read() throws IOException {
+            return current.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return current.read(b, off, len);
+        }
+    }
+
+    class NestedObjectInputStream extends ObjectInputStream {
+
+        private NestedObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        /**
+         * Reads the compact form of an object from the data of this stream, the object identities are shared with the
+         * enclosing compact stream.
+         */
+        Object readCompact() throws IOException, ClassNotFoundException {
+            DataInput previous = in;
+            in = this;
+            try {
+                return CompactObjectReader.this.read(in.readUnsignedByte());
+            } finally {
+                in = previous;
+            }
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return loadClass(desc.getName());
+            } catch (ClassNotFoundException ex) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.serialization.serial;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.exoplatform.commons.serialization.SerializationContext;
+import org.exoplatform.commons.serialization.api.TypeConverter;
+import org.exoplatform.commons.serialization.model.ClassTypeModel;
+import org.exoplatform.commons.serialization.model.ConvertedTypeModel;
+import org.exoplatform.commons.serialization.model.FieldModel;
+import org.exoplatform.commons.serialization.model.SerializationMode;
+import org.exoplatform.commons.serialization.model.TypeModel;
+import org.gatein.common.logging.Logger;
+import org.gatein.common.logging.LoggerFactory;
+
+/**
+ * Writes an object graph with the {@link CompactFormat}. Objects described by the type domain are written field by field,
+ * the common collections, strings, boxed integers and enums are written natively and any other serializable object is
+ * written with Java serialization. The objects written with Java serialization share a single Java stream, so an object
+ * reached several times is read back as a single instance whichever format reaches it.
+ *
+ * @version $Revision$
+ */
+public class CompactObjectWriter {
+
+    /** . */
+    private static final Logger log = LoggerFactory.getLogger(CompactObjectWriter.class);
+
+    /** . */
+    private final SerializationContext context;
+
+    /** . */
+    private final IdentityHashMap<Object, Integer> objectToId;
+
+    /** . */
+    private final Map<Class<?>, Integer> classToId;
+
+    /** . */
+    private final DeflaterOutputStream deflater;
+
+    /** . */
+    private final DataOutputStream data;
+
+    /** The current output, either the compact stream or the Java stream when an object is nested in it. */
+    private DataOutput out;
+
+    /** . */
+    private ByteArrayOutputStream serializedBuffer;
+
+    /** The Java stream of the serializable objects, created when the first one is written. */
+    private NestedObjectOutputStream serialized;
+
+    public CompactObjectWriter(SerializationContext context, OutputStream out, boolean compressed) throws IOException {
+        out.write(CompactFormat.MAGIC_0);
+        out.write(CompactFormat.MAGIC_1);
+        out.write(CompactFormat.VERSION);
+        out.write(compressed ? CompactFormat.FLAG_DEFLATE : 0);
+
+        //
+        if (compressed) {
+            deflater = new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED));
+            out = deflater;
+        } else {
+            deflater = null;
+        }
+
+        //
+        this.context = context;
+        this.objectToId = new IdentityHashMap<Object, Integer>();
+        this.classToId = new HashMap<Class<?>, Integer>();
+        this.data = new DataOutputStream(out);
+        this.out = data;
+    }
+
+    public void writeObject(Object o) throws IOException {
+        write(o);
+    }
+
+    /**
+     * Flushes the remaining data, the underlying stream is not closed.
+     *
+     * @throws IOException any io exception
+     */
+    public void finish() throws IOException {
+        data.flush();
+        if (deflater != null) {
+            deflater.finish();
+        }
+    }
+
+    private int register(Object o) {
+        int nextId = objectToId.size();
+        objectToId.put(o, nextId);
+        return nextId;
+    }
+
+    private void writeClass(Class<?> clazz) throws IOException {
+        Integer id = classToId.get(clazz);
+        if (id != null) {
+            CompactFormat.writeVarInt(out, id + 1);
+        } else {
+            classToId.put(clazz, classToId.size());
+            CompactFormat.writeVarInt(out, 0);
+            CompactFormat.writeString(out, clazz.getName());
+        }
+    }
+
+    private void write(Object obj) throws IOException {
+        if (obj == null) {
+            out.writeByte(CompactFormat.NULL_VALUE);
+            return;
+        }
+
+        //
+        Integer id = objectToId.get(obj);
+        if (id != null) {
+            out.writeByte(CompactFormat.OBJECT_REF);
+            CompactFormat.writeVarInt(out, id);
+            return;
+        }
+
+        //
+        Class<?> objClass = obj.getClass();
+        if (objClass == String.class) {
+            out.writeByte(CompactFormat.STRING);
+            CompactFormat.writeString(out, (String) obj);
+        } else if (objClass == Integer.class) {
+            out.writeByte(CompactFormat.INTEGER);
+            CompactFormat.writeVarInt(out, CompactFormat.zigZag((Integer) obj));
+        } else if (objClass == Long.class) {
+            out.writeByte(CompactFormat.LONG);
+            CompactFormat.writeVarLong(out, CompactFormat.zigZag((Long) obj));
+        } else if (objClass == Boolean.class) {
+            out.writeByte((Boolean) obj ? CompactFormat.TRUE : CompactFormat.FALSE);
+        } else if (obj instanceof Enum<?>) {
+            out.writeByte(CompactFormat.ENUM);
+            writeClass(((Enum<?>) obj).getDeclaringClass());
+            CompactFormat.writeString(out, ((Enum<?>) obj).name());
+        } else if (objClass == ArrayList.class || objClass == LinkedList.class || objClass == CopyOnWriteArrayList.class
+                || objClass == HashSet.class || objClass == LinkedHashSet.class) {
+            Collection<?> collection = (Collection<?>) obj;
+            register(obj);
+            out.writeByte(CompactFormat.COLLECTION);
+            writeClass(objClass);
+            CompactFormat.writeVarInt(out, collection.size());
+            for (Object element : collection) {
+                write(element);
+            }
+        } else if (objClass == HashMap.class || objClass == LinkedHashMap.class) {
+            Map<?, ?> map = (Map<?, ?>) obj;
+            register(obj);
+            out.writeByte(CompactFormat.MAP);
+            writeClass(objClass);
+            CompactFormat.writeVarInt(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(entry.getKey());
+                write(entry.getValue());
+            }
+        } else if (obj instanceof Serializable) {
+            writeSerializable(obj);
+        } else {
+            TypeModel<?> typeModel = context.getTypeDomain().getTypeModel(objClass);
+
+            //
+            if (typeModel == null) {
+                throw new NotSerializableException("Object " + obj + " does not have its type described");
+            }
+
+            //
+            if (typeModel instanceof ClassTypeModel) {
+                write((ClassTypeModel) typeModel, obj);
+            } else {
+                write((ConvertedTypeModel) typeModel, obj);
+            }
+        }
+    }
+
+    private void writeSerializable(Object obj) throws IOException {
+        register(obj);
+        out.writeByte(CompactFormat.SERIALIZED_OBJECT);
+
+        // An object reached from the Java stream is written in place, otherwise the data written in the Java stream for
+        // this object is copied in the compact stream
+        if (out == serialized) {
+            serialized.writeRoot(obj);
+        } else {
+            if (serialized == null) {
+                serializedBuffer = new ByteArrayOutputStream();
+                serialized = new NestedObjectOutputStream(serializedBuffer);
+            }
+            serialized.writeRoot(obj);
+            serialized.flush();
+            CompactFormat.writeBytes(out, serializedBuffer.toByteArray());
+            serializedBuffer.reset();
+        }
+    }
+
+    private <O, T> void write(ConvertedTypeModel<O, T> typeModel, O obj) throws IOException {
+        Class<? extends TypeConverter<O, T>> converterClass = typeModel.getConverterJavaType();
+
+        //
+        TypeConverter<O, T> converter;
+        try {
+            converter = converterClass.newInstance();
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+
+        //
+        T target;
+        try {
+            target = converter.write(obj);
+        } catch (Exception e) {
+            InvalidObjectException ioe = new InvalidObjectException("The object " + obj + " conversion threw an exception ");
+            ioe.initCause(e);
+            throw ioe;
+        }
+        if (target == null) {
+            throw new InvalidObjectException("The object " + obj + " was converted to null by converter " + converter);
+        }
+
+        //
+        out.writeByte(CompactFormat.CONVERTED_OBJECT);
+        writeClass(typeModel.getJavaType());
+        write(target);
+    }
+
+    private <O> void write(ClassTypeModel<O> typeModel, O obj) throws IOException {
+        if (typeModel.getSerializationMode() == SerializationMode.SERIALIZED) {
+            register(obj);
+            out.writeByte(CompactFormat.OBJECT);
+            writeClass(typeModel.getJavaType());
+
+            //
+            SerializationStatus status = SerializationStatus.NONE;
+            for (ClassTypeModel<? super O> currentTypeModel = typeModel; currentTypeModel != null; currentTypeModel = currentTypeModel
+                    .getSuperType()) {
+                if (currentTypeModel instanceof ClassTypeModel<?>) {
+                    for (FieldModel<?, ?> fieldModel : currentTypeModel.getFields()) {
+                        if (!fieldModel.isTransient()) {
+                            write(fieldModel.get(obj));
+                        }
+                    }
+                    switch (status) {
+                        case NONE:
+                            status = SerializationStatus.FULL;
+                            break;
+                    }
+                } else {
+                    if (!currentTypeModel.getFields().isEmpty()) {
+                        switch (status) {
+                            case FULL:
+                                status = SerializationStatus.PARTIAL;
+                                break;
+                        }
+                    }
+                }
+            }
+
+            //
+            switch (status) {
+                case FULL:
+                    break;
+                case PARTIAL:
+                    log.debug("Partial serialization of object " + obj);
+                    break;
+                case NONE:
+                    throw new NotSerializableException("Type " + typeModel + " is not serializable");
+            }
+        } else if (typeModel.getSerializationMode() == SerializationMode.SERIALIZABLE) {
+            writeSerializable(obj);
+        } else {
+            throw new NotSerializableException("Type " + typeModel + " is not serializable");
+        }
+    }
+
+    class NestedObjectOutputStream extends ObjectOutputStream {
+
+        /** The object being written, it must not be replaced. */
+        private Object root;
+
+        private NestedObjectOutputStream(OutputStream out) throws IOException {
+            super(out);
+
+            //
+            enableReplaceObject(true);
+        }
+
+        private void writeRoot(Object obj) throws IOException {
+            Object previous = root;
+            root = obj;
+            try {
+                writeObject(obj);
+            } finally {
+                root = previous;
+            }
+        }
+
+        /**
+         * Writes the compact form of an object in the data of this stream, the object identities are shared with the
+         * enclosing compact stream.
+         */
+        void writeCompact(Object obj) throws IOException {
+            DataOutput previous = out;
+            out = this;
+            try {
+                CompactObjectWriter.this.write(obj);
+            } finally {
+                out = previous;
+            }
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj == null || obj == root) {
+                return obj;
+            }
+
+            // Serializable objects already written in the enclosing stream are replaced by a reference
+            if (obj instanceof Serializable && !objectToId.containsKey(obj)) {
+                return obj;
+            }
+
+            //
+            return new CompactContainer(obj);
+        }
+    }
+}
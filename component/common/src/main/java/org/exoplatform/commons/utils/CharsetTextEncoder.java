@@ -34,6 +34,14 @@ public final class CharsetTextEncoder implements TextEncoder {
 
     private static final CharsetTextEncoder UTF8 = new CharsetTextEncoder(CharsetCharEncoder.getUTF8());
 
+    /** The per thread buffer the encoded chars are collected in before being written to the stream. */
+    private static final ThreadLocal<byte[]> BUFFER = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[512];
+        }
+    };
+
     public static TextEncoder getUTF8() {
         return UTF8;
     }
@@ -80,16 +88,81 @@ public final class CharsetTextEncoder implements TextEncoder {
     }
 
     public void encode(char[] chars, int off, int len, OutputStream out) throws IOException {
-        for (int i = off; i < len; i++) {
+        byte[] buffer = BUFFER.get();
+        int pos = 0;
+        for (int i = off, end = off + len; i < end; i++) {
             char c = chars[i];
-            encode(c, out);
+            if (c < 128) {
+                // The buffer always has room for at least one byte
+                buffer[pos++] = (byte) c;
+                if (pos == buffer.length) {
+                    out.write(buffer, 0, pos);
+                    pos = 0;
+                }
+            } else {
+                byte[] bytes;
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+                    bytes = encode(c, chars[++i]);
+                } else {
+                    bytes = charEncoder.encode(c);
+                }
+                pos = append(bytes, buffer, pos, out);
+            }
+        }
+        if (pos > 0) {
+            out.write(buffer, 0, pos);
         }
     }
 
     public void encode(String str, int off, int len, OutputStream out) throws IOException {
-        for (int i = off; i < len; i++) {
+        byte[] buffer = BUFFER.get();
+        int pos = 0;
+        for (int i = off, end = off + len; i < end; i++) {
             char c = str.charAt(i);
-            encode(c, out);
+            if (c < 128) {
+                // The buffer always has room for at least one byte
+                buffer[pos++] = (byte) c;
+                if (pos == buffer.length) {
+                    out.write(buffer, 0, pos);
+                    pos = 0;
+                }
+            } else {
+                byte[] bytes;
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    bytes = encode(c, str.charAt(++i));
+                } else {
+                    bytes = charEncoder.encode(c);
+                }
+                pos = append(bytes, buffer, pos, out);
+            }
+        }
+        if (pos > 0) {
+            out.write(buffer, 0, pos);
         }
     }
+
+    /**
+     * Appends the bytes of a non ASCII char to the buffer, the buffer is written to the stream when it is full.
+     *
+     * @return the new position in the buffer
+     */
+    private static int append(byte[] bytes, byte[] buffer, int pos, OutputStream out) throws IOException {
+        if (pos + bytes.length >= buffer.length) {
+            out.write(buffer, 0, pos);
+            pos = 0;
+            if (bytes.length >= buffer.length) {
+                out.write(bytes);
+                return 0;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    /**
+     * Encodes a supplementary character, a surrogate pair cannot be encoded char per char by the char encoder.
+     */
+    private byte[] encode(char high, char low) {
+        return new String(new char[] { high, low }).getBytes(charEncoder.getCharset());
+    }
 }
@@ -18,10 +18,10 @@
  */
 package org.exoplatform.commons.utils;
 
-import java.io.StringWriter;
+import java.io.IOException;
 import java.io.Writer;
 
-import org.gatein.common.io.WriterCharWriter;
+import org.gatein.common.io.UndeclaredIOException;
 import org.gatein.common.text.CharWriter;
 import org.gatein.common.text.EncodingException;
 import org.gatein.common.text.EntityEncoder;
@@ -60,6 +60,16 @@ public class HTMLEntityEncoder extends EntityEncoder {
      */
     private static final char[] IMMUNE_HTMLATTR = { ',', '.', '-', '_' };
 
+    /**
+     * The ASCII characters that are never encoded in HTML
+     */
+    private static final boolean[] PLAIN_HTML = buildPlainArray(IMMUNE_HTML);
+
+    /**
+     * The ASCII characters that are never encoded in HTML Attribute
+     */
+    private static final boolean[] PLAIN_HTMLATTR = buildPlainArray(IMMUNE_HTMLATTR);
+
     public String encodeIfNotEncoded(String input) {
         ParameterValidation.throwIllegalArgExceptionIfNull(input, "String");
         if (!isEncoded(input)) {
@@ -115,7 +125,19 @@ public class HTMLEntityEncoder extends EntityEncoder {
      * @return input encoded for HTML
      */
     public String encodeHTML(String input) {
-        return encode(input, IMMUNE_HTML);
+        return encode(input, PLAIN_HTML);
+    }
+
+    /**
+     * Encode data for use in HTML directly to an appendable such as the writer of a template.
+     *
+     * @param input the string to encode for HTML
+     * @param appendable the appendable receiving the encoded input
+     * @throws IOException any IOException thrown by the appendable
+     */
+    public void encodeHTML(String input, Appendable appendable) throws IOException {
+        ParameterValidation.throwIllegalArgExceptionIfNull(input, "String");
+        encode(input, appendable, PLAIN_HTML);
     }
 
     /**
@@ -125,7 +147,28 @@ public class HTMLEntityEncoder extends EntityEncoder {
      * @return input encoded for use as value of a HTML attribute
      */
     public String encodeHTMLAttribute(String input) {
-        return encode(input, IMMUNE_HTMLATTR);
+        return encode(input, PLAIN_HTMLATTR);
+    }
+
+    /**
+     * Encode data for use in HTML attributes directly to an appendable such as the writer of a template.
+     *
+     * @param input the string to encode for a HTML attribute
+     * @param appendable the appendable receiving the encoded input
+     * @throws IOException any IOException thrown by the appendable
+     */
+    public void encodeHTMLAttribute(String input, Appendable appendable) throws IOException {
+        ParameterValidation.throwIllegalArgExceptionIfNull(input, "String");
+        encode(input, appendable, PLAIN_HTMLATTR);
+    }
+
+    @Override
+    public String encode(String input) {
+        // Most of the labels and values do not need any encoding
+        if (input != null && isPlain(input, PLAIN_HTML)) {
+            return input;
+        }
+        return super.encode(input);
     }
 
     @Override
@@ -213,13 +256,102 @@ public class HTMLEntityEncoder extends EntityEncoder {
         return false;
     }
 
-    private String encode(String input, char[] immutable) {
+    private String encode(String input, boolean[] plain) {
         ParameterValidation.throwIllegalArgExceptionIfNull(input, "String");
+        if (isPlain(input, plain)) {
+            return input;
+        }
 
-        Writer sw = new StringWriter();
-        CharWriter charWriter = new WriterCharWriter(sw);
-        safeEncode(input.toCharArray(), 0, input.length(), charWriter, immutable);
-        return sw.toString();
+        //
+        StringBuilder sb = new StringBuilder(input.length() + 16);
+        try {
+            encode(input, sb, plain);
+        } catch (IOException e) {
+            throw new UndeclaredIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns true when a string contains only characters that are never encoded.
+     */
+    private boolean isPlain(String input, boolean[] plain) {
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c >= plain.length || !plain[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void encode(String input, Appendable appendable, boolean[] plain) throws IOException {
+        Writer writer = appendable instanceof Writer ? (Writer) appendable : null;
+
+        // The index of the last copied char
+        int previous = 0;
+
+        // Perform lookup char by char
+        for (int current = 0; current < input.length(); current++) {
+            char c = input.charAt(current);
+
+            // Lookup
+            if (c < plain.length && plain[c]) {
+                continue;
+            }
+
+            String replacement = lookupEntityName(c);
+            String hex = replacement == null ? lookupHexEntityNumber(c) : null;
+            if (replacement != null || hex != null) {
+                // Append the previous chars if any
+                if (current > previous) {
+                    if (writer != null) {
+                        writer.write(input, previous, current - previous);
+                    } else {
+                        appendable.append(input, previous, current);
+                    }
+                }
+
+                // Append the replaced entity
+                if (replacement != null) {
+                    appendable.append('&').append(replacement).append(';');
+                } else {
+                    appendable.append("&#x").append(hex).append(';');
+                }
+
+                // Update the previous pointer
+                previous = current + 1;
+            }
+        }
+
+        //
+        if (previous == 0) {
+            appendable.append(input);
+        } else if (previous < input.length()) {
+            if (writer != null) {
+                writer.write(input, previous, input.length() - previous);
+            } else {
+                appendable.append(input, previous, input.length());
+            }
+        }
+    }
+
+    /**
+     * Build an array indicating the ASCII characters that are never encoded, that is the letters, the digits and the immune
+     * characters.
+     *
+     * @param immune the immune characters
+     * @return the array of plain characters
+     */
+    private static boolean[] buildPlainArray(char[] immune) {
+        boolean[] array = new boolean[128];
+        for (char c = 0; c < array.length; c++) {
+            array[c] = c >= 0x30 && c <= 0x39 || c >= 0x41 && c <= 0x5A || c >= 0x61 && c <= 0x7A;
+        }
+        for (char c : immune) {
+            array[c] = true;
+        }
+        return array;
     }
 
     /**
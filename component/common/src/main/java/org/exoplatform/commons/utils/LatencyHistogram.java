@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * A lock free histogram of non negative values such as latencies. Values are counted in logarithmic buckets, each power
+ * of two being divided in {@link #SUB_BUCKETS} linear buckets, so a percentile is known with a relative error lower than
+ * 12.5% whatever the magnitude of the values. The histogram also counts the values recorded during each of the last
+ * {@link #RATE_WINDOW} seconds to provide the recording rate.
+ * </p>
+ *
+ * <p>
+ * Recording a value does not lock nor allocate and no update is lost under contention. A {@link Snapshot} provides a
+ * consistent enough view of the histogram for reporting.
+ * </p>
+ *
+ * @version $Revision$
+ */
+public class LatencyHistogram {
+
+    /** The number of linear buckets for each power of two. */
+    public static final int SUB_BUCKETS = 8;
+
+    /** The maximum number of seconds the rate can be computed over. */
+    public static final int RATE_WINDOW = 60;
+
+    /** . */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** . */
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /** The number of bits used by the counter of a rate slot, the remaining bits hold the second. */
+    private static final int RATE_COUNT_BITS = 24;
+
+    /** . */
+    private static final long RATE_COUNT_MASK = (1L << RATE_COUNT_BITS) - 1;
+
+    /**
+     * Returns the index of the bucket a value is counted in.
+     *
+     * @param value the non negative value
+     * @return the bucket index
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the lowest value counted in a bucket.
+     *
+     * @param index the bucket index
+     * @return the lowest value
+     */
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = index & (SUB_BUCKETS - 1);
+        return (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Returns the highest value counted in a bucket.
+     *
+     * @param index the bucket index
+     * @return the highest value
+     */
+    static long bucketUpperBound(int index) {
+        return index == BUCKET_COUNT - 1 ? Long.MAX_VALUE : bucketLowerBound(index + 1) - 1;
+    }
+
+    /** The current state, replaced on reset. */
+    private volatile State state;
+
+    public LatencyHistogram() {
+        this.state = new State();
+    }
+
+    /**
+     * Records a value, negative values are recorded as zero.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        //
+        State state = this.state;
+        state.buckets.incrementAndGet(bucketIndex(value));
+        state.count.incrementAndGet();
+        state.sum.addAndGet(value);
+
+        //
+        while (true) {
+            long max = state.max.get();
+            if (value <= max || state.max.compareAndSet(max, value)) {
+                break;
+            }
+        }
+        while (true) {
+            long min = state.min.get();
+            if (value >= min || state.min.compareAndSet(min, value)) {
+                break;
+            }
+        }
+
+        //
+        long second = currentTimeMillis() / 1000;
+        int slot = (int) (second % RATE_WINDOW);
+        while (true) {
+            long current = state.rates.get(slot);
+            long next;
+            if (current >>> RATE_COUNT_BITS == second) {
+                if ((current & RATE_COUNT_MASK) == RATE_COUNT_MASK) {
+                    break;
+                }
+                next = current + 1;
+            } else {
+                next = (second << RATE_COUNT_BITS) | 1;
+            }
+            if (state.rates.compareAndSet(slot, current, next)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of values recorded per second over the last completed seconds.
+     *
+     * @param seconds the number of seconds, between 1 and {@link #RATE_WINDOW} - 1
+     * @return the rate
+     * @throws IllegalArgumentException if the number of seconds is out of bounds
+     */
+    public double getRate(int seconds) throws IllegalArgumentException {
+        if (seconds < 1 || seconds >= RATE_WINDOW) {
+            throw new IllegalArgumentException("The rate cannot be computed over " + seconds + " seconds");
+        }
+        State state = this.state;
+        long now = currentTimeMillis() / 1000;
+        long total = 0;
+        for (long second = now - seconds; second < now; second++) {
+            long value = state.rates.get((int) (second % RATE_WINDOW));
+            if (value >>> RATE_COUNT_BITS == second) {
+                total += value & RATE_COUNT_MASK;
+            }
+        }
+        return (double) total / seconds;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return state.count.get();
+    }
+
+    /**
+     * Returns the smallest recorded value or -1 when no value was recorded.
+     *
+     * @return the min value
+     */
+    public long getMin() {
+        long min = state.min.get();
+        return min == Long.MAX_VALUE ? -1 : min;
+    }
+
+    /**
+     * Returns the greatest recorded value or -1 when no value was recorded.
+     *
+     * @return the max value
+     */
+    public long getMax() {
+        return state.max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values or -1 when no value was recorded.
+     *
+     * @return the mean value
+     */
+    public double getMean() {
+        State state = this.state;
+        long count = state.count.get();
+        return count == 0 ? -1 : (double) state.sum.get() / count;
+    }
+
+    /**
+     * Returns a snapshot of the recorded values.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        State state = this.state;
+        long[] buckets = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = state.buckets.get(i);
+            count += buckets[i];
+        }
+        long min = state.min.get();
+        long max = state.max.get();
+        return new Snapshot(buckets, count, state.sum.get(), count == 0 ? -1 : min, count == 0 ? -1 : max);
+    }
+
+    /**
+     * Discards the recorded values. A value recorded concurrently may be discarded as well.
+     */
+    public void reset() {
+        state = new State();
+    }
+
+    /**
+     * Returns the current time used to compute the rate, the default implementation returns
+     * {@link System#currentTimeMillis()}.
+     *
+     * @return the current time in milliseconds
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private static class State {
+
+        /** . */
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+        /** . */
+        private final AtomicLongArray rates = new AtomicLongArray(RATE_WINDOW);
+
+        /** . */
+        private final AtomicLong count = new AtomicLong();
+
+        /** . */
+        private final AtomicLong sum = new AtomicLong();
+
+        /** . */
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+        /** . */
+        private final AtomicLong max = new AtomicLong(-1);
+    }
+
+    /**
+     * An immutable view of the values recorded by an histogram.
+     */
+    public static class Snapshot {
+
+        /** . */
+        private final long[] buckets;
+
+        /** . */
+        private final long count;
+
+        /** . */
+        private final long sum;
+
+        /** . */
+        private final long min;
+
+        /** . */
+        private final long max;
+
+        private Snapshot(long[] buckets, long count, long sum, long min, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the smallest recorded value or -1 when no value was recorded.
+         *
+         * @return the min value
+         */
+        public long getMin() {
+            return min;
+        }
+
+        /**
+         * Returns the greatest recorded value or -1 when no value was recorded.
+         *
+         * @return the max value
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Returns the mean of the recorded values or -1 when no value was recorded.
+         *
+         * @return the mean value
+         */
+        public double getMean() {
+            return count == 0 ? -1 : (double) sum / count;
+        }
+
+        /**
+         * Returns an upper bound of the value below which a percentage of the recorded values fall, or -1 when no value was
+         * recorded. The returned value is never greater than the max value.
+         *
+         * @param percentile the percentile between 0 and 100
+         * @return the value at the percentile
+         * @throws IllegalArgumentException if the percentile is out of bounds
+         */
+        public long getValueAtPercentile(double percentile) throws IllegalArgumentException {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Invalid percentile " + percentile);
+            }
+            if (count == 0) {
+                return -1;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.max(min, Math.min(max, bucketUpperBound(i)));
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot[count=" + count + ",min=" + min + ",max=" + max + ",mean=" + getMean() + ",p50="
+                    + getValueAtPercentile(50) + ",p95=" + getValueAtPercentile(95) + ",p99=" + getValueAtPercentile(99)
+                    + ",p999=" + getValueAtPercentile(99.9) + "]";
+        }
+    }
+}
@@ -31,9 +31,8 @@ import java.nio.charset.Charset;
  */
 public class TableCharEncoder implements CharEncoder {
 
-    private static final char MAX = (char) 0x10FFFD;
-
-    private byte[][] table;
+    /** The table of the encoded chars, a supplementary character is encoded by {@link CharsetTextEncoder}. */
+    private final byte[][] table;
 
     private final CharEncoder charEncoder;
 
@@ -44,7 +43,12 @@ public class TableCharEncoder implements CharEncoder {
      */
     public TableCharEncoder(CharEncoder charEncoder) {
         this.charEncoder = charEncoder;
-        this.table = new byte[MAX + 1][];
+        this.table = new byte[Character.MAX_VALUE + 1][];
+
+        // The ASCII chars are encoded up front as they are the most used ones
+        for (char c = 0; c < 128; c++) {
+            table[c] = charEncoder.encode(c);
+        }
     }
 
     public Charset getCharset() {
@@ -24,8 +24,12 @@ package org.gatein.common.xml.stax.navigator.builder;
 
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
@@ -42,6 +46,12 @@ import org.staxnav.StaxNavigatorFactory;
  * @version $Revision$
  */
 public class StaxNavBuilderImpl implements StaxNavBuilder {
+    /** The maximum number of cached factories. */
+    private static final int MAX_FACTORIES = 32;
+
+    /** The factories per configuration. */
+    private static final ConcurrentMap<List<Map<String, Object>>, XMLInputFactory> factories = new ConcurrentHashMap<List<Map<String, Object>>, XMLInputFactory>();
+
     private Object input;
     private String inputEncoding;
     private XMLStreamReader reader;
@@ -129,21 +139,7 @@ public class StaxNavBuilderImpl implements StaxNavBuilder {
                     "Cannot build stax reader. Try calling withInputStream/withReader or pass in own XMLStreamReader.");
 
         if (reader == null) {
-            // TODO: Create solution to properly cache XMLInputFactory
-            XMLInputFactory factory = XMLInputFactory.newInstance();
-
-            // Set properties
-            for (Map.Entry<String, Object> entry : properties.entrySet()) {
-                factory.setProperty(entry.getKey(), entry.getValue());
-            }
-
-            // Set properties if supported
-            for (Map.Entry<String, Object> entry : supportedProperties.entrySet()) {
-                String name = entry.getKey();
-                if (factory.isPropertySupported(name)) {
-                    factory.setProperty(name, entry.getValue());
-                }
-            }
+            XMLInputFactory factory = getFactory(properties, supportedProperties);
 
             if (input instanceof InputStream) {
                 if (inputEncoding == null) {
@@ -178,4 +174,39 @@ public class StaxNavBuilderImpl implements StaxNavBuilder {
 
         return StaxNavigatorFactory.create(naming, reader);
     }
+
+    /**
+     * Returns a factory configured with the properties, the factories are created once per distinct configuration and
+     * shared as they are thread safe once configured.
+     */
+    static XMLInputFactory getFactory(Map<String, Object> properties, Map<String, Object> supportedProperties) {
+        List<Map<String, Object>> key = Arrays.<Map<String, Object>> asList(new HashMap<String, Object>(properties),
+                new HashMap<String, Object>(supportedProperties));
+        XMLInputFactory factory = factories.get(key);
+        if (factory == null) {
+            factory = XMLInputFactory.newInstance();
+
+            // Set properties
+            for (Map.Entry<String, Object> entry : properties.entrySet()) {
+                factory.setProperty(entry.getKey(), entry.getValue());
+            }
+
+            // Set properties if supported
+            for (Map.Entry<String, Object> entry : supportedProperties.entrySet()) {
+                String name = entry.getKey();
+                if (factory.isPropertySupported(name)) {
+                    factory.setProperty(name, entry.getValue());
+                }
+            }
+
+            // Bound the cache in case the property values are not stable
+            if (factories.size() < MAX_FACTORIES) {
+                XMLInputFactory existing = factories.putIfAbsent(key, factory);
+                if (existing != null) {
+                    factory = existing;
+                }
+            }
+        }
+        return factory;
+    }
 }
@@ -24,8 +24,12 @@ package org.gatein.common.xml.stax.writer.builder;
 
 import java.io.OutputStream;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
@@ -45,6 +49,12 @@ import org.staxnav.StaxNavException;
  * @version $Revision$
  */
 public class StaxWriterBuilderImpl implements StaxWriterBuilder {
+    /** The maximum number of cached factories. */
+    private static final int MAX_FACTORIES = 32;
+
+    /** The factories per configuration. */
+    private static final ConcurrentMap<List<Map<String, Object>>, XMLOutputFactory> factories = new ConcurrentHashMap<List<Map<String, Object>>, XMLOutputFactory>();
+
     private XMLStreamWriter writer;
     private Object output;
     private String outputEncoding;
@@ -160,21 +170,7 @@ public class StaxWriterBuilderImpl implements StaxWriterBuilder {
                     "Cannot build stax writer. Try calling withOutputStream/withWriter or pass in own XMLStreamWriter.");
 
         if (writer == null) {
-            // TODO: Create solution to properly cache XMLOutputFactory
-            XMLOutputFactory factory = XMLOutputFactory.newInstance();
-
-            // Set properties
-            for (Map.Entry<String, Object> entry : properties.entrySet()) {
-                factory.setProperty(entry.getKey(), entry.getValue());
-            }
-
-            // Set properties if supported
-            for (Map.Entry<String, Object> entry : supportedProperties.entrySet()) {
-                String name = entry.getKey();
-                if (factory.isPropertySupported(name)) {
-                    factory.setProperty(name, entry.getValue());
-                }
-            }
+            XMLOutputFactory factory = getFactory(properties, supportedProperties);
 
             if (output instanceof OutputStream) {
                 if (outputEncoding != null) {
@@ -209,4 +205,39 @@ public class StaxWriterBuilderImpl implements StaxWriterBuilder {
 
         return new StaxWriterImpl<N>(naming, writer, formatter, encoding, version);
     }
+
+    /**
+     * Returns a factory configured with the properties, the factories are created once per distinct configuration and
+     * shared as they are thread safe once configured.
+     */
+    static XMLOutputFactory getFactory(Map<String, Object> properties, Map<String, Object> supportedProperties) {
+        List<Map<String, Object>> key = Arrays.<Map<String, Object>> asList(new HashMap<String, Object>(properties),
+                new HashMap<String, Object>(supportedProperties));
+        XMLOutputFactory factory = factories.get(key);
+        if (factory == null) {
+            factory = XMLOutputFactory.newInstance();
+
+            // Set properties
+            for (Map.Entry<String, Object> entry : properties.entrySet()) {
+                factory.setProperty(entry.getKey(), entry.getValue());
+            }
+
+            // Set properties if supported
+            for (Map.Entry<String, Object> entry : supportedProperties.entrySet()) {
+                String name = entry.getKey();
+                if (factory.isPropertySupported(name)) {
+                    factory.setProperty(name, entry.getValue());
+                }
+            }
+
+            // Bound the cache in case the property values are not stable
+            if (factories.size() < MAX_FACTORIES) {
+                XMLOutputFactory existing = factories.putIfAbsent(key, factory);
+                if (existing != null) {
+                    factory = existing;
+                }
+            }
+        }
+        return factory;
+    }
 }
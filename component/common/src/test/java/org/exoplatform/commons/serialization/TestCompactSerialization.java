@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.NotSerializableException;
+import java.util.ArrayList;
+
+import org.exoplatform.commons.serialization.model.TypeDomain;
+import org.exoplatform.commons.serialization.serial.CompactFormat;
+import org.exoplatform.component.test.AbstractGateInTest;
+
+/**
+ * @version $Revision$
+ */
+public class TestCompactSerialization extends AbstractGateInTest {
+
+    private SerializationContext createContext(TypeDomain domain, boolean compressed) {
+        SerializationContext context = new SerializationContext(domain);
+        context.setCompact(true);
+        context.setCompressed(compressed);
+        return context;
+    }
+
+    public void testState() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(A.class);
+        A a = new A();
+        a.a = "foo";
+        a.b = -2;
+        a.c = true;
+        SerializationContext context = createContext(domain, false);
+        byte[] bytes = context.write(a);
+        assertTrue(CompactFormat.isCompact(bytes));
+        a = (A) context.read(bytes);
+        assertEquals("foo", a.a);
+        assertEquals(-2, a.b);
+        assertEquals(true, a.c);
+    }
+
+    public void testCompressed() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(A.class);
+        A a = new A();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("foo");
+        }
+        a.a = sb.toString();
+        SerializationContext context = createContext(domain, true);
+        byte[] bytes = context.write(a);
+        assertTrue(bytes.length < 100);
+        a = context.clone(a);
+        assertEquals(sb.toString(), a.a);
+    }
+
+    public void testSmallerThanJavaSerialization() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(F.class);
+        F root = new F();
+        for (int i = 0; i < 10; i++) {
+            F child = new F();
+            child.parent = root;
+            root.children.add(child);
+        }
+        SerializationContext context = new SerializationContext(domain);
+        int javaSize = context.write(root).length;
+        context.setCompact(true);
+        int compactSize = context.write(root).length;
+        assertTrue("Was expecting " + compactSize + " < " + javaSize, compactSize < javaSize);
+    }
+
+    public void testReadJavaSerialization() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(A.class);
+        A a = new A();
+        a.a = "foo";
+        SerializationContext context = new SerializationContext(domain);
+        byte[] bytes = context.write(a);
+        assertFalse(CompactFormat.isCompact(bytes));
+        context.setCompact(true);
+        a = (A) context.read(bytes);
+        assertEquals("foo", a.a);
+        a = (A) context.read(new ByteArrayInputStream(context.write(a)));
+        assertEquals("foo", a.a);
+    }
+
+    public void testMultipleReference1() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(B.class);
+        B b = new B();
+        b.ref = new B(b);
+        SerializationContext context = createContext(domain, false);
+        b = context.clone(b);
+        assertNotNull(b.ref);
+        assertSame(b, b.ref.ref);
+    }
+
+    public void testMultipleReference2() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(E2.class);
+        E2 e = new E2();
+        e.left = new E2();
+        ((E2) e.left).left = new E1();
+        ((E2) e.left).right = new E1();
+        e.right = new E2();
+        ((E2) e.right).left = ((E2) e.left).left;
+        ((E2) e.right).right = ((E2) e.left).right;
+        SerializationContext context = createContext(domain, true);
+        e = context.clone(e);
+        assertSame(((E2) e.left).left, ((E2) e.right).left);
+        assertSame(((E2) e.left).right, ((E2) e.right).right);
+    }
+
+    public void testSharedSerializable() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(H.class);
+        StringBuilder shared = new StringBuilder("foo");
+        H h = new H();
+        h.left = new I(shared);
+        h.right = new I(shared);
+        SerializationContext context = createContext(domain, false);
+        h = context.clone(h);
+        assertEquals("foo", ((I) h.left).value.toString());
+        assertSame(((I) h.left).value, ((I) h.right).value);
+
+        //
+        h.right = ((I) h.left).value;
+        h = context.clone(h);
+        assertSame(((I) h.left).value, h.right);
+    }
+
+    public void testSharedSerializableInNestedObject() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(H.class);
+        StringBuilder shared = new StringBuilder("foo");
+        H nested = new H();
+        nested.left = new I(shared);
+        nested.right = new I(shared);
+        H h = new H();
+        h.left = new I(nested);
+        h.right = shared;
+        SerializationContext context = createContext(domain, true);
+        h = context.clone(h);
+        nested = (H) ((I) h.left).value;
+        assertSame(h.right, ((I) nested.left).value);
+        assertSame(h.right, ((I) nested.right).value);
+    }
+
+    public void testListOfReplicatable() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(F.class);
+
+        //
+        F f1 = new F();
+        F f2 = new F();
+        f1.children.add(f2);
+        f2.parent = f1;
+
+        //
+        SerializationContext context = createContext(domain, false);
+        f1 = context.clone(f1);
+
+        //
+        assertNotNull(f1.children);
+        assertTrue(f1.children instanceof ArrayList<?>);
+        assertNull(f1.parent);
+        assertEquals(1, f1.children.size());
+        assertNotNull(f1.children.get(0));
+        assertSame(f1, f1.children.get(0).parent);
+    }
+
+    public void testNotSerializable() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(ByteArrayInputStream.class);
+
+        SerializationContext context = createContext(domain, false);
+        try {
+            context.write(new ByteArrayInputStream(new byte[0]));
+            fail();
+        } catch (NotSerializableException e) {
+        }
+    }
+
+    public void testTransientField() throws Exception {
+        TypeDomain domain = new TypeDomain();
+        domain.addTypeModel(G.class);
+        SerializationContext context = createContext(domain, false);
+        G g = new G();
+        g.a = "foo";
+        g.b = new Thread();
+        g = context.clone(g);
+        assertEquals("foo", g.a);
+        assertEquals(null, g.b);
+    }
+}
@@ -18,6 +18,8 @@
  */
 package org.exoplatform.commons.utils;
 
+import java.io.StringWriter;
+
 import junit.framework.TestCase;
 
 /**
@@ -80,4 +82,34 @@ public class TestHTMLEntityEncoder extends TestCase {
         assertEquals("&lt;h1&gt;HELLO WORLD&lt;&#x2f;h1&gt;", htmlEncoder.encodeIfNotEncoded("&lt;h1&gt;HELLO WORLD&lt;&#x2f;h1&gt;"));
         assertEquals("alert&#x28;&#x27;HELLO WORLD&#x27;&#x29;", htmlEncoder.encodeIfNotEncoded("alert&#x28;&#x27;HELLO WORLD&#x27;&#x29;"));
     }
+
+    public void testPlain() {
+        String label = "Site Administration";
+        assertSame(label, htmlEncoder.encode(label));
+        assertSame(label, htmlEncoder.encodeHTML(label));
+        assertEquals("Site&#x20;Administration", htmlEncoder.encodeHTMLAttribute(label));
+        String name = "group_navigation-1.0";
+        assertSame(name, htmlEncoder.encodeHTMLAttribute(name));
+        assertSame("", htmlEncoder.encodeHTML(""));
+    }
+
+    public void testEncodeToAppendable() throws Exception {
+        StringWriter writer = new StringWriter();
+        htmlEncoder.encodeHTML("<h1>HELLO WORLD</h1>", writer);
+        htmlEncoder.encodeHTML(" plain", writer);
+        assertEquals("&lt;h1&gt;HELLO WORLD&lt;&#x2f;h1&gt; plain", writer.toString());
+
+        //
+        StringBuilder builder = new StringBuilder();
+        htmlEncoder.encodeHTMLAttribute("alert('HELLO WORLD')", builder);
+        assertEquals("alert&#x28;&#x27;HELLO&#x20;WORLD&#x27;&#x29;", builder.toString());
+    }
+
+    public void testEncodeLabels() {
+        String[] inputs = { "Home", "Site Administration", "Group Navigation", "john.smith@example.com",
+                "<script>alert('x')</script> & \"quoted\" text" };
+        for (String input : inputs) {
+            assertEquals(htmlEncoder.encode(input), htmlEncoder.encodeHTML(input));
+        }
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.commons.utils;
+
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Revision$
+ */
+public class TestLatencyHistogram extends TestCase {
+
+    public void testBuckets() {
+        for (int i = 0; i < 488; i++) {
+            long lower = LatencyHistogram.bucketLowerBound(i);
+            assertEquals(i, LatencyHistogram.bucketIndex(lower));
+            assertEquals(i, LatencyHistogram.bucketIndex(LatencyHistogram.bucketUpperBound(i)));
+            if (i > 0) {
+                assertEquals(lower - 1, LatencyHistogram.bucketUpperBound(i - 1));
+            }
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.bucketUpperBound(487));
+    }
+
+    public void testEmpty() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(-1, snapshot.getMin());
+        assertEquals(-1, snapshot.getMax());
+        assertEquals(-1D, snapshot.getMean());
+        assertEquals(-1, snapshot.getValueAtPercentile(99));
+    }
+
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500.5D, snapshot.getMean());
+        assertWithin(500, snapshot.getValueAtPercentile(50));
+        assertWithin(950, snapshot.getValueAtPercentile(95));
+        assertWithin(990, snapshot.getValueAtPercentile(99));
+        assertEquals(1000, snapshot.getValueAtPercentile(99.9));
+        assertEquals(1000, snapshot.getValueAtPercentile(100));
+        assertEquals(1, snapshot.getValueAtPercentile(0));
+    }
+
+    public void testTail() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            histogram.record(10);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10, snapshot.getValueAtPercentile(50));
+        assertEquals(10, snapshot.getValueAtPercentile(99));
+        assertEquals(5000, snapshot.getValueAtPercentile(99.9));
+    }
+
+    public void testRate() {
+        final long[] now = { 100000 };
+        LatencyHistogram histogram = new LatencyHistogram() {
+            @Override
+            protected long currentTimeMillis() {
+                return now[0];
+            }
+        };
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1);
+        }
+        assertEquals(0D, histogram.getRate(1));
+        now[0] += 1000;
+        for (int i = 0; i < 20; i++) {
+            histogram.record(1);
+        }
+        now[0] += 1000;
+        assertEquals(20D, histogram.getRate(1));
+        assertEquals(15D, histogram.getRate(2));
+
+        // Slots are reused after the window
+        now[0] += LatencyHistogram.RATE_WINDOW * 1000;
+        histogram.record(1);
+        now[0] += 1000;
+        assertEquals(1D, histogram.getRate(1));
+        assertEquals(1D / 59, histogram.getRate(59));
+    }
+
+    public void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(-1, histogram.snapshot().getMax());
+    }
+
+    public void testConcurrentRecord() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 10000; j++) {
+                        histogram.record(j);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, histogram.getCount());
+        assertEquals(40000, histogram.snapshot().getCount());
+        assertEquals(9999, histogram.snapshot().getMax());
+        assertEquals(0, histogram.snapshot().getMin());
+    }
+
+    private void assertWithin(long expected, long actual) {
+        assertTrue("Was expecting " + actual + " to be close to " + expected, actual >= expected
+                && actual <= expected * 1.125);
+    }
+}
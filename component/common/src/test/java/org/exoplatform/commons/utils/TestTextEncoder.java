@@ -49,6 +49,54 @@ public class TestTextEncoder extends AbstractGateInTest {
          */
     }
 
+    public void testNonASCII() throws IOException {
+        // Chinese
+        assertUTF8(new String(new char[] { 0x4EAC, 0x4EC5, 0x5C3D, 0x5F84, 0x60CA, 0x740E, 0x7579, 0x7D27, 0x7ECF }));
+
+        // Extended Roman mixed with ASCII
+        assertUTF8("<p>" + new String(new char[] { 0xEA, 0xFC, 0xE2, 0xCC }) + "</p>");
+
+        // Supplementary characters encoded as surrogate pairs
+        assertUTF8("a" + new String(Character.toChars(0x1D11E)) + "b" + new String(Character.toChars(0x20000)));
+    }
+
+    public void testOffset() throws IOException {
+        String s = "<div>" + new String(new char[] { 0xE9 }) + "</div>";
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        CharsetTextEncoder.getUTF8().encode(s, 5, 1, baos);
+        assertEquals(toList(new String(new char[] { 0xE9 }).getBytes("UTF-8")), toList(baos.toByteArray()));
+
+        //
+        baos.reset();
+        CharsetTextEncoder.getUTF8().encode(s.toCharArray(), 1, 3, baos);
+        assertEquals(toList("div".getBytes("UTF-8")), toList(baos.toByteArray()));
+    }
+
+    public void testLongText() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("<span class=\"item\">").append(i).append((char) (0x400 + i % 64)).append("</span>");
+        }
+        assertUTF8(sb.toString());
+    }
+
+    private void assertUTF8(String s) throws IOException {
+        List<Byte> expected = toList(s.getBytes("UTF-8"));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        CharsetTextEncoder.getUTF8().encode(s, 0, s.length(), baos);
+        assertEquals(expected, toList(baos.toByteArray()));
+
+        //
+        baos.reset();
+        CharsetTextEncoder.getUTF8().encode(s.toCharArray(), 0, s.length(), baos);
+        assertEquals(expected, toList(baos.toByteArray()));
+
+        //
+        baos.reset();
+        new CharsetTextEncoder("UTF-8").encode(s, 0, s.length(), baos);
+        assertEquals(expected, toList(baos.toByteArray()));
+    }
+
     private void assertOK(String s) throws IOException {
         TextEncoder encoder = CharsetTextEncoder.getUTF8();
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.common.xml.stax.navigator.builder;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+
+import junit.framework.TestCase;
+
+import org.staxnav.Naming;
+import org.staxnav.StaxNavigator;
+
+/**
+ * @version $Revision$
+ */
+public class StaxNavBuilderImplTest extends TestCase {
+    public void testFactoryIsSharedPerConfiguration() {
+        Map<String, Object> none = Collections.emptyMap();
+        Map<String, Object> coalescing = Collections.<String, Object> singletonMap(XMLInputFactory.IS_COALESCING, true);
+
+        XMLInputFactory factory = StaxNavBuilderImpl.getFactory(coalescing, none);
+        assertSame(factory, StaxNavBuilderImpl.getFactory(coalescing, none));
+        assertEquals(Boolean.TRUE, factory.getProperty(XMLInputFactory.IS_COALESCING));
+
+        assertNotSame(factory, StaxNavBuilderImpl.getFactory(none, none));
+        assertNotSame(factory, StaxNavBuilderImpl.getFactory(none, coalescing));
+    }
+
+    public void testUnsupportedPropertyIsIgnored() {
+        Map<String, Object> none = Collections.emptyMap();
+        Map<String, Object> unsupported = Collections.<String, Object> singletonMap("unsupported-property", true);
+
+        XMLInputFactory factory = StaxNavBuilderImpl.getFactory(none, unsupported);
+        assertSame(factory, StaxNavBuilderImpl.getFactory(none, unsupported));
+        assertFalse(factory.isPropertySupported("unsupported-property"));
+    }
+
+    public void testBuildWithSharedFactory() {
+        for (int i = 0; i < 2; i++) {
+            StaxNavigator<String> navigator = new StaxNavBuilderImpl().withProperty(XMLInputFactory.IS_COALESCING, true)
+                    .withReader(new StringReader("<foo><bar>" + i + "</bar></foo>")).build(new Naming.Local());
+            assertEquals("foo", navigator.getName());
+            assertEquals("bar", navigator.child());
+            assertEquals(String.valueOf(i), navigator.getContent());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.gatein.common.xml.stax.writer.builder;
+
+import java.util.Collections;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Revision$
+ */
+public class StaxWriterBuilderImplTest extends TestCase {
+    public void testFactoryIsSharedPerConfiguration() {
+        Map<String, Object> none = Collections.emptyMap();
+        Map<String, Object> repairing = Collections.<String, Object> singletonMap(XMLOutputFactory.IS_REPAIRING_NAMESPACES,
+                true);
+
+        XMLOutputFactory factory = StaxWriterBuilderImpl.getFactory(repairing, none);
+        assertSame(factory, StaxWriterBuilderImpl.getFactory(repairing, none));
+        assertEquals(Boolean.TRUE, factory.getProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES));
+
+        assertNotSame(factory, StaxWriterBuilderImpl.getFactory(none, none));
+        assertNotSame(factory, StaxWriterBuilderImpl.getFactory(none, repairing));
+    }
+
+    public void testUnsupportedPropertyIsIgnored() {
+        Map<String, Object> none = Collections.emptyMap();
+        Map<String, Object> unsupported = Collections.<String, Object> singletonMap("unsupported-property", true);
+
+        XMLOutputFactory factory = StaxWriterBuilderImpl.getFactory(none, unsupported);
+        assertSame(factory, StaxWriterBuilderImpl.getFactory(none, unsupported));
+        assertFalse(factory.isPropertySupported("unsupported-property"));
+    }
+}
@@ -22,7 +22,9 @@ package org.exoplatform.portal.pc;
 import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.container.ExoContainer;
 import org.exoplatform.container.ExoContainerContext;
+import org.exoplatform.portal.pc.aspects.PortletInvocationStatisticService;
 import org.exoplatform.portal.pc.aspects.PortletLifecyclePhaseInterceptor;
+import org.exoplatform.portal.pc.aspects.TimingInterceptor;
 import org.exoplatform.services.resources.ResourceBundleService;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
@@ -75,6 +77,9 @@ public class ExoKernelIntegration implements Startable, WebAppListener {
      */
     private boolean producerPortletInvokerSet;
 
+    /** The statistic service when the timing of the container stack is enabled. */
+    private PortletInvocationStatisticService statisticService;
+
     /** . */
     private Logger log = LoggerFactory.getLogger(ExoKernelIntegration.class);
 
@@ -105,37 +110,44 @@ public class ExoKernelIntegration implements Startable, WebAppListener {
         log.debug("portlet xml validation is " + (validated ? "enabled" : " disabled"));
         portletApplicationRegistry.setSchemaValidated(validated);
 
+        // activate the timing of the container stack if needed
+        if ("true".equals(PropertyManager.getProperty("gatein.portlet.invocation.timing"))) {
+            statisticService = new PortletInvocationStatisticService();
+            container.registerComponentInstance(PortletInvocationStatisticService.class, statisticService);
+            log.info("Timing of the portlet container stack is enabled");
+        }
+
         // Container Stack
         ContainerPortletDispatcher portletContainerDispatcher = new ContainerPortletDispatcher();
 
         FederatingPortletInvoker federatingPortletInvoker = new FederatingPortletInvokerService();
 
         EventPayloadInterceptor eventPayloadInterceptor = new EventPayloadInterceptor();
-        eventPayloadInterceptor.setNext(portletContainerDispatcher);
+        eventPayloadInterceptor.setNext(timed("Portlet", portletContainerDispatcher));
         RequestAttributeConversationInterceptor requestAttributeConversationInterceptor = new RequestAttributeConversationInterceptor();
-        requestAttributeConversationInterceptor.setNext(eventPayloadInterceptor);
+        requestAttributeConversationInterceptor.setNext(timed("EventPayload", eventPayloadInterceptor));
         CCPPInterceptor ccppInterceptor = new CCPPInterceptor();
-        ccppInterceptor.setNext(requestAttributeConversationInterceptor);
+        ccppInterceptor.setNext(timed("RequestAttributeConversation", requestAttributeConversationInterceptor));
         BridgeInterceptor bridgepInterceptor = new BridgeInterceptor();
-        bridgepInterceptor.setNext(ccppInterceptor);
+        bridgepInterceptor.setNext(timed("CCPP", ccppInterceptor));
         ProducerCacheInterceptor producerCacheInterceptor = new ProducerCacheInterceptor();
-        producerCacheInterceptor.setNext(bridgepInterceptor);
+        producerCacheInterceptor.setNext(timed("Bridge", bridgepInterceptor));
 
         // SessionInvalidatorInterceptor is not needed as we have cross-context logout at WCI level
         // SessionInvalidatorInterceptor sessionInvalidatorInterceptor = new SessionInvalidatorInterceptor();
         // sessionInvalidatorInterceptor.setNext(producerCacheInterceptor);
         ContextDispatcherInterceptor contextDispatcherInterceptor = new ContextDispatcherInterceptor();
-        contextDispatcherInterceptor.setNext(producerCacheInterceptor);
+        contextDispatcherInterceptor.setNext(timed("ProducerCache", producerCacheInterceptor));
         PortletLifecyclePhaseInterceptor portletLifecyclePhaseInterceptor = new PortletLifecyclePhaseInterceptor();
-        portletLifecyclePhaseInterceptor.setNext(contextDispatcherInterceptor);
+        portletLifecyclePhaseInterceptor.setNext(timed("ContextDispatcher", contextDispatcherInterceptor));
         SecureTransportInterceptor secureTransportInterceptor = new SecureTransportInterceptor();
-        secureTransportInterceptor.setNext(portletLifecyclePhaseInterceptor);
+        secureTransportInterceptor.setNext(timed("PortletLifecyclePhase", portletLifecyclePhaseInterceptor));
         ValveInterceptor valveInterceptor = new ValveInterceptor();
         valveInterceptor.setPortletApplicationRegistry(portletApplicationRegistry);
-        valveInterceptor.setNext(secureTransportInterceptor);
+        valveInterceptor.setNext(timed("SecureTransport", secureTransportInterceptor));
 
         // The portlet container invoker continued
-        containerPortletInvoker.setNext(valveInterceptor);
+        containerPortletInvoker.setNext(timed("Valve", valveInterceptor));
 
         // register container invoker so that WSRP can use it, WSRP uses its own ProducerPortletInvoker
         container.registerComponentInstance(ContainerPortletInvoker.class, containerPortletInvoker);
@@ -165,11 +177,11 @@ public class ExoKernelIntegration implements Startable, WebAppListener {
 
         // The consumer portlet invoker
         PortletCustomizationInterceptor portletCustomizationInterceptor = new PortletCustomizationInterceptor();
-        portletCustomizationInterceptor.setNext(federatingPortletInvoker);
+        portletCustomizationInterceptor.setNext(timed("Producer", federatingPortletInvoker));
         ConsumerCacheInterceptor consumerCacheInterceptor = new ConsumerCacheInterceptor();
-        consumerCacheInterceptor.setNext(portletCustomizationInterceptor);
+        consumerCacheInterceptor.setNext(timed("PortletCustomization", portletCustomizationInterceptor));
         PortletInvokerInterceptor consumerPortletInvoker = new PortletInvokerInterceptor();
-        consumerPortletInvoker.setNext(consumerCacheInterceptor);
+        consumerPortletInvoker.setNext(timed("ConsumerCache", consumerCacheInterceptor));
 
         // register federating portlet and consumerPortletInvoker invoker with container
         container.registerComponentInstance(PortletInvoker.class, consumerPortletInvoker);
@@ -195,6 +207,18 @@ public class ExoKernelIntegration implements Startable, WebAppListener {
         }
     }
 
+    /**
+     * Returns the invoker itself or a {@link TimingInterceptor} in front of it when the timing of the container stack is
+     * enabled.
+     *
+     * @param layer the layer name
+     * @param invoker the invoker
+     * @return the invoker to use
+     */
+    private PortletInvoker timed(String layer, PortletInvoker invoker) {
+        return statisticService == null ? invoker : new TimingInterceptor(layer, invoker, statisticService);
+    }
+
     public PortletApplicationDeployer getPortletApplicationRegistry() {
         return portletApplicationRegistry;
     }
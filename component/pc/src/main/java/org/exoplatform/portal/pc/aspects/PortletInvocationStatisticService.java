@@ -0,0 +1,288 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.portal.pc.aspects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.exoplatform.commons.utils.LatencyHistogram;
+import org.exoplatform.management.annotations.Impact;
+import org.exoplatform.management.annotations.ImpactType;
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.management.annotations.ManagedName;
+import org.exoplatform.management.jmx.annotations.NameTemplate;
+import org.exoplatform.management.jmx.annotations.Property;
+import org.exoplatform.management.rest.annotations.RESTEndpoint;
+
+/**
+ * Collects the times recorded by the {@link TimingInterceptor} of each layer of the portlet container stack, per portlet
+ * and per lifecycle phase. Times are recorded in microseconds.
+ *
+ * @version $Revision$
+ */
+@Managed
+@ManagedDescription("The portlet container invocation statistic service")
+@NameTemplate({ @Property(key = "view", value = "portal"), @Property(key = "service", value = "statistic"),
+        @Property(key = "type", value = "portletinvocation") })
+@RESTEndpoint(path = "portletinvocationstatistic")
+public class PortletInvocationStatisticService {
+
+    /** The default maximum number of portlet and phase pairs for which statistics are kept. */
+    static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    /** The layers in invocation order, the innermost layer is added first. */
+    private final List<String> layers = new CopyOnWriteArrayList<String>();
+
+    /** The statistics per portlet and per phase. */
+    private final ConcurrentMap<Key, Entry> statistics = new ConcurrentHashMap<Key, Entry>();
+
+    /** . */
+    private final int maxEntries;
+
+    public PortletInvocationStatisticService() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    PortletInvocationStatisticService(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The maximum number of entries must be positive");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    void addLayer(String layer) {
+        if (!layers.contains(layer)) {
+            layers.add(0, layer);
+        }
+    }
+
+    void record(String portletId, String phase, String layer, long timeMicros) {
+        Key key = new Key(portletId, phase);
+        Entry entry = statistics.get(key);
+        if (entry == null) {
+            // Cloned portlet contexts get their own ids, so the least recently invoked entries are evicted to bound the
+            // number of histograms
+            while (statistics.size() >= maxEntries) {
+                evictLeastRecentlyRecorded();
+            }
+            entry = new Entry();
+            Entry existing = statistics.putIfAbsent(key, entry);
+            if (existing != null) {
+                entry = existing;
+            }
+        }
+        entry.lastRecorded = System.nanoTime();
+        LatencyHistogram times = entry.layerTimes.get(layer);
+        if (times == null) {
+            times = new LatencyHistogram();
+            LatencyHistogram existing = entry.layerTimes.putIfAbsent(layer, times);
+            if (existing != null) {
+                times = existing;
+            }
+        }
+        times.record(timeMicros);
+    }
+
+    private void evictLeastRecentlyRecorded() {
+        Map.Entry<Key, Entry> eldest = null;
+        for (Map.Entry<Key, Entry> current : statistics.entrySet()) {
+            if (eldest == null || current.getValue().lastRecorded - eldest.getValue().lastRecorded < 0) {
+                eldest = current;
+            }
+        }
+        if (eldest != null) {
+            statistics.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    /**
+     * Returns the number of portlet and phase pairs for which statistics are kept.
+     *
+     * @return the entry count
+     */
+    int getEntryCount() {
+        return statistics.size();
+    }
+
+    /**
+     * Returns a snapshot of the times spent in a layer for a portlet and a phase or null if no such invocation was
+     * recorded.
+     *
+     * @param portletId the portlet id
+     * @param phase the phase
+     * @param layer the layer
+     * @return the snapshot
+     */
+    public LatencyHistogram.Snapshot getSnapshot(String portletId, String phase, String layer) {
+        Entry entry = statistics.get(new Key(portletId, phase));
+        if (entry != null) {
+            LatencyHistogram times = entry.layerTimes.get(layer);
+            if (times != null) {
+                return times.snapshot();
+            }
+        }
+        return null;
+    }
+
+    @Managed
+    @ManagedDescription("The list of the timed layers of the portlet container stack in invocation order")
+    public String[] getLayerList() {
+        return layers.toArray(new String[layers.size()]);
+    }
+
+    @Managed
+    @ManagedDescription("The list of the identifiers of the invoked portlets sorted alphabetically")
+    public String[] getPortletList() {
+        Set<String> portletIds = new TreeSet<String>();
+        for (Key key : statistics.keySet()) {
+            portletIds.add(key.portletId);
+        }
+        return portletIds.toArray(new String[portletIds.size()]);
+    }
+
+    @Managed
+    @ManagedDescription("The invocation count of a portlet for a phase")
+    @Impact(ImpactType.READ)
+    public long getInvocationCount(@ManagedDescription("The portlet id") @ManagedName("portletId") String portletId,
+            @ManagedDescription("The phase such as RENDER_PHASE") @ManagedName("phase") String phase) {
+        Entry entry = statistics.get(new Key(portletId, phase));
+        if (entry != null) {
+            for (String layer : layers) {
+                LatencyHistogram times = entry.layerTimes.get(layer);
+                if (times != null) {
+                    return times.getCount();
+                }
+            }
+        }
+        return 0;
+    }
+
+    @Managed
+    @ManagedDescription("The own time in microseconds of each layer of the portlet container stack for a portlet and a phase")
+    @Impact(ImpactType.READ)
+    public String[] getLayerTimes(@ManagedDescription("The portlet id") @ManagedName("portletId") String portletId,
+            @ManagedDescription("The phase such as RENDER_PHASE") @ManagedName("phase") String phase) {
+        List<String> result = new ArrayList<String>();
+        for (String layer : layers) {
+            LatencyHistogram.Snapshot snapshot = getSnapshot(portletId, phase, layer);
+            if (snapshot != null) {
+                result.add(layer + " " + snapshot);
+            }
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    @Managed
+    @ManagedDescription("The layers of the portlet container stack sorted by their 99th percentile own time for a portlet and a phase")
+    @Impact(ImpactType.READ)
+    public String[] getSlowestLayers(@ManagedDescription("The portlet id") @ManagedName("portletId") String portletId,
+            @ManagedDescription("The phase such as RENDER_PHASE") @ManagedName("phase") String phase) {
+        List<LayerTime> list = new ArrayList<LayerTime>();
+        for (String layer : layers) {
+            LatencyHistogram.Snapshot snapshot = getSnapshot(portletId, phase, layer);
+            if (snapshot != null) {
+                list.add(new LayerTime(layer, snapshot.getValueAtPercentile(99)));
+            }
+        }
+        Collections.sort(list);
+        String[] result = new String[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i).layer;
+        }
+        return result;
+    }
+
+    @Managed
+    @ManagedDescription("Reset the statistics")
+    @Impact(ImpactType.IDEMPOTENT_WRITE)
+    public void reset() {
+        statistics.clear();
+    }
+
+    private static class Entry {
+
+        /** . */
+        private final ConcurrentMap<String, LatencyHistogram> layerTimes = new ConcurrentHashMap<String, LatencyHistogram>();
+
+        /** The time of the last recording, in nanoseconds. */
+        private volatile long lastRecorded = System.nanoTime();
+    }
+
+    private static class LayerTime implements Comparable<LayerTime> {
+
+        /** . */
+        private final String layer;
+
+        /** . */
+        private final long time;
+
+        private LayerTime(String layer, long time) {
+            this.layer = layer;
+            this.time = time;
+        }
+
+        public int compareTo(LayerTime o) {
+            return time < o.time ? 1 : time > o.time ? -1 : 0;
+        }
+    }
+
+    private static class Key {
+
+        /** . */
+        private final String portletId;
+
+        /** . */
+        private final String phase;
+
+        private Key(String portletId, String phase) {
+            if (portletId == null || phase == null) {
+                throw new IllegalArgumentException("Parameters 'portletId' and 'phase' are required.");
+            }
+
+            //
+            this.portletId = portletId;
+            this.phase = phase;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj instanceof Key) {
+                Key that = (Key) obj;
+                return portletId.equals(that.portletId) && phase.equals(that.phase);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return portletId.hashCode() * 31 + phase.hashCode();
+        }
+    }
+}
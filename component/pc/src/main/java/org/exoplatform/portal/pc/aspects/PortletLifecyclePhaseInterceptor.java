@@ -34,7 +34,10 @@ public class PortletLifecyclePhaseInterceptor extends PortletInvokerInterceptor
     }
 
     public static String currentPhase() {
-        PortletInvocation invocation = getCurrentInvocation();
+        return getPhase(getCurrentInvocation());
+    }
+
+    static String getPhase(PortletInvocation invocation) {
         if (invocation == null) return null;
 
         if (invocation instanceof ActionInvocation) {
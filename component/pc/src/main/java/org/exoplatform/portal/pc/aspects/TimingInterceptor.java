@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.portal.pc.aspects;
+
+import org.gatein.pc.api.PortletContext;
+import org.gatein.pc.api.PortletInvoker;
+import org.gatein.pc.api.PortletInvokerException;
+import org.gatein.pc.api.invocation.PortletInvocation;
+import org.gatein.pc.api.invocation.response.PortletInvocationResponse;
+import org.gatein.pc.portlet.PortletInvokerInterceptor;
+
+/**
+ * Measures the time spent in a layer of the portlet container stack. The interceptor is placed in front of the invoker
+ * it measures and records the time of the invocation minus the time spent in the timed layers it calls, so the recorded
+ * time is the own time of the layer.
+ *
+ * @version $Revision$
+ */
+public class TimingInterceptor extends PortletInvokerInterceptor {
+
+    /** The time spent in the nested timed layers of the current invocation. */
+    private static final ThreadLocal<long[]> NESTED_TIME = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+    };
+
+    /** . */
+    private final String layer;
+
+    /** . */
+    private final PortletInvocationStatisticService statistics;
+
+    public TimingInterceptor(String layer, PortletInvoker next, PortletInvocationStatisticService statistics) {
+        this.layer = layer;
+        this.statistics = statistics;
+
+        //
+        setNext(next);
+        statistics.addLayer(layer);
+    }
+
+    public String getLayer() {
+        return layer;
+    }
+
+    @Override
+    public PortletInvocationResponse invoke(PortletInvocation invocation) throws IllegalArgumentException, PortletInvokerException {
+        long[] nestedTime = NESTED_TIME.get();
+        long outerNestedTime = nestedTime[0];
+        nestedTime[0] = 0;
+        long start = System.nanoTime();
+        try {
+            return super.invoke(invocation);
+        } finally {
+            long time = System.nanoTime() - start;
+            long ownTime = time - nestedTime[0];
+            nestedTime[0] = outerNestedTime + time;
+
+            //
+            PortletContext target = invocation.getTarget();
+            String phase = PortletLifecyclePhaseInterceptor.getPhase(invocation);
+            if (target != null && phase != null) {
+                statistics.record(target.getId(), phase, layer, ownTime / 1000);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.portal.pc.aspects;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.commons.utils.LatencyHistogram;
+
+/**
+ * @version $Revision$
+ */
+public class TestPortletInvocationStatisticService extends TestCase {
+
+    public void testRecord() {
+        PortletInvocationStatisticService service = new PortletInvocationStatisticService();
+        service.addLayer("Portlet");
+        service.addLayer("Valve");
+        service.record("portlet", "RENDER_PHASE", "Valve", 10);
+        service.record("portlet", "RENDER_PHASE", "Portlet", 100);
+        service.record("portlet", "RENDER_PHASE", "Valve", 30);
+        service.record("portlet", "RENDER_PHASE", "Portlet", 300);
+
+        //
+        LatencyHistogram.Snapshot snapshot = service.getSnapshot("portlet", "RENDER_PHASE", "Valve");
+        assertEquals(2, snapshot.getCount());
+        assertEquals(10, snapshot.getMin());
+        assertEquals(30, snapshot.getMax());
+        assertEquals(2, service.getInvocationCount("portlet", "RENDER_PHASE"));
+        assertEquals(0, service.getInvocationCount("portlet", "ACTION_PHASE"));
+        assertNull(service.getSnapshot("portlet", "ACTION_PHASE", "Valve"));
+        assertEquals("Portlet", service.getSlowestLayers("portlet", "RENDER_PHASE")[0]);
+
+        //
+        service.reset();
+        assertNull(service.getSnapshot("portlet", "RENDER_PHASE", "Valve"));
+    }
+
+    public void testEvictLeastRecentlyRecorded() {
+        PortletInvocationStatisticService service = new PortletInvocationStatisticService(2);
+        service.addLayer("Valve");
+        service.record("a", "RENDER_PHASE", "Valve", 1);
+        service.record("b", "RENDER_PHASE", "Valve", 1);
+        service.record("a", "RENDER_PHASE", "Valve", 1);
+        service.record("c", "RENDER_PHASE", "Valve", 1);
+
+        //
+        assertEquals(2, service.getEntryCount());
+        assertEquals(2, service.getInvocationCount("a", "RENDER_PHASE"));
+        assertNull(service.getSnapshot("b", "RENDER_PHASE", "Valve"));
+        assertEquals(1, service.getSnapshot("c", "RENDER_PHASE", "Valve").getCount());
+    }
+}
@@ -19,6 +19,7 @@
 
 package org.exoplatform.portal.config;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 
@@ -35,6 +36,7 @@ import org.exoplatform.portal.config.model.PortalConfig;
 import org.exoplatform.portal.mop.page.PageService;
 import org.exoplatform.portal.pom.config.tasks.PreferencesTask;
 import org.exoplatform.portal.pom.data.ModelChange;
+import org.exoplatform.portal.pom.data.PageData;
 
 /**
  * Created by The eXo Platform SAS Apr 19, 2007
@@ -101,6 +103,16 @@ public interface DataStorage {
      */
     Page getPage(String pageId) throws Exception;
 
+    /**
+     * Returns the data of a page shared by all the callers, unlike {@link #getPage(String)} that returns a private copy of
+     * it. The returned data is immutable and must be used only for reading, a mutable copy is obtained with
+     * {@link Page#Page(PageData)}.
+     *
+     * @param pageId - String represent id of page, it must be valid pageId (3 parts saparate by :: )
+     * @return the shared page data or null if the page does not exist
+     */
+    PageData getPageData(String pageId) throws Exception;
+
     /**
      * @deprecated replaced by
      *             {@link PageService#clone(org.exoplatform.portal.mop.page.PageKey, org.exoplatform.portal.mop.page.PageKey)}
@@ -157,6 +169,18 @@ public interface DataStorage {
      */
     <S> S load(ApplicationState<S> state, ApplicationType<S> type) throws Exception;
 
+    /**
+     * Loads the content states of the applications of a page at once and keeps them in the cache, so the subsequent
+     * calls to {@link #load(ApplicationState, ApplicationType)} for these states do not access the storage. The windows
+     * of the page are read in a single traversal of the page.
+     *
+     * @param pageId the storage id of the page
+     * @param states the application states
+     * @param type the application type
+     * @throws Exception any exception
+     */
+    <S> void preload(String pageId, Collection<ApplicationState<S>> states, ApplicationType<S> type) throws Exception;
+
     /**
      * Save content state <br />
      *
@@ -20,6 +20,7 @@ package org.exoplatform.portal.config;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
@@ -108,6 +109,11 @@ public class DataStorageImpl implements DataStorage {
         return delegate.load(state, type);
     }
 
+    public <S> void preload(String pageId, Collection<ApplicationState<S>> states, ApplicationType<S> type)
+            throws Exception {
+        delegate.preload(pageId, states, type);
+    }
+
     public <S> ApplicationState<S> save(ApplicationState<S> state, S preferences) throws Exception {
         return delegate.save(state, preferences);
     }
@@ -126,6 +132,10 @@ public class DataStorageImpl implements DataStorage {
         return data != null ? new Page(data) : null;
     }
 
+    public PageData getPageData(String pageId) throws Exception {
+        return delegate.getPage(PageKey.create(pageId));
+    }
+
     private abstract class Bilto<O extends ModelObject, D extends ModelData> {
 
         final Query<O> q;
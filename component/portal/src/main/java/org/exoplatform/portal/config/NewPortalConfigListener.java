@@ -24,13 +24,24 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringEscapeUtils;
 import org.exoplatform.commons.utils.IOUtil;
+import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.container.PortalContainer;
 import org.exoplatform.container.component.BaseComponentPlugin;
 import org.exoplatform.container.component.RequestLifeCycle;
@@ -121,7 +132,12 @@ public class NewPortalConfigListener extends BaseComponentPlugin {
     /** . */
     private DescriptionService descriptionService_;
 
-    final Set<String> createdOwners = new HashSet<String>();
+    /**
+     * The number of threads importing the sites, when it is lower than 2 the sites are imported one after another.
+     */
+    private int importThreads;
+
+    final Set<String> createdOwners = Collections.synchronizedSet(new HashSet<String>());
 
     private boolean isFirstStartup = false;
 
@@ -178,6 +194,11 @@ public class NewPortalConfigListener extends BaseComponentPlugin {
         for (NewPortalConfig ele : configs) {
           ele.setOverrideMode(overrideExistingData);
         }
+
+        valueParam = params.getValueParam("import.threads");
+        if (valueParam != null && valueParam.getValue().trim().length() > 0) {
+            importThreads = Integer.parseInt(valueParam.getValue().trim());
+        }
         this.pomMgr = pomMgr;
     }
 
@@ -234,7 +255,9 @@ public class NewPortalConfigListener extends BaseComponentPlugin {
 
     public void run() throws Exception {
         boolean prepareImport = performImport();
-        if (isUseTryCatch) {
+        if (importThreads > 1) {
+            runParallel(prepareImport);
+        } else if (isUseTryCatch) {
             RequestLifeCycle.begin(PortalContainer.getInstance());
             try {
                 for (NewPortalConfig ele : configs) {
@@ -304,6 +327,160 @@ public class NewPortalConfigListener extends BaseComponentPlugin {
         touchImport();
     }
 
+    /**
+     * Imports the sites with a pool of threads. The portal configs of all the sites are imported first, then the pages and
+     * finally the navigations as it is done sequentially. Within a phase the sites are imported concurrently, each site
+     * with its own session that is saved when the site is imported. The configurations of a same site are imported in
+     * their declaration order by the same task.
+     *
+     * @param prepareImport true when the import is performed for all the configurations
+     * @throws Exception any exception
+     */
+    private void runParallel(boolean prepareImport) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(importThreads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "NewPortalConfigListener-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            long time = System.currentTimeMillis();
+            importSites(executor, ImportPhase.PORTAL_CONFIG, prepareImport);
+            importSites(executor, ImportPhase.PAGES, prepareImport);
+            importSites(executor, ImportPhase.NAVIGATION, prepareImport);
+            log.info("Imported the sites with " + importThreads + " threads in " + (System.currentTimeMillis() - time) + " ms");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void importSites(ExecutorService executor, final ImportPhase phase, boolean prepareImport) throws Exception {
+        // Group the configurations by site so that the configurations of a same site are imported in order
+        Map<String, List<SiteImport>> sites = new LinkedHashMap<String, List<SiteImport>>();
+        for (NewPortalConfig config : configs) {
+            if (config.getOverrideMode() || prepareImport) {
+                for (String owner : config.getPredefinedOwner()) {
+                    String key = config.getOwnerType() + "::" + fixOwnerName(config.getOwnerType(), owner);
+                    List<SiteImport> site = sites.get(key);
+                    if (site == null) {
+                        site = new ArrayList<SiteImport>();
+                        sites.put(key, site);
+                    }
+                    site.add(new SiteImport(config, owner));
+                }
+            }
+        }
+
+        //
+        final PortalContainer container = PortalContainer.getInstance();
+        CompletionService<String> completion = new ExecutorCompletionService<String>(executor);
+        for (final Map.Entry<String, List<SiteImport>> site : sites.entrySet()) {
+            completion.submit(new Callable<String>() {
+                public String call() throws Exception {
+                    ExoContainerContext.setCurrentContainer(container);
+                    RequestLifeCycle.begin(container);
+                    try {
+                        for (SiteImport entry : site.getValue()) {
+                            try {
+                                phase.perform(NewPortalConfigListener.this, entry.config, entry.owner);
+                            } catch (Exception e) {
+                                if (isUseTryCatch) {
+                                    log.error("NewPortalConfig error: " + e.getMessage(), e);
+                                } else {
+                                    throw e;
+                                }
+                            }
+                        }
+                    } finally {
+                        RequestLifeCycle.end();
+                        ExoContainerContext.setCurrentContainer(null);
+                    }
+                    return site.getKey();
+                }
+            });
+        }
+
+        //
+        long time = System.currentTimeMillis();
+        int size = sites.size();
+        int step = Math.max(1, size / 10);
+        Exception failure = null;
+        for (int done = 1; done <= size; done++) {
+            try {
+                String site = completion.take().get();
+                if (done % step == 0 || done == size) {
+                    log.info("Imported the " + phase.name + " of " + done + "/" + size + " sites in "
+                            + (System.currentTimeMillis() - time) + " ms");
+                } else if (log.isDebugEnabled()) {
+                    log.debug("Imported the " + phase.name + " of site " + site);
+                }
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+
+        // Stop after the phase so the next phases do not import sites depending on what failed
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static class SiteImport {
+
+        /** . */
+        private final NewPortalConfig config;
+
+        /** . */
+        private final String owner;
+
+        private SiteImport(NewPortalConfig config, String owner) {
+            this.config = config;
+            this.owner = owner;
+        }
+    }
+
+    private enum ImportPhase {
+
+        PORTAL_CONFIG("portal config") {
+            @Override
+            void perform(NewPortalConfigListener listener, NewPortalConfig config, String owner) throws Exception {
+                if (listener.createPortalConfig(config, owner)) {
+                    listener.createdOwners.add(owner);
+                }
+            }
+        },
+
+        PAGES("pages") {
+            @Override
+            void perform(NewPortalConfigListener listener, NewPortalConfig config, String owner) throws Exception {
+                if (listener.createdOwners.contains(owner)) {
+                    listener.createPage(config, owner);
+                }
+            }
+        },
+
+        NAVIGATION("navigation") {
+            @Override
+            void perform(NewPortalConfigListener listener, NewPortalConfig config, String owner) throws Exception {
+                listener.createPageNavigation(config, owner);
+            }
+        };
+
+        /** . */
+        private final String name;
+
+        ImportPhase(String name) {
+            this.name = name;
+        }
+
+        abstract void perform(NewPortalConfigListener listener, NewPortalConfig config, String owner) throws Exception;
+    }
+
     String getDefaultPortal() {
         return defaultPortal;
     }
@@ -347,6 +524,10 @@ public class NewPortalConfigListener extends BaseComponentPlugin {
             this.defaultPortalTemplate = other.defaultPortalTemplate;
         }
 
+        if (other.importThreads > 0) {
+            this.importThreads = other.importThreads;
+        }
+
         if (configs == null) {
             this.configs = other.configs;
         } else if (other.configs != null && !other.configs.isEmpty()) {
@@ -23,8 +23,14 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.exoplatform.container.xml.InitParams;
 import org.exoplatform.container.xml.ValueParam;
@@ -60,6 +66,18 @@ public class UserACL {
 
     private static final Identity guest = new Identity(null, NO_MEMBERSHIP, NO_ROLES);
 
+    /** The conversation state attribute holding the memberships and the memoized checks of its identity. */
+    private static final String MEMBERSHIPS_ATTRIBUTE = UserACL.class.getName() + ".memberships";
+
+    /** The maximum number of parsed expressions and of memoized checks per identity. */
+    private static final int MAX_EXPRESSIONS = 1000;
+
+    /** . */
+    private static final String ANY_MEMBERSHIP_TYPE = "*";
+
+    /** The parsed permission expressions. */
+    private final ConcurrentMap<String, Expression> expressions = new ConcurrentHashMap<String, Expression>();
+
     private String superUser_;
 
     private String guestGroup_;
@@ -507,14 +525,77 @@ public class UserACL {
         if (EVERYONE.equals(expPerm)) {
             return true;
         }
-        Permission permission = new Permission();
-        permission.setPermissionExpression(expPerm);
-        String groupId = permission.getGroupId();
-        if ((currentUser == null || currentUser.equals(IdentityConstants.ANONIM)) && groupId.equals(guestGroup_)) {
+
+        //
+        Memberships memberships = getMemberships(identity);
+        if (memberships != null) {
+            Boolean result = memberships.results.get(expPerm);
+            if (result == null) {
+                result = hasPermission(identity, parse(expPerm), memberships);
+                if (memberships.results.size() < MAX_EXPRESSIONS) {
+                    memberships.results.put(expPerm, result);
+                }
+            }
+            return result;
+        } else {
+            return hasPermission(identity, parse(expPerm), null);
+        }
+    }
+
+    private boolean hasPermission(Identity identity, Expression expression, Memberships memberships) {
+        String currentUser = identity.getUserId();
+        if ((currentUser == null || currentUser.equals(IdentityConstants.ANONIM)) && expression.groupId.equals(guestGroup_)) {
             return true;
         }
-        String membership = permission.getMembership();
-        return identity.isMemberOf(groupId, membership);
+        if (memberships != null) {
+            return memberships.isMemberOf(expression);
+        } else {
+            return identity.isMemberOf(expression.groupId, expression.membership);
+        }
+    }
+
+    /**
+     * Returns the parsed form of a permission expression, the parsed expressions are kept so an expression is parsed
+     * once.
+     *
+     * @param expPerm the permission expression
+     * @return the parsed expression
+     */
+    private Expression parse(String expPerm) {
+        Expression expression = expressions.get(expPerm);
+        if (expression == null) {
+            Permission permission = new Permission();
+            permission.setPermissionExpression(expPerm);
+            expression = new Expression(permission.getGroupId(), permission.getMembership());
+            if (expressions.size() < MAX_EXPRESSIONS) {
+                Expression existing = expressions.putIfAbsent(expPerm, expression);
+                if (existing != null) {
+                    expression = existing;
+                }
+            }
+        }
+        return expression;
+    }
+
+    /**
+     * Returns the memberships of an identity when it is the identity of the current conversation state, they are kept
+     * as an attribute of the conversation state and are computed again when the memberships of the identity change.
+     *
+     * @param identity the identity
+     * @return the memberships or null
+     */
+    private Memberships getMemberships(Identity identity) {
+        ConversationState state = ConversationState.getCurrent();
+        if (state == null || state.getIdentity() != identity) {
+            return null;
+        }
+        Object attribute = state.getAttribute(MEMBERSHIPS_ATTRIBUTE);
+        Memberships memberships = attribute instanceof Memberships ? (Memberships) attribute : null;
+        if (memberships == null || !memberships.isValid(identity)) {
+            memberships = new Memberships(identity);
+            state.setAttribute(MEMBERSHIPS_ATTRIBUTE, memberships);
+        }
+        return memberships;
     }
 
     private List<String> defragmentPermission(String permission) {
@@ -532,6 +613,73 @@ public class UserACL {
         return result;
     }
 
+    /**
+     * A parsed permission expression.
+     */
+    private static class Expression {
+
+        /** . */
+        private final String groupId;
+
+        /** . */
+        private final String membership;
+
+        private Expression(String groupId, String membership) {
+            this.groupId = groupId;
+            this.membership = membership;
+        }
+    }
+
+    /**
+     * The membership types of an identity indexed by group and the results of the permission checks of the identity.
+     */
+    private static class Memberships {
+
+        /** The collection the memberships were computed from. */
+        private final Collection<MembershipEntry> source;
+
+        /** . */
+        private final int size;
+
+        /** . */
+        private final Map<String, Set<String>> groups;
+
+        /** The memoized permission checks. */
+        private final ConcurrentMap<String, Boolean> results = new ConcurrentHashMap<String, Boolean>();
+
+        private Memberships(Identity identity) {
+            Collection<MembershipEntry> source = identity.getMemberships();
+            Map<String, Set<String>> groups = new HashMap<String, Set<String>>();
+            for (MembershipEntry entry : source) {
+                Set<String> types = groups.get(entry.getGroup());
+                if (types == null) {
+                    types = new HashSet<String>();
+                    groups.put(entry.getGroup(), types);
+                }
+                types.add(entry.getMembershipType());
+            }
+
+            //
+            this.source = source;
+            this.size = source.size();
+            this.groups = groups;
+        }
+
+        private boolean isValid(Identity identity) {
+            Collection<MembershipEntry> current = identity.getMemberships();
+            return current == source && current.size() == size;
+        }
+
+        private boolean isMemberOf(Expression expression) {
+            Set<String> types = groups.get(expression.groupId);
+            if (types == null) {
+                return false;
+            }
+            return ANY_MEMBERSHIP_TYPE.equals(expression.membership) || types.contains(expression.membership)
+                    || types.contains(ANY_MEMBERSHIP_TYPE);
+        }
+    }
+
     public static class Permission implements Serializable {
 
         private static final long serialVersionUID = -2642107810551203332L;
@@ -19,6 +19,11 @@
 
 package org.exoplatform.portal.mop.description;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 import org.exoplatform.portal.mop.Described;
 import org.exoplatform.portal.mop.i18n.I18NAdapter;
 import org.exoplatform.portal.mop.i18n.Resolution;
@@ -34,9 +39,37 @@ abstract class DataCache {
 
     protected abstract Described.State getState(POMSession session, CacheKey key);
 
+    /**
+     * Resolves the states of several objects, the locales are tried in order for each object until one of them resolves.
+     * Each key is resolved with {@link #getState(POMSession, CacheKey)} so a key that is not cached is loaded once.
+     *
+     * @param session the session
+     * @param ids the object ids
+     * @param locales the locales
+     * @return the states of the objects keyed by id
+     */
+    final Map<String, Described.State> getStates(POMSession session, Collection<String> ids, Locale[] locales) {
+        Map<String, Described.State> states = new HashMap<String, Described.State>(ids.size());
+        for (String id : ids) {
+            Described.State state = null;
+            for (Locale locale : locales) {
+                state = getState(session, new CacheKey(locale, id));
+                if (state != null) {
+                    break;
+                }
+            }
+            states.put(id, state);
+        }
+        return states;
+    }
+
+    protected I18NAdapter getAdapter(POMSession session, String id) {
+        WorkspaceObject obj = session.findObjectById(id);
+        return obj.adapt(I18NAdapter.class);
+    }
+
     protected final CacheValue getValue(POMSession session, CacheKey key) {
-        WorkspaceObject obj = session.findObjectById(key.id);
-        I18NAdapter able = obj.adapt(I18NAdapter.class);
+        I18NAdapter able = getAdapter(session, key.id);
         Resolution<Described> res = able.resolveI18NMixin(Described.class, key.locale);
         if (res != null) {
             Described.State state = res.getMixin().getState();
@@ -52,8 +85,15 @@ abstract class DataCache {
                 putValue(key, foo);
                 return foo;
             }
+        } else {
+            // Cache the absence of description so it is not looked up again, unless the locale falls back
+            // to a parent locale as setting a description for the parent locale would not invalidate it
+            CacheValue foo = new CacheValue(null);
+            if (key.locale.getCountry().length() == 0 && key.locale.getVariant().length() == 0) {
+                putValue(key, foo);
+            }
+            return foo;
         }
-        return null;
     }
 
     protected abstract void putValue(CacheKey key, CacheValue value);
@@ -19,6 +19,7 @@
 
 package org.exoplatform.portal.mop.description;
 
+import java.util.Collection;
 import java.util.Locale;
 import java.util.Map;
 
@@ -68,6 +69,20 @@ public interface DescriptionService {
      */
     Described.State resolveDescription(String id, Locale locale2, Locale locale1) throws NullPointerException;
 
+    /**
+     * <p>
+     * Resolve the descriptions of several objects at once, the <code>locales</code> argument specifies the locales tried in
+     * order for each object until one of them provides a relevant match, a null locale is ignored. The descriptions that are
+     * not cached are retrieved once, the absence of description is cached as well unless the locale has a parent locale.
+     * </p>
+     *
+     * @param ids the object ids
+     * @param locales the locales to resolve
+     * @return the descriptions keyed by object id, the description of an object is null when it does not resolve
+     * @throws NullPointerException if the <code>ids</code> argument, one of the ids or the first locale is null
+     */
+    Map<String, Described.State> resolveDescriptions(Collection<String> ids, Locale... locales) throws NullPointerException;
+
     /**
      * Returns the default description or null if it does not exist.
      *
@@ -19,8 +19,10 @@
 
 package org.exoplatform.portal.mop.description;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -76,6 +78,33 @@ public class DescriptionServiceImpl implements DescriptionService {
         return state;
     }
 
+    public Map<String, Described.State> resolveDescriptions(Collection<String> ids, Locale... locales)
+            throws NullPointerException {
+        if (ids == null) {
+            throw new NullPointerException("No null ids accepted");
+        }
+        if (locales.length == 0 || locales[0] == null) {
+            throw new NullPointerException("No null locale accepted");
+        }
+        for (String id : ids) {
+            if (id == null) {
+                throw new NullPointerException("No null id accepted");
+            }
+        }
+
+        //
+        List<Locale> resolved = new ArrayList<Locale>(locales.length);
+        for (Locale locale : locales) {
+            if (locale != null && !resolved.contains(locale)) {
+                resolved.add(locale);
+            }
+        }
+
+        //
+        POMSession session = manager.getSession();
+        return cache.getStates(session, ids, resolved.toArray(new Locale[resolved.size()]));
+    }
+
     private Described.State resolveDescription(POMSession session, String id, Locale locale) throws NullPointerException {
         return cache.getState(session, new CacheKey(locale, id));
     }
@@ -168,6 +197,8 @@ public class DescriptionServiceImpl implements DescriptionService {
         // Interface specifies it allows a null description map
         if (descriptions != null) {
             for (Map.Entry<Locale, Described.State> entry : descriptions.entrySet()) {
+                // The cached absence of description is removed for the added locales
+                cache.removeState(new CacheKey(entry.getKey(), id));
                 Described described = able.addI18NMixin(Described.class, entry.getKey());
                 described.setState(entry.getValue());
             }
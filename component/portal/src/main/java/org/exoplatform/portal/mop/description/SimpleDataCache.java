@@ -42,13 +42,8 @@ public class SimpleDataCache extends DataCache {
         MarshalledObject<CacheKey> marshalledKey = MarshalledObject.marshall(key);
         MarshalledObject<CacheValue> marshalledValue = map.get(marshalledKey);
         if (marshalledValue == null) {
-            CacheValue value = getValue(session, key);
-            if (value != null) {
-                map.put(marshalledKey, MarshalledObject.marshall(value));
-                return value.state;
-            } else {
-                return null;
-            }
+            // The value is cached by getValue when it can be
+            return getValue(session, key).state;
         } else {
             return marshalledValue.unmarshall().state;
         }
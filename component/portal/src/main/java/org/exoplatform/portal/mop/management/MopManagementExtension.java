@@ -64,7 +64,8 @@ public class MopManagementExtension implements ManagementExtension {
         ManagedResource.Registration mop = registration
                 .registerManagedResource(description("MOP (Model Object for Portal) Managed Resource, responsible for handling management operations on navigation, pages, and sites."));
         mop.registerOperationHandler(OperationNames.IMPORT_RESOURCE, new MopImportResource(),
-                description("Imports mop data from an exported zip file."));
+                description("Imports mop data from an exported zip file. With the batchSize attribute the sites are committed by "
+                        + "batches and the result lists the imported sites."));
 
         mop.registerOperationHandler(OperationNames.READ_RESOURCE, new MopReadResource(),
                 description("Lists available site types for a portal"));
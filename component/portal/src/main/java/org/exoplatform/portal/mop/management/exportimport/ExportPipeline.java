@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.mop.management.exportimport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.exoplatform.commons.chromattic.ChromatticManager;
+import org.exoplatform.commons.utils.PropertyManager;
+import org.exoplatform.container.ExoContainer;
+import org.exoplatform.container.ExoContainerContext;
+import org.gatein.common.logging.Logger;
+import org.gatein.common.logging.LoggerFactory;
+import org.gatein.management.api.operation.model.ExportTask;
+import org.picocontainer.Startable;
+
+/**
+ * <p>
+ * Exports the next entries of an export on worker threads while the current entry is written to the zip file. The
+ * export tasks created by a thread are chained, when an entry is written the following entries of the window are
+ * exported by the workers, each of them with its own read only session. The exported entries wait in memory until they
+ * are written so the memory used is bounded by the window whatever the number of sites exported.
+ * </p>
+ *
+ * <p>
+ * The number of workers is configured by the {@link #THREADS} property, the pipeline is disabled when it is lower than
+ * 2. The workers are started and stopped with the container.
+ * </p>
+ *
+ * @version $Revision$
+ */
+public class ExportPipeline implements Startable {
+
+    /** The name of the property configuring the number of worker threads. */
+    public static final String THREADS = "gatein.portal.mop.export.threads";
+
+    /** . */
+    private static final Logger log = LoggerFactory.getLogger(ExportPipeline.class);
+
+    /** The chain receiving the tasks created by the current thread. */
+    private final ThreadLocal<Chain> current = new ThreadLocal<Chain>();
+
+    /** . */
+    private final ExoContainer container;
+
+    /** . */
+    private final ChromatticManager manager;
+
+    /** . */
+    private final int threads;
+
+    /** . */
+    private volatile ExecutorService executor;
+
+    public ExportPipeline(ExoContainerContext context, ChromatticManager manager) {
+        this(context.getContainer(), manager, getThreads());
+    }
+
+    ExportPipeline(ExoContainer container, ChromatticManager manager, int threads) {
+        this.container = container;
+        this.manager = manager;
+        this.threads = threads;
+    }
+
+    private static int getThreads() {
+        String value = PropertyManager.getProperty(THREADS);
+        return value != null ? Integer.parseInt(value.trim()) : Math.min(4, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Adds a task to the chain of the current thread, a new chain is started when the chain of the current thread
+     * started to be written.
+     *
+     * @param task the task
+     * @return the task exporting through the pipeline or the task itself when the pipeline is disabled or stopped
+     */
+    public ExportTask prefetch(ExportTask task) {
+        ExecutorService executor = this.executor;
+        if (executor == null) {
+            return task;
+        }
+        Chain chain = current.get();
+        if (chain == null || chain.started) {
+            chain = new Chain(executor, threads * 2);
+            current.set(chain);
+        }
+        return chain.add(task);
+    }
+
+    /**
+     * Returns true when the tasks created by the current thread are added to a chain.
+     */
+    boolean isChaining() {
+        return current.get() != null;
+    }
+
+    public void start() {
+        if (threads > 1) {
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "MopExport-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    public void stop() {
+        ExecutorService executor = this.executor;
+        if (executor != null) {
+            this.executor = null;
+            executor.shutdownNow();
+        }
+    }
+
+    private byte[] export(ExportTask task) throws IOException {
+        ExoContainerContext.setCurrentContainer(container);
+        manager.beginRequest();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            task.export(out);
+            return out.toByteArray();
+        } finally {
+            // Nothing is saved, the session is only used for reading
+            manager.endRequest(false);
+            ExoContainerContext.setCurrentContainer(null);
+        }
+    }
+
+    private class Chain {
+
+        /** . */
+        private final ExecutorService workers;
+
+        /** The number of entries exported ahead of the entry being written. */
+        private final int window;
+
+        /** . */
+        private final List<PrefetchedTask> tasks = new ArrayList<PrefetchedTask>();
+
+        /** . */
+        private volatile boolean started;
+
+        private Chain(ExecutorService workers, int window) {
+            this.workers = workers;
+            this.window = window;
+        }
+
+        private synchronized ExportTask add(ExportTask task) {
+            PrefetchedTask prefetched = new PrefetchedTask(this, tasks.size(), task);
+            tasks.add(prefetched);
+            return prefetched;
+        }
+
+        private synchronized void scheduleAfter(int index) {
+            started = true;
+            int to = Math.min(tasks.size(), index + 1 + window);
+            for (int i = index + 1; i < to; i++) {
+                final PrefetchedTask task = tasks.get(i);
+                if (task.future == null && !task.written) {
+                    try {
+                        task.future = workers.submit(new Callable<byte[]>() {
+                            public byte[] call() throws Exception {
+                                return export(task.delegate);
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // The pipeline is stopped, the remaining entries are exported when they are written
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private class PrefetchedTask implements ExportTask {
+
+        /** . */
+        private final Chain chain;
+
+        /** . */
+        private final int index;
+
+        /** . */
+        private final ExportTask delegate;
+
+        /** The export of the entry by a worker, null when it is not scheduled. */
+        private Future<byte[]> future;
+
+        /** . */
+        private boolean written;
+
+        private PrefetchedTask(Chain chain, int index, ExportTask delegate) {
+            this.chain = chain;
+            this.index = index;
+            this.delegate = delegate;
+        }
+
+        public String getEntry() {
+            return delegate.getEntry();
+        }
+
+        public void export(OutputStream outputStream) throws IOException {
+            try {
+                Future<byte[]> future;
+                synchronized (chain) {
+                    future = this.future;
+                    this.future = null;
+                    written = true;
+                }
+                chain.scheduleAfter(index);
+
+                //
+                byte[] bytes = null;
+                if (future != null) {
+                    try {
+                        bytes = future.get();
+                    } catch (CancellationException e) {
+                        // The pipeline was stopped before the entry was exported
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while exporting " + getEntry(), e);
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        if (cause instanceof IOException) {
+                            throw (IOException) cause;
+                        }
+                        log.error("Could not export " + getEntry(), cause);
+                        throw new IOException("Could not export " + getEntry(), cause);
+                    }
+                }
+                if (bytes == null) {
+                    delegate.export(outputStream);
+                } else {
+                    outputStream.write(bytes);
+                }
+            } finally {
+                // The chain does not accept tasks anymore once it is written
+                if (current.get() == chain) {
+                    current.remove();
+                }
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ package org.exoplatform.portal.mop.management.operations;
 
 import org.exoplatform.portal.mop.SiteKey;
 import org.exoplatform.portal.mop.SiteType;
+import org.exoplatform.portal.mop.management.exportimport.ExportPipeline;
 import org.exoplatform.portal.pom.config.POMSession;
 import org.exoplatform.portal.pom.config.POMSessionManager;
 import org.gatein.management.api.PathAddress;
@@ -32,6 +33,7 @@ import org.gatein.management.api.exceptions.ResourceNotFoundException;
 import org.gatein.management.api.operation.OperationContext;
 import org.gatein.management.api.operation.OperationHandler;
 import org.gatein.management.api.operation.ResultHandler;
+import org.gatein.management.api.operation.model.ExportTask;
 import org.gatein.mop.api.workspace.ObjectType;
 import org.gatein.mop.api.workspace.Site;
 import org.gatein.mop.api.workspace.Workspace;
@@ -71,6 +73,11 @@ public abstract class AbstractMopOperationHandler extends SecureOperationHandler
     protected abstract void execute(OperationContext operationContext, ResultHandler resultHandler, Workspace workspace,
             ObjectType<Site> siteType) throws ResourceNotFoundException, OperationException;
 
+    protected ExportTask prefetch(OperationContext operationContext, ExportTask task) {
+        ExportPipeline pipeline = operationContext.getRuntimeContext().getRuntimeComponent(ExportPipeline.class);
+        return pipeline != null ? pipeline.prefetch(task) : task;
+    }
+
     protected SiteType getSiteType(ObjectType<? extends Site> objectType) {
         return Utils.getSiteType(objectType);
     }
@@ -25,7 +25,11 @@ package org.exoplatform.portal.mop.management.operations;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -58,6 +62,7 @@ import org.gatein.management.api.operation.OperationContext;
 import org.gatein.management.api.operation.OperationHandler;
 import org.gatein.management.api.operation.ResultHandler;
 import org.gatein.management.api.operation.model.NoResultModel;
+import org.gatein.management.api.operation.model.ReadResourceModel;
 import org.gatein.mop.api.workspace.Site;
 import org.gatein.mop.api.workspace.Workspace;
 
@@ -124,8 +129,28 @@ public class MopImportResource extends SecureOperationHandler implements Operati
             throw new OperationException(operationName, "Unknown importMode " + mode);
         }
 
-        Map<SiteKey, MopImport> importMap = new HashMap<SiteKey, MopImport>();
+        int batchSize = 0;
+        String batch = operationContext.getAttributes().getValue("batchSize");
+        if (batch != null && !"".equals(batch)) {
+            try {
+                batchSize = Integer.parseInt(batch.trim());
+            } catch (NumberFormatException e) {
+                throw new OperationException(operationName, "Invalid batchSize " + batch);
+            }
+            if (batchSize < 1) {
+                throw new OperationException(operationName, "Invalid batchSize " + batch);
+            }
+        }
+
+        ImportContext context = new ImportContext(operationContext, mgr, dataStorage, pageService, navigationService,
+                descriptionService);
         final NonCloseableZipInputStream zis = new NonCloseableZipInputStream(inputStream);
+        if (batchSize > 0) {
+            streamingImport(context, zis, importMode, batchSize, chromatticManager, resultHandler);
+            return;
+        }
+
+        Map<SiteKey, MopImport> importMap = new HashMap<SiteKey, MopImport>();
         ZipEntry entry;
         boolean empty = false;
         try {
@@ -150,51 +175,7 @@ public class MopImportResource extends SecureOperationHandler implements Operati
                     importMap.put(siteKey, mopImport);
                 }
 
-                if (SiteLayoutExportTask.FILES.contains(file)) {
-                    // Unmarshal site layout data
-                    Marshaller<PortalConfig> marshaller = operationContext.getBindingProvider().getMarshaller(
-                            PortalConfig.class, ContentType.XML);
-                    PortalConfig portalConfig = marshaller.unmarshal(zis);
-                    portalConfig.setType(siteKey.getTypeName());
-                    if (!portalConfig.getName().equals(siteKey.getName())) {
-                        throw new OperationException(operationName,
-                                "Name of site does not match that of the zip entry site name.");
-                    }
-
-                    // Add import task to run later
-                    mopImport.siteTask = new SiteLayoutImportTask(portalConfig, siteKey, dataStorage);
-                } else if (file.equals(PageExportTask.FILE)) {
-                    // Unmarshal page data
-                    Marshaller<Page.PageSet> marshaller = operationContext.getBindingProvider().getMarshaller(
-                            Page.PageSet.class, ContentType.XML);
-                    Page.PageSet pages = marshaller.unmarshal(zis);
-                    for (Page page : pages.getPages()) {
-                        page.setOwnerType(siteKey.getTypeName());
-                        page.setOwnerId(siteKey.getName());
-                    }
-
-                    // Obtain the site from the session when it's needed.
-                    MOPSiteProvider siteProvider = new MOPSiteProvider() {
-                        @Override
-                        public Site getSite(SiteKey siteKey) {
-                            return mgr.getSession().getWorkspace()
-                                    .getSite(Utils.getObjectType(siteKey.getType()), siteKey.getName());
-                        }
-                    };
-                    // Add import task to run later.
-                    mopImport.pageTask = new PageImportTask(pages, siteKey, dataStorage, pageService, siteProvider);
-                } else if (file.equals(NavigationExportTask.FILE)) {
-                    // Unmarshal navigation data
-                    Marshaller<PageNavigation> marshaller = operationContext.getBindingProvider().getMarshaller(
-                            PageNavigation.class, ContentType.XML);
-                    PageNavigation navigation = marshaller.unmarshal(zis);
-                    navigation.setOwnerType(siteKey.getTypeName());
-                    navigation.setOwnerId(siteKey.getName());
-
-                    // Add import task to run later
-                    mopImport.navigationTask = new NavigationImportTask(navigation, siteKey, navigationService,
-                            descriptionService, dataStorage);
-                }
+                readEntry(context, siteKey, file, zis, mopImport);
             }
 
             resultHandler.completed(NoResultModel.INSTANCE);
@@ -228,83 +209,247 @@ public class MopImportResource extends SecureOperationHandler implements Operati
                 }
                 importsRan.put(siteKey, ran);
 
-                log.debug("Importing data for site " + siteKey);
-
-                // Site layout import
-                if (mopImport.siteTask != null) {
-                    log.debug("Importing site layout data.");
-                    ran.siteTask = mopImport.siteTask;
-                    mopImport.siteTask.importData(importMode);
-                }
-
-                // Page import
-                if (mopImport.pageTask != null) {
-                    log.debug("Importing page data.");
-                    ran.pageTask = mopImport.pageTask;
-                    mopImport.pageTask.importData(importMode);
-                }
-
-                // Navigation import
-                if (mopImport.navigationTask != null) {
-                    log.debug("Importing navigation data.");
-                    ran.navigationTask = mopImport.navigationTask;
-                    mopImport.navigationTask.importData(importMode);
-                }
+                importSite(siteKey, mopImport, ran, importMode);
             }
             log.info("Import successful !");
         } catch (Throwable t) {
-            boolean rollbackSuccess = true;
             log.error("Exception importing data.", t);
             log.info("Attempting to rollback data modified by import.");
-            for (Map.Entry<SiteKey, MopImport> mopImportEntry : importsRan.entrySet()) {
-                SiteKey siteKey = mopImportEntry.getKey();
-                MopImport mopImport = mopImportEntry.getValue();
+            boolean rollbackSuccess = rollback(importsRan);
 
-                log.debug("Rolling back imported data for site " + siteKey);
-                if (mopImport.navigationTask != null) {
-                    log.debug("Rolling back navigation modified during import...");
-                    try {
-                        mopImport.navigationTask.rollback();
-                    } catch (Throwable t1) // Continue rolling back even though there are exceptions.
-                    {
-                        rollbackSuccess = false;
-                        log.error("Error rolling back navigation data for site " + siteKey, t1);
-                    }
+            String message = (rollbackSuccess) ? "Error during import. Tasks successfully rolled back. Portal should be back to consistent state."
+                    : "Error during import. Errors in rollback as well. Portal may be in an inconsistent state.";
+
+            importError = new OperationException(operationName, message, t);
+        } finally {
+            importMap.clear();
+            importsRan.clear();
+        }
+
+        endRequest(operationName, chromatticManager, importError);
+    }
+
+    /**
+     * Imports the sites one after another while the zip file is read, so only the data of the site being imported is held
+     * in memory. The sites are committed by batches, when a site fails to be imported the sites of the current batch are
+     * rolled back while the sites of the previous batches remain imported. The entries of a site must be contiguous in
+     * the zip file, as they are in the exported zip files.
+     * <p>
+     * The management API has no model reporting the progress of an operation, so the completed import is described by a
+     * {@link ReadResourceModel} whose description gives the number of imported sites and committed batches and whose
+     * children are the imported sites as <code>site-type/site-name</code>.
+     * </p>
+     */
+    static void streamingImport(ImportContext context, NonCloseableZipInputStream zis, ImportMode importMode,
+            int batchSize, ChromatticManager chromatticManager, ResultHandler resultHandler) throws OperationException {
+        String operationName = context.operationContext.getOperationName();
+        Set<String> imported = new LinkedHashSet<String>();
+        Set<SiteKey> read = new HashSet<SiteKey>();
+        Map<SiteKey, MopImport> batchRan = new LinkedHashMap<SiteKey, MopImport>();
+        int batches = 0;
+        long time = System.currentTimeMillis();
+        OperationException importError = null;
+        try {
+            log.info("Performing streaming import using importMode '" + importMode.name().toLowerCase() + "' and batches of "
+                    + batchSize + " sites");
+            SiteKey siteKey = null;
+            MopImport mopImport = null;
+            ZipEntry entry;
+            while (true) {
+                entry = zis.getNextEntry();
+                if (entry != null && (entry.isDirectory() || entry.getName().equals(""))) {
+                    continue;
                 }
-                if (mopImport.pageTask != null) {
-                    log.debug("Rolling back pages modified during import...");
-                    try {
-                        mopImport.pageTask.rollback();
-                    } catch (Throwable t1) // Continue rolling back even though there are exceptions.
-                    {
-                        rollbackSuccess = false;
-                        log.error("Error rolling back page data for site " + siteKey, t1);
+
+                // Parse zip entry
+                String[] parts = entry != null ? parseEntry(entry) : null;
+                SiteKey entryKey = parts != null ? Utils.siteKey(parts[0], parts[1]) : null;
+
+                // Import the site once all its entries are read
+                if (mopImport != null && !siteKey.equals(entryKey)) {
+                    MopImport ran = new MopImport();
+                    batchRan.put(siteKey, ran);
+                    importSite(siteKey, mopImport, ran, importMode);
+                    if (batchRan.size() >= batchSize || entry == null) {
+                        commit(chromatticManager);
+                        for (SiteKey key : batchRan.keySet()) {
+                            imported.add(key.getTypeName() + "/" + key.getName());
+                        }
+                        batchRan.clear();
+                        batches++;
+                        log.info("Imported " + imported.size() + " sites in " + batches + " batches in "
+                                + (System.currentTimeMillis() - time) + " ms");
                     }
+                    mopImport = null;
+                }
+                if (entry == null) {
+                    break;
                 }
-                if (mopImport.siteTask != null) {
-                    log.debug("Rolling back site layout modified during import...");
-                    try {
-                        mopImport.siteTask.rollback();
-                    } catch (Throwable t1) // Continue rolling back even though there are exceptions.
-                    {
-                        rollbackSuccess = false;
-                        log.error("Error rolling back site layout for site " + siteKey, t1);
+
+                //
+                if (mopImport == null) {
+                    if (!read.add(entryKey)) {
+                        throw new IllegalStateException("Entries of site " + entryKey
+                                + " are not contiguous in the zip file, it cannot be imported by batches.");
                     }
+                    siteKey = entryKey;
+                    mopImport = new MopImport();
                 }
+                readEntry(context, siteKey, parts[2], zis, mopImport);
             }
+            log.info("Import successful !");
+            resultHandler.completed(new ReadResourceModel("Imported " + imported.size() + " sites in " + batches
+                    + " batches.", imported));
+        } catch (Throwable t) {
+            log.error("Exception importing data.", t);
+            log.info("Attempting to rollback data modified by the current batch of the import.");
+            boolean rollbackSuccess = rollback(batchRan);
 
-            String message = (rollbackSuccess) ? "Error during import. Tasks successfully rolled back. Portal should be back to consistent state."
-                    : "Error during import. Errors in rollback as well. Portal may be in an inconsistent state.";
-
-            importError = new OperationException(operationName, message, t);
+            String message = (rollbackSuccess) ? "Error during import. Tasks of the current batch successfully rolled back."
+                    : "Error during import. Errors in rollback of the current batch as well. Portal may be in an inconsistent state.";
+            importError = new OperationException(operationName, message + " " + imported.size() + " sites imported in "
+                    + batches + " previous batches remain imported.", t);
         } finally {
-            importMap.clear();
-            importsRan.clear();
+            batchRan.clear();
+            try {
+                zis.reallyClose();
+            } catch (IOException e) {
+                log.warn("Exception closing underlying data stream from import.");
+            }
         }
 
         endRequest(operationName, chromatticManager, importError);
     }
 
+    private static void commit(ChromatticManager manager) {
+        try {
+            manager.endRequest(true);
+        } finally {
+            manager.beginRequest();
+        }
+    }
+
+    private static void readEntry(final ImportContext context, SiteKey siteKey, String file, NonCloseableZipInputStream zis,
+            MopImport mopImport) throws Exception {
+        if (SiteLayoutExportTask.FILES.contains(file)) {
+            // Unmarshal site layout data
+            Marshaller<PortalConfig> marshaller = context.operationContext.getBindingProvider().getMarshaller(
+                    PortalConfig.class, ContentType.XML);
+            PortalConfig portalConfig = marshaller.unmarshal(zis);
+            portalConfig.setType(siteKey.getTypeName());
+            if (!portalConfig.getName().equals(siteKey.getName())) {
+                throw new OperationException(context.operationContext.getOperationName(),
+                        "Name of site does not match that of the zip entry site name.");
+            }
+
+            // Add import task to run later
+            mopImport.siteTask = new SiteLayoutImportTask(portalConfig, siteKey, context.dataStorage);
+        } else if (file.equals(PageExportTask.FILE)) {
+            // Unmarshal page data
+            Marshaller<Page.PageSet> marshaller = context.operationContext.getBindingProvider().getMarshaller(
+                    Page.PageSet.class, ContentType.XML);
+            Page.PageSet pages = marshaller.unmarshal(zis);
+            for (Page page : pages.getPages()) {
+                page.setOwnerType(siteKey.getTypeName());
+                page.setOwnerId(siteKey.getName());
+            }
+
+            // Obtain the site from the session when it's needed.
+            MOPSiteProvider siteProvider = new MOPSiteProvider() {
+                @Override
+                public Site getSite(SiteKey siteKey) {
+                    return context.mgr.getSession().getWorkspace()
+                            .getSite(Utils.getObjectType(siteKey.getType()), siteKey.getName());
+                }
+            };
+            // Add import task to run later.
+            mopImport.pageTask = new PageImportTask(pages, siteKey, context.dataStorage, context.pageService, siteProvider);
+        } else if (file.equals(NavigationExportTask.FILE)) {
+            // Unmarshal navigation data
+            Marshaller<PageNavigation> marshaller = context.operationContext.getBindingProvider().getMarshaller(
+                    PageNavigation.class, ContentType.XML);
+            PageNavigation navigation = marshaller.unmarshal(zis);
+            navigation.setOwnerType(siteKey.getTypeName());
+            navigation.setOwnerId(siteKey.getName());
+
+            // Add import task to run later
+            mopImport.navigationTask = new NavigationImportTask(navigation, siteKey, context.navigationService,
+                    context.descriptionService, context.dataStorage);
+        }
+    }
+
+    private static void importSite(SiteKey siteKey, MopImport mopImport, MopImport ran, ImportMode importMode) throws Exception {
+        log.debug("Importing data for site " + siteKey);
+
+        // Site layout import
+        if (mopImport.siteTask != null) {
+            log.debug("Importing site layout data.");
+            ran.siteTask = mopImport.siteTask;
+            mopImport.siteTask.importData(importMode);
+        }
+
+        // Page import
+        if (mopImport.pageTask != null) {
+            log.debug("Importing page data.");
+            ran.pageTask = mopImport.pageTask;
+            mopImport.pageTask.importData(importMode);
+        }
+
+        // Navigation import
+        if (mopImport.navigationTask != null) {
+            log.debug("Importing navigation data.");
+            ran.navigationTask = mopImport.navigationTask;
+            mopImport.navigationTask.importData(importMode);
+        }
+    }
+
+    /**
+     * Rolls back the tasks that ran, the rollback continues when a task fails to roll back.
+     *
+     * @param importsRan the tasks that ran for each site
+     * @return true if all the tasks were rolled back
+     */
+    private static boolean rollback(Map<SiteKey, MopImport> importsRan) {
+        boolean rollbackSuccess = true;
+        for (Map.Entry<SiteKey, MopImport> mopImportEntry : importsRan.entrySet()) {
+            SiteKey siteKey = mopImportEntry.getKey();
+            MopImport mopImport = mopImportEntry.getValue();
+
+            log.debug("Rolling back imported data for site " + siteKey);
+            if (mopImport.navigationTask != null) {
+                log.debug("Rolling back navigation modified during import...");
+                try {
+                    mopImport.navigationTask.rollback();
+                } catch (Throwable t1) // Continue rolling back even though there are exceptions.
+                {
+                    rollbackSuccess = false;
+                    log.error("Error rolling back navigation data for site " + siteKey, t1);
+                }
+            }
+            if (mopImport.pageTask != null) {
+                log.debug("Rolling back pages modified during import...");
+                try {
+                    mopImport.pageTask.rollback();
+                } catch (Throwable t1) // Continue rolling back even though there are exceptions.
+                {
+                    rollbackSuccess = false;
+                    log.error("Error rolling back page data for site " + siteKey, t1);
+                }
+            }
+            if (mopImport.siteTask != null) {
+                log.debug("Rolling back site layout modified during import...");
+                try {
+                    mopImport.siteTask.rollback();
+                } catch (Throwable t1) // Continue rolling back even though there are exceptions.
+                {
+                    rollbackSuccess = false;
+                    log.error("Error rolling back site layout for site " + siteKey, t1);
+                }
+            }
+        }
+        return rollbackSuccess;
+    }
+
     // See GTNPORTAL-3257
     private static void endRequest(String operationName, ChromatticManager manager, OperationException importError) {
         OperationException error = importError;
@@ -354,8 +499,8 @@ public class MopImportResource extends SecureOperationHandler implements Operati
     // Bug in SUN's JDK XMLStreamReader implementation closes the underlying stream when
     // it finishes reading an XML document. This is no good when we are using a ZipInputStream.
     // See http://bugs.sun.com/view_bug.do?bug_id=6539065 for more information.
-    private static class NonCloseableZipInputStream extends ZipInputStream {
-        private NonCloseableZipInputStream(InputStream inputStream) {
+    static class NonCloseableZipInputStream extends ZipInputStream {
+        NonCloseableZipInputStream(InputStream inputStream) {
             super(inputStream);
         }
 
@@ -373,4 +518,23 @@ public class MopImportResource extends SecureOperationHandler implements Operati
         private PageImportTask pageTask;
         private NavigationImportTask navigationTask;
     }
+
+    static class ImportContext {
+        private final OperationContext operationContext;
+        private final POMSessionManager mgr;
+        private final DataStorage dataStorage;
+        private final PageService pageService;
+        private final NavigationService navigationService;
+        private final DescriptionService descriptionService;
+
+        ImportContext(OperationContext operationContext, POMSessionManager mgr, DataStorage dataStorage,
+                PageService pageService, NavigationService navigationService, DescriptionService descriptionService) {
+            this.operationContext = operationContext;
+            this.mgr = mgr;
+            this.dataStorage = dataStorage;
+            this.pageService = pageService;
+            this.navigationService = navigationService;
+            this.descriptionService = descriptionService;
+        }
+    }
 }
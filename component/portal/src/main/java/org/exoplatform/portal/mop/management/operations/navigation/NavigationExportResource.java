@@ -86,7 +86,7 @@ public class NavigationExportResource extends AbstractNavigationOperationHandler
             NavigationExportTask exportTask = new NavigationExportTask(navigationKey, navigationService, descriptionService,
                     marshaller);
 
-            resultHandler.completed(new ExportResourceModel(exportTask));
+            resultHandler.completed(new ExportResourceModel(prefetch(operationContext, exportTask)));
         }
     }
 }
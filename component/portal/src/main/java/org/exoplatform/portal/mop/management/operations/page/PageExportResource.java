@@ -92,7 +92,7 @@ public class PageExportResource extends AbstractPageOperationHandler {
         } else if (pageExportTask.getPageNames().isEmpty()) {
             resultHandler.completed(new ExportResourceModel(Collections.<ExportTask> emptyList()));
         } else {
-            tasks.add(pageExportTask);
+            tasks.add(prefetch(operationContext, pageExportTask));
             resultHandler.completed(new ExportResourceModel(tasks));
         }
     }
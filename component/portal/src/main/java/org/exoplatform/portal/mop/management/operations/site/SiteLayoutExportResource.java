@@ -48,7 +48,7 @@ public class SiteLayoutExportResource extends AbstractSiteOperationHandler {
 
         SiteKey siteKey = getSiteKey(site);
 
-        resultHandler.completed(new ExportResourceModel(new SiteLayoutExportTask(siteKey, dataStorage, bindingProvider
-                .getMarshaller(PortalConfig.class, ContentType.XML))));
+        resultHandler.completed(new ExportResourceModel(prefetch(operationContext, new SiteLayoutExportTask(siteKey,
+                dataStorage, bindingProvider.getMarshaller(PortalConfig.class, ContentType.XML)))));
     }
 }
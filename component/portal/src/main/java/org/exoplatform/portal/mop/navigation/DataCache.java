@@ -22,6 +22,7 @@ package org.exoplatform.portal.mop.navigation;
 import static org.exoplatform.portal.mop.Utils.objectType;
 
 import java.util.Collection;
+import java.util.List;
 
 import org.exoplatform.portal.mop.SiteKey;
 import org.exoplatform.portal.pom.config.POMSession;
@@ -41,8 +42,18 @@ abstract class DataCache {
 
     protected abstract NodeData getNode(POMSession session, String key);
 
+    protected abstract NodeData peekNode(String key);
+
+    protected abstract void putNode(NodeData node);
+
     protected abstract NavigationData getNavigation(POMSession session, SiteKey key);
 
+    protected abstract NavigationSnapshot getSnapshot(POMSession session, String rootId);
+
+    protected abstract NavigationSnapshot peekSnapshot(String rootId);
+
+    protected abstract void removeSnapshot(String rootId);
+
     protected abstract void removeNavigation(SiteKey key);
 
     protected abstract void clear();
@@ -69,6 +80,98 @@ abstract class DataCache {
         return data;
     }
 
+    /**
+     * Returns the snapshot of the navigation rooted at the specified node or null when the session is modified, since
+     * the snapshot is then only valid for the current session and loading the nodes on demand is cheaper. The snapshot
+     * loads the whole navigation, so it is only loaded when requested, otherwise a snapshot is returned only when it is
+     * already cached.
+     *
+     * @param session the session
+     * @param rootId the navigation root id
+     * @param load true if the snapshot should be loaded when it is not cached
+     * @return the snapshot
+     */
+    final NavigationSnapshot getSnapshotData(POMSession session, String rootId, boolean load) {
+        if (session.isModified()) {
+            return null;
+        } else if (load) {
+            return getSnapshot(session, rootId);
+        } else {
+            return peekSnapshot(rootId);
+        }
+    }
+
+    /**
+     * Loads the nodes of the subtree bounded by a scope that are not cached, so that they are then found in the cache
+     * instead of being loaded one by one. The cached nodes are traversed until a node whose children are visited has
+     * children that are not cached, the subtree bounded by the scope below that node is then loaded in a single
+     * traversal. Nothing is loaded when the session is modified or when the snapshot of the navigation is cached.
+     *
+     * @param session the session
+     * @param rootId the navigation root id
+     * @param nodeId the id of the node the scope applies to
+     * @param scope the scope
+     */
+    final void prefetchNodeData(POMSession session, String rootId, String nodeId, Scope scope) {
+        if (!session.isModified() && peekSnapshot(rootId) == null) {
+            NodeData data = peekNode(nodeId);
+            if (data != null) {
+                prefetch(session, data, 0, scope.get());
+            } else {
+                Navigation navigation = session.findObjectById(ObjectType.NAVIGATION, nodeId);
+                if (navigation != null) {
+                    prefetch(navigation, 0, scope.get());
+                }
+            }
+        }
+    }
+
+    private void prefetch(POMSession session, NodeData data, int depth, Scope.Visitor visitor) {
+        if (visitor.enter(depth, data.id, data.name, data.state) == VisitMode.ALL_CHILDREN) {
+            NodeData[] children = new NodeData[data.children.length];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = peekNode(data.children[i]);
+                if (children[i] == null) {
+                    children = null;
+                    break;
+                }
+            }
+            if (children != null) {
+                for (NodeData child : children) {
+                    prefetch(session, child, depth + 1, visitor);
+                }
+            } else {
+                Navigation navigation = session.findObjectById(ObjectType.NAVIGATION, data.id);
+                if (navigation != null) {
+                    prefetchChildren(navigation, depth, visitor);
+                }
+            }
+            visitor.leave(depth, data.id, data.name, data.state);
+        }
+    }
+
+    private void prefetch(Navigation navigation, int depth, Scope.Visitor visitor) {
+        NodeData data = new NodeData(navigation);
+        putNode(data);
+        if (visitor.enter(depth, data.id, data.name, data.state) == VisitMode.ALL_CHILDREN) {
+            prefetchChildren(navigation, depth, visitor);
+            visitor.leave(depth, data.id, data.name, data.state);
+        }
+    }
+
+    private void prefetchChildren(Navigation navigation, int depth, Scope.Visitor visitor) {
+        List<Navigation> children = navigation.getChildren();
+        if (children != null) {
+            for (Navigation child : children) {
+                prefetch(child, depth + 1, visitor);
+            }
+        }
+    }
+
+    final void removeSnapshotData(POMSession session, String rootId) {
+        removeSnapshot(rootId);
+    }
+
     final void removeNodeData(POMSession session, Collection<String> ids) {
         removeNodes(ids);
     }
@@ -86,6 +189,15 @@ abstract class DataCache {
         }
     }
 
+    protected final NavigationSnapshot loadSnapshot(POMSession session, String rootId) {
+        Navigation navigation = session.findObjectById(ObjectType.NAVIGATION, rootId);
+        if (navigation != null) {
+            return new NavigationSnapshot(navigation);
+        } else {
+            return null;
+        }
+    }
+
     protected final NavigationData loadNavigation(POMSession session, SiteKey key) {
         Workspace workspace = session.getWorkspace();
         ObjectType<Site> objectType = objectType(key.getType());
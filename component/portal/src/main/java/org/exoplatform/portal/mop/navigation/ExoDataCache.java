@@ -50,6 +50,8 @@ public class ExoDataCache extends DataCache {
             if (key instanceof SiteKey) {
                 NavigationData data = loadNavigation(session, (SiteKey) key);
                 return data == NavigationData.EMPTY ? null : data;
+            } else if (key instanceof NavigationSnapshot.Key) {
+                return loadSnapshot(session, ((NavigationSnapshot.Key) key).rootId);
             } else {
                 return loadNode(session, (String) key);
             }
@@ -73,6 +75,16 @@ public class ExoDataCache extends DataCache {
         return (NodeData) objects.get(session, ScopedKey.create(key));
     }
 
+    @Override
+    protected NodeData peekNode(String key) {
+        return (NodeData) cache.get(ScopedKey.create(key));
+    }
+
+    @Override
+    protected void putNode(NodeData node) {
+        cache.put(ScopedKey.create(node.id), node);
+    }
+
     @Override
     protected void removeNavigation(SiteKey key) {
         cache.remove(ScopedKey.create(key));
@@ -83,6 +95,21 @@ public class ExoDataCache extends DataCache {
         return (NavigationData) objects.get(session, ScopedKey.create(key));
     }
 
+    @Override
+    protected NavigationSnapshot getSnapshot(POMSession session, String rootId) {
+        return (NavigationSnapshot) objects.get(session, ScopedKey.create(new NavigationSnapshot.Key(rootId)));
+    }
+
+    @Override
+    protected NavigationSnapshot peekSnapshot(String rootId) {
+        return (NavigationSnapshot) cache.get(ScopedKey.create(new NavigationSnapshot.Key(rootId)));
+    }
+
+    @Override
+    protected void removeSnapshot(String rootId) {
+        cache.remove(ScopedKey.create(new NavigationSnapshot.Key(rootId)));
+    }
+
     @Override
     protected void clear() {
         cache.clearCache();
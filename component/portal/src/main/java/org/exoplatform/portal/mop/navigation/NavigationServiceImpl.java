@@ -185,6 +185,7 @@ public class NavigationServiceImpl implements NavigationService {
             String rootId = navigation.data.rootId;
             if (rootId != null) {
                 dataCache.removeNodes(Collections.singleton(rootId));
+                dataCache.removeSnapshot(rootId);
             }
 
             // Destroy nav
@@ -214,7 +215,7 @@ public class NavigationServiceImpl implements NavigationService {
         String nodeId = navigation.data.rootId;
         if (navigation.data.rootId != null) {
             POMSession session = manager.getSession();
-            NodeData data = dataCache.getNodeData(session, nodeId);
+            NodeData data = NodeDataUpdateAdapter.create(dataCache, session, nodeId, scope == Scope.ALL).getNodeData(nodeId);
             if (data != null) {
                 NodeContext<N> context = new NodeContext<N>(model, data);
                 updateNode(context, scope, listener);
@@ -233,12 +234,15 @@ public class NavigationServiceImpl implements NavigationService {
         Scope.Visitor visitor;
         if (scope != null) {
             visitor = new FederatingVisitor<N>(root.tree, root, scope);
+            if (scope != Scope.ALL && root.getId() != null) {
+                dataCache.prefetchNodeData(manager.getSession(), root.tree.root.getId(), root.getId(), scope);
+            }
         } else {
             visitor = root.tree;
         }
 
         //
-        updateTree(root.tree, visitor, listener);
+        updateTree(root.tree, visitor, scope == Scope.ALL, listener);
     }
 
     public <N> void saveNode(NodeContext<N> context, NodeChangeListener<NodeContext<N>> listener) throws NullPointerException,
@@ -251,23 +255,28 @@ public class NavigationServiceImpl implements NavigationService {
         Scope.Visitor visitor;
         if (scope != null) {
             visitor = new FederatingVisitor<N>(context.tree.origin(), context, scope);
+            if (scope != Scope.ALL && context.getId() != null) {
+                dataCache.prefetchNodeData(manager.getSession(), context.tree.root.getId(), context.getId(), scope);
+            }
         } else {
             visitor = context.tree.origin();
         }
 
         //
-        rebaseTree(context.tree, visitor, listener);
+        rebaseTree(context.tree, visitor, scope == Scope.ALL, listener);
     }
 
-    private <N> void updateTree(TreeContext<N> tree, Scope.Visitor visitor, NodeChangeListener<NodeContext<N>> listener)
-            throws NullPointerException, IllegalArgumentException, NavigationServiceException {
+    private <N> void updateTree(TreeContext<N> tree, Scope.Visitor visitor, boolean full,
+            NodeChangeListener<NodeContext<N>> listener) throws NullPointerException, IllegalArgumentException,
+            NavigationServiceException {
         if (tree.hasChanges()) {
             throw new IllegalArgumentException("For now we don't accept to update a context that has pending changes");
         }
 
         //
         POMSession session = manager.getSession();
-        NodeData data = dataCache.getNodeData(session, tree.root.data.id);
+        NodeDataUpdateAdapter adapter = NodeDataUpdateAdapter.create(dataCache, session, tree.root.data.id, full);
+        NodeData data = adapter.getNodeData(tree.root.data.id);
         if (data == null) {
             throw new NavigationServiceException(NavigationError.UPDATE_CONCURRENTLY_REMOVED_NODE);
         }
@@ -278,8 +287,7 @@ public class NavigationServiceImpl implements NavigationService {
         // Apply diff changes to the model
         try {
 
-            TreeUpdate.perform(tree, NodeContextUpdateAdapter.<N> create(), data,
-                    NodeDataUpdateAdapter.create(dataCache, session), listener, visitor);
+            TreeUpdate.perform(tree, NodeContextUpdateAdapter.<N> create(), data, adapter, listener, visitor);
         } finally {
             // Disable edit mode
             tree.editMode = false;
@@ -301,7 +309,7 @@ public class NavigationServiceImpl implements NavigationService {
         }
 
         // Attempt to rebase
-        TreeContext<N> rebased = rebase(tree, tree.origin());
+        TreeContext<N> rebased = rebase(tree, tree.origin(), false);
 
         //
         NavigationPersister<N> persister = new NavigationPersister<N>(session);
@@ -336,14 +344,15 @@ public class NavigationServiceImpl implements NavigationService {
 
         //
         dataCache.removeNodeData(session, persister.toEvict);
+        dataCache.removeSnapshotData(session, data.id);
     }
 
-    private <N> void rebaseTree(TreeContext<N> tree, Scope.Visitor visitor, NodeChangeListener<NodeContext<N>> listener)
-            throws NavigationServiceException {
+    private <N> void rebaseTree(TreeContext<N> tree, Scope.Visitor visitor, boolean full,
+            NodeChangeListener<NodeContext<N>> listener) throws NavigationServiceException {
         if (!tree.hasChanges()) {
-            updateTree(tree, visitor, listener);
+            updateTree(tree, visitor, full, listener);
         } else {
-            TreeContext<N> rebased = rebase(tree, visitor);
+            TreeContext<N> rebased = rebase(tree, visitor, full);
 
             //
             TreeUpdate.perform(tree, NodeContextUpdateAdapter.<N> create(), rebased.root,
@@ -351,9 +360,11 @@ public class NavigationServiceImpl implements NavigationService {
         }
     }
 
-    private <N> TreeContext<N> rebase(TreeContext<N> tree, Scope.Visitor visitor) throws NavigationServiceException {
+    private <N> TreeContext<N> rebase(TreeContext<N> tree, Scope.Visitor visitor, boolean full)
+            throws NavigationServiceException {
         POMSession session = manager.getSession();
-        NodeData data = dataCache.getNodeData(session, tree.root.getId());
+        NodeDataUpdateAdapter adapter = NodeDataUpdateAdapter.create(dataCache, session, tree.root.getId(), full);
+        NodeData data = adapter.getNodeData(tree.root.getId());
         if (data == null) {
             throw new NavigationServiceException(NavigationError.UPDATE_CONCURRENTLY_REMOVED_NODE);
         }
@@ -362,8 +373,7 @@ public class NavigationServiceImpl implements NavigationService {
         TreeContext<N> rebased = new NodeContext<N>(tree.model, data).tree;
 
         //
-        TreeUpdate.perform(rebased, NodeContextUpdateAdapter.<N> create(), data,
-                NodeDataUpdateAdapter.create(dataCache, session), null, visitor);
+        TreeUpdate.perform(rebased, NodeContextUpdateAdapter.<N> create(), data, adapter, null, visitor);
 
         //
         NodeChangeQueue<NodeContext<N>> changes = tree.getChanges();
@@ -426,8 +436,12 @@ public class NavigationServiceImpl implements NavigationService {
 
     private static class NodeDataUpdateAdapter implements TreeUpdateAdapter<NodeData> {
 
-        static NodeDataUpdateAdapter create(DataCache dataCache, POMSession session) {
-            return new NodeDataUpdateAdapter(dataCache, session);
+        /**
+         * Creates an adapter resolving the nodes from the navigation snapshot when it is cached. The snapshot is only
+         * loaded for a full scope, the nodes of a bounded scope are prefetched in the node cache instead.
+         */
+        static NodeDataUpdateAdapter create(DataCache dataCache, POMSession session, String rootId, boolean full) {
+            return new NodeDataUpdateAdapter(dataCache, session, dataCache.getSnapshotData(session, rootId, full));
         }
 
         /** . */
@@ -436,9 +450,21 @@ public class NavigationServiceImpl implements NavigationService {
         /** . */
         private final POMSession session;
 
-        private NodeDataUpdateAdapter(DataCache dataCache, POMSession session) {
+        /** The snapshot of the navigation or null when the nodes are loaded one by one. */
+        private final NavigationSnapshot snapshot;
+
+        private NodeDataUpdateAdapter(DataCache dataCache, POMSession session, NavigationSnapshot snapshot) {
             this.dataCache = dataCache;
             this.session = session;
+            this.snapshot = snapshot;
+        }
+
+        NodeData getNodeData(String nodeId) {
+            if (snapshot != null) {
+                return snapshot.getNode(nodeId);
+            } else {
+                return dataCache.getNodeData(session, nodeId);
+            }
         }
 
         public String getHandle(NodeData node) {
@@ -450,14 +476,14 @@ public class NavigationServiceImpl implements NavigationService {
         }
 
         public NodeData getDescendant(NodeData node, String handle) {
-            NodeData data = dataCache.getNodeData(session, handle);
+            NodeData data = getNodeData(handle);
             NodeData current = data;
             while (current != null) {
                 if (node.id.equals(current.id)) {
                     return data;
                 } else {
                     if (current.parentId != null) {
-                        current = dataCache.getNodeData(session, current.parentId);
+                        current = getNodeData(current.parentId);
                     } else {
                         current = null;
                     }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.mop.navigation;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.gatein.mop.api.workspace.Navigation;
+
+/**
+ * An immutable snapshot of the data of all the nodes of a navigation, loaded in a single traversal. The snapshot is
+ * cached as a whole and is replaced as a whole when any of its nodes is modified.
+ *
+ * @version $Revision$
+ */
+class NavigationSnapshot implements Serializable {
+
+    /** . */
+    final String rootId;
+
+    /** . */
+    private final Map<String, NodeData> nodes;
+
+    NavigationSnapshot(Navigation root) {
+        Map<String, NodeData> nodes = new HashMap<String, NodeData>();
+        LinkedList<Navigation> stack = new LinkedList<Navigation>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Navigation navigation = stack.removeLast();
+            NodeData data = new NodeData(navigation);
+            nodes.put(data.id, data);
+            if (data.children.length > 0) {
+                List<Navigation> children = navigation.getChildren();
+                stack.addAll(children);
+            }
+        }
+
+        //
+        this.rootId = root.getObjectId();
+        this.nodes = nodes;
+    }
+
+    /**
+     * Returns the data of a node of the navigation.
+     *
+     * @param nodeId the node id
+     * @return the node data or null if the node does not belong to the navigation
+     */
+    NodeData getNode(String nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    int getSize() {
+        return nodes.size();
+    }
+
+    /**
+     * The cache key of a snapshot, it is distinct from the keys of the nodes that are the node ids.
+     */
+    static final class Key implements Serializable {
+
+        /** . */
+        final String rootId;
+
+        Key(String rootId) {
+            this.rootId = rootId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this || obj instanceof Key && rootId.equals(((Key) obj).rootId);
+        }
+
+        @Override
+        public int hashCode() {
+            return rootId.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "NavigationSnapshot.Key[rootId=" + rootId + "]";
+        }
+    }
+}
@@ -40,9 +40,13 @@ public class SimpleDataCache extends DataCache {
     /** . */
     protected Map<MarshalledObject<String>, MarshalledObject<NodeData>> nodes;
 
+    /** . */
+    protected Map<MarshalledObject<String>, MarshalledObject<NavigationSnapshot>> snapshots;
+
     public SimpleDataCache() {
         this.navigations = new ConcurrentHashMap<MarshalledObject<SiteKey>, MarshalledObject<NavigationData>>();
         this.nodes = new ConcurrentHashMap<MarshalledObject<String>, MarshalledObject<NodeData>>();
+        this.snapshots = new ConcurrentHashMap<MarshalledObject<String>, MarshalledObject<NavigationSnapshot>>();
     }
 
     @Override
@@ -69,6 +73,17 @@ public class SimpleDataCache extends DataCache {
         }
     }
 
+    @Override
+    protected NodeData peekNode(String key) {
+        MarshalledObject<NodeData> marshalledNode = nodes.get(MarshalledObject.marshall(key));
+        return marshalledNode != null ? marshalledNode.unmarshall() : null;
+    }
+
+    @Override
+    protected void putNode(NodeData node) {
+        nodes.put(MarshalledObject.marshall(node.id), MarshalledObject.marshall(node));
+    }
+
     @Override
     protected void removeNavigation(SiteKey key) {
         navigations.remove(MarshalledObject.marshall(key));
@@ -91,9 +106,38 @@ public class SimpleDataCache extends DataCache {
         }
     }
 
+    @Override
+    protected NavigationSnapshot getSnapshot(POMSession session, String rootId) {
+        MarshalledObject<String> marshalledKey = MarshalledObject.marshall(rootId);
+        MarshalledObject<NavigationSnapshot> marshalledSnapshot = snapshots.get(marshalledKey);
+        if (marshalledSnapshot == null) {
+            NavigationSnapshot snapshot = loadSnapshot(session, rootId);
+            if (snapshot != null) {
+                snapshots.put(marshalledKey, MarshalledObject.marshall(snapshot));
+                return snapshot;
+            } else {
+                return null;
+            }
+        } else {
+            return marshalledSnapshot.unmarshall();
+        }
+    }
+
+    @Override
+    protected NavigationSnapshot peekSnapshot(String rootId) {
+        MarshalledObject<NavigationSnapshot> marshalledSnapshot = snapshots.get(MarshalledObject.marshall(rootId));
+        return marshalledSnapshot != null ? marshalledSnapshot.unmarshall() : null;
+    }
+
+    @Override
+    protected void removeSnapshot(String rootId) {
+        snapshots.remove(MarshalledObject.marshall(rootId));
+    }
+
     @Override
     protected void clear() {
         navigations.clear();
         nodes.clear();
+        snapshots.clear();
     }
 }
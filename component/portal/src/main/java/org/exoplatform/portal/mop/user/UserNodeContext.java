@@ -19,6 +19,15 @@
 
 package org.exoplatform.portal.mop.user;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.exoplatform.commons.utils.Safe;
+import org.exoplatform.portal.mop.Described;
+import org.exoplatform.portal.mop.description.DescriptionService;
 import org.exoplatform.portal.mop.navigation.NodeContext;
 import org.exoplatform.portal.mop.navigation.NodeModel;
 
@@ -36,6 +45,15 @@ class UserNodeContext implements NodeModel<UserNode> {
     /** . */
     private UserNodeFilter filter;
 
+    /** The descriptions resolved for the nodes of the tree. */
+    private Map<String, Described.State> descriptions;
+
+    /** The user locale of the resolved descriptions. */
+    private Locale userLocale;
+
+    /** The portal locale of the resolved descriptions. */
+    private Locale portalLocale;
+
     UserNodeContext(UserNavigation navigation, UserNodeFilterConfig filterConfig) {
         this.filterConfig = filterConfig;
         this.navigation = navigation;
@@ -57,4 +75,54 @@ class UserNodeContext implements NodeModel<UserNode> {
             userNode.context.filter(filter);
         }
     }
+
+    /**
+     * Resolves the description of a node. The descriptions of all the loaded nodes of the tree are resolved at once when
+     * the node description is not yet resolved, as the nodes of a tree are usually rendered together.
+     *
+     * @param node the node
+     * @return the description or null
+     */
+    Described.State resolveDescription(UserNode node) {
+        Locale userLocale = navigation.portal.context.getUserLocale();
+        Locale portalLocale = navigation.portal.getLocale();
+        if (descriptions == null || !userLocale.equals(this.userLocale) || !Safe.equals(portalLocale, this.portalLocale)) {
+            this.descriptions = new HashMap<String, Described.State>();
+            this.userLocale = userLocale;
+            this.portalLocale = portalLocale;
+        }
+
+        //
+        String id = node.context.getId();
+        if (!descriptions.containsKey(id)) {
+            UserNode root = node;
+            for (UserNode parent = root.getParent(); parent != null; parent = parent.getParent()) {
+                root = parent;
+            }
+            List<String> ids = new ArrayList<String>();
+            collect(root, ids);
+            if (!descriptions.containsKey(id) && !ids.contains(id)) {
+                ids.add(id);
+            }
+            DescriptionService descriptionService = navigation.portal.service.getDescriptionService();
+            descriptions.putAll(descriptionService.resolveDescriptions(ids, userLocale, portalLocale));
+        }
+        return descriptions.get(id);
+    }
+
+    void invalidateDescription(UserNode node) {
+        if (descriptions != null) {
+            descriptions.remove(node.context.getId());
+        }
+    }
+
+    private void collect(UserNode node, List<String> ids) {
+        String id = node.context.getId();
+        if (id != null && node.context.getState().getLabel() == null && !descriptions.containsKey(id)) {
+            ids.add(id);
+        }
+        for (UserNode child : node.getChildren()) {
+            collect(child, ids);
+        }
+    }
 }
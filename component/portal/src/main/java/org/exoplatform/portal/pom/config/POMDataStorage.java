@@ -20,6 +20,8 @@
 package org.exoplatform.portal.pom.config;
 
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
@@ -176,6 +178,22 @@ public class POMDataStorage implements ModelDataStorage {
         }
     }
 
+    public <S> void preload(String pageId, Collection<ApplicationState<S>> states, ApplicationType<S> type)
+            throws Exception {
+        List<String> storageIds = new ArrayList<String>(states.size());
+        for (ApplicationState<S> state : states) {
+            if (state instanceof PersistentApplicationState) {
+                storageIds.add(((PersistentApplicationState<S>) state).getStorageId());
+            } else if (state instanceof CloneApplicationState) {
+                storageIds.add(((CloneApplicationState<S>) state).getStorageId());
+            }
+        }
+        if (storageIds.size() > 0) {
+            Class<S> clazz = type.getContentType().getStateClass();
+            pomMgr.execute(new PreferencesTask.LoadAll<S>(pageId, storageIds, clazz));
+        }
+    }
+
     public <S> ApplicationState<S> save(ApplicationState<S> state, S preferences) throws Exception {
         if (state instanceof TransientApplicationState) {
             throw new AssertionError("Does not make sense");
@@ -26,6 +26,11 @@ import org.exoplatform.commons.chromattic.ChromatticLifeCycle;
 import org.exoplatform.commons.chromattic.ChromatticManager;
 import org.exoplatform.commons.chromattic.SessionContext;
 import org.exoplatform.commons.scope.ScopedKey;
+import org.exoplatform.management.annotations.Managed;
+import org.exoplatform.management.annotations.ManagedDescription;
+import org.exoplatform.management.jmx.annotations.NameTemplate;
+import org.exoplatform.management.jmx.annotations.Property;
+import org.exoplatform.management.rest.annotations.RESTEndpoint;
 import org.exoplatform.portal.pom.config.cache.DataCache;
 import org.exoplatform.portal.pom.config.cache.PortalNamesCache;
 import org.exoplatform.portal.pom.data.OwnerKey;
@@ -44,6 +49,10 @@ import org.picocontainer.Startable;
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  * @version $Revision$
  */
+@Managed
+@ManagedDescription("The portal object model session manager")
+@NameTemplate({ @Property(key = "view", value = "portal"), @Property(key = "service", value = "pomsessionmanager") })
+@RESTEndpoint(path = "pomsessionmanager")
 public class POMSessionManager implements Startable {
 
     /** . */
@@ -64,6 +73,9 @@ public class POMSessionManager implements Startable {
     /** . */
     private final TaskExecutionDecorator executor;
 
+    /** . */
+    private final DataCache dataCache;
+
     /** . */
     private final RepositoryService repositoryService;
 
@@ -73,7 +85,8 @@ public class POMSessionManager implements Startable {
         this.manager = manager;
         this.cache = cacheService.getCacheInstance("MOPSessionManager");
         this.pomService = null;
-        this.executor = new PortalNamesCache(new DataCache(new ExecutorDispatcher()));
+        this.dataCache = new DataCache(new ExecutorDispatcher());
+        this.executor = new PortalNamesCache(dataCache);
     }
 
     public ChromatticLifeCycle getLifeCycle() {
@@ -110,6 +123,9 @@ public class POMSessionManager implements Startable {
     public void cacheRemove(Serializable key) {
         final ScopedKey<?> globalKey = ScopedKey.create(key);
 
+        // Prevent the values being loaded for this key from being cached as they may be stale
+        dataCache.evicted(key);
+
         //
         if (log.isTraceEnabled()) {
             log.trace("Removing cache key=" + globalKey);
@@ -175,10 +191,31 @@ public class POMSessionManager implements Startable {
             log.trace("Clearing cache");
         }
 
+        //
+        dataCache.cleared();
+
         //
         cache.clearCache();
     }
 
+    @Managed
+    @ManagedDescription("The number of reads served by the cache")
+    public long getCacheHitCount() {
+        return dataCache.getHitCount();
+    }
+
+    @Managed
+    @ManagedDescription("The number of reads that loaded the data from the storage")
+    public long getCacheMissCount() {
+        return dataCache.getReadCount();
+    }
+
+    @Managed
+    @ManagedDescription("The number of reads that waited for the same data loaded by another request")
+    public long getCacheCoalescedCount() {
+        return dataCache.getCoalescedCount();
+    }
+
     public MOPService getPOMService() {
         return pomService;
     }
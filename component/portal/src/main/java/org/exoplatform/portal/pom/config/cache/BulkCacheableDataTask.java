@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.portal.pom.config.cache;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+import org.exoplatform.portal.pom.config.POMSession;
+import org.exoplatform.portal.pom.config.POMTask;
+
+/**
+ * A read task loading several values at once, the {@link DataCache} only loads the values of the keys that are not in the
+ * cache and puts them in the cache.
+ *
+ * @version $Revision$
+ */
+public interface BulkCacheableDataTask<K extends Serializable, V> extends POMTask<Map<K, V>> {
+
+    Class<V> getValueType();
+
+    Collection<K> getKeys();
+
+    /**
+     * Loads the values of the specified keys in a single pass, a key without value is mapped to null.
+     *
+     * @param session the session
+     * @param keys the keys
+     * @return the values
+     */
+    Map<K, V> run(POMSession session, Collection<K> keys);
+
+}
@@ -19,13 +19,23 @@
 package org.exoplatform.portal.pom.config.cache;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.exoplatform.commons.scope.ScopedKey;
 import org.exoplatform.container.ExoContainer;
 import org.exoplatform.portal.pom.config.POMSession;
 import org.exoplatform.portal.pom.config.POMTask;
 import org.exoplatform.portal.pom.config.TaskExecutionDecorator;
 import org.exoplatform.portal.pom.config.TaskExecutor;
+import org.exoplatform.portal.pom.data.OwnerKey;
+import org.exoplatform.portal.pom.data.PortalKey;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
 
@@ -41,6 +51,15 @@ public class DataCache extends TaskExecutionDecorator {
     /** . */
     private final AtomicLong readCount = new AtomicLong();
 
+    /** . */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** The number of reads that waited for the value loaded by another thread. */
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /** The keys being loaded, scoped like the keys of the cache. */
+    private final ConcurrentMap<ScopedKey<?>, Loading> loadings = new ConcurrentHashMap<ScopedKey<?>, Loading>();
+
     /** . */
     private boolean cluster = ExoContainer.getProfiles().contains("cluster");
 
@@ -63,6 +82,9 @@ public class DataCache extends TaskExecutionDecorator {
                 default:
                     throw new UnsupportedOperationException();
             }
+        } else if (task instanceof BulkCacheableDataTask) {
+            BulkCacheableDataTask<?, ?> bulkTask = (BulkCacheableDataTask<?, ?>) task;
+            return (V) readAll(session, bulkTask);
         } else {
             return super.execute(session, task);
         }
@@ -108,6 +130,7 @@ public class DataCache extends TaskExecutionDecorator {
             V v = null;
             if (o != null) {
                 if (o == NullObject.get()) {
+                    hitCount.incrementAndGet();
                     if (log.isTraceEnabled()) {
                         log.trace("Returning null as found null object marker");
                     }
@@ -124,53 +147,256 @@ public class DataCache extends TaskExecutionDecorator {
 
             //
             if (v != null) {
+                hitCount.incrementAndGet();
                 if (log.isTraceEnabled()) {
                     log.trace("Returning object " + v + " for key " + key);
                 }
                 return v;
             } else {
-                readCount.incrementAndGet();
+                return load(session, task);
+            }
+        } else {
+            if (log.isTraceEnabled()) {
+                log.trace("Session was modified, object for key " + key + " is directly retrieved");
+            }
 
-                //
-                if (log.isTraceEnabled()) {
-                    log.trace("Object not found in cache for key " + key + " about to retrieve it");
+            //
+            return super.execute(session, task);
+        }
+    }
+
+    private <K extends Serializable, V> Map<K, V> readAll(POMSession session, final BulkCacheableDataTask<K, V> task)
+            throws Exception {
+        if (session.isModified()) {
+            if (log.isTraceEnabled()) {
+                log.trace("Session was modified, objects for keys " + task.getKeys() + " are directly retrieved");
+            }
+            return super.execute(session, task);
+        }
+
+        //
+        Map<K, V> values = new HashMap<K, V>();
+        final List<K> missing = new ArrayList<K>();
+        Class<V> type = task.getValueType();
+        for (K key : task.getKeys()) {
+            Object o = session.getFromCache(key);
+            if (o == NullObject.get()) {
+                hitCount.incrementAndGet();
+                values.put(key, null);
+            } else if (type.isInstance(o)) {
+                hitCount.incrementAndGet();
+                values.put(key, type.cast(o));
+            } else {
+                if (o != null) {
+                    log.error("Object " + o + " was not of the expected type " + type);
                 }
+                missing.add(key);
+            }
+        }
 
-                //
-                v = super.execute(session, task);
-                if (log.isTraceEnabled()) {
-                    log.trace("Retrieved object " + v + " key " + key + " that will be returned");
+        //
+        if (missing.size() > 0) {
+            readCount.incrementAndGet();
+
+            //
+            if (log.isTraceEnabled()) {
+                log.trace("Objects not found in cache for keys " + missing + " about to retrieve them");
+            }
+
+            // The keys loaded by another thread are loaded again but only that thread caches them
+            Map<K, Loading> claimed = new HashMap<K, Loading>();
+            for (K key : missing) {
+                Loading loading = new Loading();
+                if (loadings.putIfAbsent(ScopedKey.create(key), loading) == null) {
+                    claimed.put(key, loading);
                 }
+            }
 
-                //
+            //
+            try {
+                Map<K, V> loaded = super.execute(session, new POMTask<Map<K, V>>() {
+                    public Map<K, V> run(POMSession session) {
+                        return task.run(session, missing);
+                    }
+
+                    @Override
+                    public String toString() {
+                        return task.toString();
+                    }
+                });
                 if (!session.isModified()) {
-                    if (v == null) {
-                        if (log.isTraceEnabled()) {
-                            log.trace("Updating cache with null object for key " + key);
-                        }
-                        session.putInCache(key, NullObject.get());
-                    } else {
+                    for (Map.Entry<K, Loading> entry : claimed.entrySet()) {
+                        V v = loaded.get(entry.getKey());
+                        entry.getValue().complete(session, entry.getKey(), v == null ? NullObject.get() : v);
+                    }
+                }
+                values.putAll(loaded);
+            } finally {
+                for (Map.Entry<K, Loading> entry : claimed.entrySet()) {
+                    Loading loading = entry.getValue();
+                    loadings.remove(ScopedKey.create(entry.getKey()), loading);
+                    loading.latch.countDown();
+                }
+            }
+        }
+
+        //
+        return values;
+    }
+
+    /**
+     * Loads the value of a key that is not in the cache. A single thread loads a given key at a time, the threads asking
+     * for the same key meanwhile wait and share the loaded value. The value is not shared when a key was evicted during the
+     * load since it may be stale, the waiting threads then load it on their own.
+     */
+    private <K extends Serializable, V> V load(POMSession session, CacheableDataTask<K, V> task) throws Exception {
+        K key = task.getKey();
+        ScopedKey<K> scopedKey = ScopedKey.create(key);
+        Loading loading = new Loading();
+        Loading current = loadings.putIfAbsent(scopedKey, loading);
+
+        //
+        if (current != null) {
+            if (current.thread != Thread.currentThread()) {
+                try {
+                    current.latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                if (current.shared) {
+                    coalescedCount.incrementAndGet();
+                    Object o = current.value;
+                    if (o == NullObject.get()) {
+                        return null;
+                    }
+                    Class<V> type = task.getValueType();
+                    if (type.isInstance(o)) {
                         if (log.isTraceEnabled()) {
-                            log.trace("Updating cache with object " + v + " for key " + key);
+                            log.trace("Returning object " + o + " for key " + key + " loaded by another thread");
                         }
-                        session.putInCache(key, v);
+                        return type.cast(o);
                     }
                 }
+            }
 
-                //
-                return v;
+            // Reentrant load or the value could not be shared
+            return super.execute(session, task);
+        }
+
+        //
+        try {
+            readCount.incrementAndGet();
+
+            //
+            if (log.isTraceEnabled()) {
+                log.trace("Object not found in cache for key " + key + " about to retrieve it");
             }
-        } else {
+
+            //
+            V v = super.execute(session, task);
             if (log.isTraceEnabled()) {
-                log.trace("Session was modified, object for key " + key + " is directly retrieved");
+                log.trace("Retrieved object " + v + " key " + key + " that will be returned");
             }
 
             //
-            return super.execute(session, task);
+            if (!session.isModified()) {
+                Object o = v == null ? NullObject.get() : v;
+                if (log.isTraceEnabled()) {
+                    log.trace("Updating cache with object " + o + " for key " + key);
+                }
+                loading.complete(session, key, o);
+            }
+
+            //
+            return v;
+        } finally {
+            loadings.remove(scopedKey, loading);
+            loading.latch.countDown();
+        }
+    }
+
+    /**
+     * Signals that the cached object of a key was evicted, the value being loaded for this key at this time is neither
+     * cached nor shared. Evicting a portal key also concerns the objects owned by the portal.
+     *
+     * @param key the evicted key
+     */
+    public void evicted(Serializable key) {
+        ScopedKey<?> scopedKey = ScopedKey.create(key);
+        if (key instanceof PortalKey) {
+            PortalKey portalKey = (PortalKey) key;
+            for (Map.Entry<ScopedKey<?>, Loading> entry : loadings.entrySet()) {
+                ScopedKey<?> loadingKey = entry.getKey();
+                if (scopedKey.getScope().equals(loadingKey.getScope()) && loadingKey.getKey() instanceof OwnerKey) {
+                    OwnerKey ownerKey = (OwnerKey) loadingKey.getKey();
+                    if (ownerKey.getType().equals(portalKey.getType()) && ownerKey.getId().equals(portalKey.getId())) {
+                        entry.getValue().evict();
+                    }
+                }
+            }
+        } else {
+            Loading loading = loadings.get(scopedKey);
+            if (loading != null) {
+                loading.evict();
+            }
+        }
+    }
+
+    /**
+     * Signals that the whole cache was cleared, none of the values being loaded at this time is cached or shared.
+     */
+    public void cleared() {
+        for (Loading loading : loadings.values()) {
+            loading.evict();
         }
     }
 
     public long getReadCount() {
         return readCount.longValue();
     }
+
+    public long getHitCount() {
+        return hitCount.longValue();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.longValue();
+    }
+
+    /**
+     * A value being loaded by a thread.
+     */
+    private static class Loading {
+
+        /** . */
+        private final Thread thread = Thread.currentThread();
+
+        /** . */
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        /** . */
+        private volatile Object value;
+
+        /** . */
+        private volatile boolean shared;
+
+        /** . */
+        private boolean evicted;
+
+        /**
+         * Caches and shares the loaded value unless the key was evicted meanwhile.
+         */
+        private synchronized void complete(POMSession session, Serializable key, Object value) {
+            if (!evicted) {
+                session.putInCache(key, value);
+                this.value = value;
+                this.shared = true;
+            }
+        }
+
+        private synchronized void evict() {
+            evicted = true;
+        }
+    }
 }
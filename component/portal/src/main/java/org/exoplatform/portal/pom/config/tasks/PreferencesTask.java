@@ -19,12 +19,24 @@
 
 package org.exoplatform.portal.pom.config.tasks;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.exoplatform.portal.config.NoSuchDataException;
 import org.exoplatform.portal.pom.config.POMSession;
 import org.exoplatform.portal.pom.config.POMTask;
+import org.exoplatform.portal.pom.config.cache.BulkCacheableDataTask;
 import org.exoplatform.portal.pom.config.cache.CacheableDataTask;
 import org.exoplatform.portal.pom.config.cache.DataAccessMode;
 import org.gatein.mop.api.content.Customization;
+import org.gatein.mop.api.workspace.ObjectType;
+import org.gatein.mop.api.workspace.Page;
+import org.gatein.mop.api.workspace.ui.UIComponent;
+import org.gatein.mop.api.workspace.ui.UIContainer;
+import org.gatein.mop.api.workspace.ui.UIWindow;
 
 /**
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
@@ -90,6 +102,79 @@ public abstract class PreferencesTask<S> {
         }
     }
 
+    public static class LoadAll<S> extends PreferencesTask<S> implements BulkCacheableDataTask<String, S> {
+
+        /** . */
+        private final String pageId;
+
+        /** . */
+        private final Collection<String> storageIds;
+
+        /** . */
+        private final Class<S> valueType;
+
+        public LoadAll(String pageId, Collection<String> storageIds, Class<S> valueType) {
+            this.pageId = pageId;
+            this.storageIds = storageIds;
+            this.valueType = valueType;
+        }
+
+        public Class<S> getValueType() {
+            return valueType;
+        }
+
+        public Collection<String> getKeys() {
+            return storageIds;
+        }
+
+        public Map<String, S> run(POMSession session) {
+            return run(session, storageIds);
+        }
+
+        public Map<String, S> run(POMSession session, Collection<String> keys) {
+            Map<String, S> prefs = new HashMap<String, S>();
+
+            // The windows are reached by traversing the page once instead of looking up each customization by id
+            Page page = session.findObjectById(ObjectType.PAGE, pageId);
+            if (page != null) {
+                collect(page.getRootComponent(), new HashSet<String>(keys), prefs);
+            }
+
+            // The clone states point to customizations outside of the page, a state pointing to a customization that
+            // does not exist anymore has no preferences so the other windows are still loaded
+            for (String storageId : keys) {
+                if (!prefs.containsKey(storageId)) {
+                    Customization<S> customization;
+                    try {
+                        customization = (Customization<S>) session.findCustomizationById(storageId);
+                    } catch (NoSuchDataException e) {
+                        customization = null;
+                    }
+                    prefs.put(storageId, customization != null ? customization.getVirtualState() : null);
+                }
+            }
+            return prefs;
+        }
+
+        private void collect(UIContainer container, Set<String> storageIds, Map<String, S> prefs) {
+            for (UIComponent component : container.getComponents()) {
+                if (component instanceof UIContainer) {
+                    collect((UIContainer) component, storageIds, prefs);
+                } else if (component instanceof UIWindow) {
+                    Customization<S> customization = (Customization<S>) ((UIWindow) component).getCustomization();
+                    if (customization != null && storageIds.contains(customization.getId())) {
+                        prefs.put(customization.getId(), customization.getVirtualState());
+                    }
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "PreferencesTask.LoadAll[page=" + pageId + ",ids=" + storageIds + "]";
+        }
+    }
+
     public static class Save<S> extends PreferencesTask<S> implements CacheableDataTask<String, Void> {
 
         /** . */
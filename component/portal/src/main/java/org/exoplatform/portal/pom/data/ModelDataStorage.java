@@ -19,6 +19,7 @@
 
 package org.exoplatform.portal.pom.data;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 
@@ -61,6 +62,8 @@ public interface ModelDataStorage {
 
     <S> S load(ApplicationState<S> state, ApplicationType<S> type) throws Exception;
 
+    <S> void preload(String pageId, Collection<ApplicationState<S>> states, ApplicationType<S> type) throws Exception;
+
     <S> ApplicationState<S> save(ApplicationState<S> state, S preferences) throws Exception;
 
     <T> LazyPageList<T> find(Query<T> q) throws Exception;
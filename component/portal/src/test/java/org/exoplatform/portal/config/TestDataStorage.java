@@ -30,6 +30,7 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import junit.framework.AssertionFailedError;
 
+import org.chromattic.api.event.LifeCycleListener;
 import org.exoplatform.container.PortalContainer;
 import org.exoplatform.portal.config.model.Application;
 import org.exoplatform.portal.config.model.ApplicationState;
@@ -56,6 +57,7 @@ import org.exoplatform.portal.mop.page.PageKey;
 import org.exoplatform.portal.mop.page.PageService;
 import org.exoplatform.portal.pom.config.POMSessionManager;
 import org.exoplatform.portal.pom.data.ModelChange;
+import org.exoplatform.portal.pom.data.PageData;
 import org.exoplatform.portal.pom.spi.gadget.Gadget;
 import org.exoplatform.portal.pom.spi.portlet.Portlet;
 import org.exoplatform.portal.pom.spi.portlet.PortletBuilder;
@@ -69,6 +71,7 @@ import org.exoplatform.services.organization.OrganizationService;
 import org.exoplatform.services.organization.User;
 import org.exoplatform.services.organization.UserHandler;
 import org.gatein.common.transaction.JTAUserTransactionLifecycleService;
+import org.gatein.mop.api.content.Customization;
 
 /**
  * Created by The eXo Platform SARL Author : Tung Pham thanhtungty@gmail.com Nov 13, 2007
@@ -275,6 +278,25 @@ public class TestDataStorage extends AbstractConfigTest {
         assertEquals("Theme2", app.getTheme());
     }
 
+    public void testGetPageData() throws Exception {
+        PageData data = storage_.getPageData("portal::test::test4");
+        assertNotNull(data);
+        assertEquals("portal", data.getOwnerType());
+        assertEquals("test", data.getOwnerId());
+        assertEquals("test4", data.getName());
+        assertNull(storage_.getPageData("portal::test::doesnotexist"));
+
+        // A page is a private copy of the shared data
+        Page page = new Page(data);
+        int size = data.getChildren().size();
+        assertEquals(size, page.getChildren().size());
+        page.getChildren().remove(0);
+        page.setTitle("modified");
+        assertEquals(size, data.getChildren().size());
+        assertFalse("modified".equals(data.getTitle()));
+        assertEquals(size, storage_.getPageData("portal::test::test4").getChildren().size());
+    }
+
     public void testPageRemove() throws Exception {
         Page page = storage_.getPage("portal::test::test1");
         assertNotNull(page);
@@ -455,6 +477,142 @@ public class TestDataStorage extends AbstractConfigTest {
         assertEquals("web/BannerPortlet", storage_.getId(app.getState()));
     }
 
+    public void testPreloadPreferences() throws Exception {
+        Page page = new Page();
+        page.setPageId("portal::test::preload");
+        for (int i = 0; i < 20; i++) {
+            TransientApplicationState<Portlet> state = new TransientApplicationState<Portlet>("web/BannerPortlet",
+                    new PortletBuilder().add("template", "template" + i).build());
+            Application<Portlet> app = Application.createPortletApplication();
+            app.setState(state);
+            page.getChildren().add(app);
+        }
+        pageService.savePage(new PageContext(page.getPageKey(), null));
+        storage_.save(page);
+        end(true);
+
+        //
+        begin();
+        page = storage_.getPage(page.getPageId());
+        String pageId = page.getStorageId();
+        List<ApplicationState<Portlet>> states = new ArrayList<ApplicationState<Portlet>>();
+        for (ModelObject child : page.getChildren()) {
+            states.add(((Application<Portlet>) child).getState());
+        }
+        assertEquals(20, states.size());
+        end(true);
+
+        // Without preload each window reads its own nodes
+        begin();
+        mgr.clearCache();
+        NodeReadCounter reads = countNodeReads();
+        for (ApplicationState<Portlet> state : states) {
+            storage_.load(state, ApplicationType.PORTLET);
+        }
+        assertTrue(reads.count >= states.size());
+        end(true);
+
+        // The preferences of all the windows are read in a single traversal of the page
+        begin();
+        mgr.clearCache();
+        reads = countNodeReads();
+        storage_.preload(pageId, states, ApplicationType.PORTLET);
+        assertEquals(states.size(), reads.customizations);
+
+        // Then each window finds its preferences in the cache without reading any node
+        reads.count = 0;
+        for (int i = 0; i < states.size(); i++) {
+            Portlet prefs = storage_.load(states.get(i), ApplicationType.PORTLET);
+            assertEquals(new PortletBuilder().add("template", "template" + i).build(), prefs);
+        }
+        assertEquals(0, reads.count);
+
+        // Nothing is read when everything is cached already
+        storage_.preload(pageId, states, ApplicationType.PORTLET);
+        assertEquals(0, reads.count);
+
+        //
+        pageService.destroyPage(page.getPageKey());
+        end(true);
+        begin();
+    }
+
+    public void testPreloadDanglingPreferences() throws Exception {
+        Page page = new Page();
+        page.setPageId("portal::test::preload_dangling");
+        for (int i = 0; i < 2; i++) {
+            TransientApplicationState<Portlet> state = new TransientApplicationState<Portlet>("web/BannerPortlet",
+                    new PortletBuilder().add("template", "template" + i).build());
+            Application<Portlet> app = Application.createPortletApplication();
+            app.setState(state);
+            page.getChildren().add(app);
+        }
+        pageService.savePage(new PageContext(page.getPageKey(), null));
+        storage_.save(page);
+        end(true);
+
+        //
+        begin();
+        page = storage_.getPage(page.getPageId());
+        String pageId = page.getStorageId();
+        List<ApplicationState<Portlet>> states = new ArrayList<ApplicationState<Portlet>>();
+        for (ModelObject child : page.getChildren()) {
+            states.add(((Application<Portlet>) child).getState());
+        }
+
+        // The state of the removed window points to a customization that does not exist anymore
+        page.getChildren().remove(0);
+        storage_.save(page);
+        end(true);
+
+        // The dangling state has no preferences and the other window still gets its own
+        begin();
+        mgr.clearCache();
+        storage_.preload(pageId, states, ApplicationType.PORTLET);
+        assertEquals(null, storage_.load(states.get(0), ApplicationType.PORTLET));
+        assertEquals(new PortletBuilder().add("template", "template1").build(),
+                storage_.load(states.get(1), ApplicationType.PORTLET));
+
+        //
+        pageService.destroyPage(page.getPageKey());
+        end(true);
+        begin();
+    }
+
+    private NodeReadCounter countNodeReads() {
+        NodeReadCounter counter = new NodeReadCounter();
+        mgr.getPOMService().getModel().getSession().addEventListener(counter);
+        return counter;
+    }
+
+    /**
+     * Counts the nodes read by the current session.
+     */
+    private static class NodeReadCounter implements LifeCycleListener {
+
+        /** . */
+        private int count;
+
+        /** . */
+        private int customizations;
+
+        public void created(Object o) {
+        }
+
+        public void loaded(String id, String path, String name, Object o) {
+            count++;
+            if (o instanceof Customization<?>) {
+                customizations++;
+            }
+        }
+
+        public void added(String id, String path, String name, Object o) {
+        }
+
+        public void removed(String id, String path, String name, Object o) {
+        }
+    }
+
     public void testPageMerge() throws Exception {
         Page page = storage_.getPage("portal::test::test4");
 
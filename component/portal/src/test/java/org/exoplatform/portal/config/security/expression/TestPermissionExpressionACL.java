@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.config.security.expression;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.exoplatform.component.test.AbstractGateInTest;
+import org.exoplatform.portal.config.UserACL;
+import org.exoplatform.portal.config.UserACLMetaData;
+import org.exoplatform.services.security.ConversationState;
+import org.exoplatform.services.security.Identity;
+import org.exoplatform.services.security.MembershipEntry;
+
+/**
+ * @version $Revision$
+ */
+public class TestPermissionExpressionACL extends AbstractGateInTest {
+
+    /** . */
+    private UserACL ua;
+
+    /** . */
+    private Identity identity;
+
+    @Override
+    protected void setUp() throws Exception {
+        UserACLMetaData md = new UserACLMetaData();
+        md.setSuperUser("root");
+        md.setGuestsGroups("/platform/guests");
+        ua = new UserACL(md);
+        Collection<String> roles = Collections.emptySet();
+        Set<MembershipEntry> memberships = new HashSet<MembershipEntry>();
+        memberships.add(new MembershipEntry("/platform/users", "member"));
+        memberships.add(new MembershipEntry("/organization", "*"));
+        identity = new Identity("user", memberships, roles);
+        ConversationState.setCurrent(new ConversationState(identity));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        ConversationState.setCurrent(null);
+    }
+
+    public void testExpressions() {
+        for (int i = 0; i < 2; i++) {
+            assertTrue(ua.hasPermission("*:/platform/users"));
+            assertTrue(ua.hasPermission("member:/platform/users"));
+            assertFalse(ua.hasPermission("manager:/platform/users"));
+            assertTrue(ua.hasPermission("manager:/organization"));
+            assertFalse(ua.hasPermission("*:/platform/administrators"));
+            assertFalse(ua.hasPermission("*:/platform/guests"));
+            assertTrue(ua.hasPermission(UserACL.EVERYONE));
+            assertFalse(ua.hasPermission("malformed"));
+            assertFalse(ua.hasPermission((String) null));
+        }
+    }
+
+    public void testMembershipChange() {
+        assertFalse(ua.hasPermission("*:/platform/administrators"));
+        identity.getMemberships().add(new MembershipEntry("/platform/administrators", "member"));
+        assertTrue(ua.hasPermission("*:/platform/administrators"));
+    }
+
+    public void testOtherIdentity() {
+        Collection<String> roles = Collections.emptySet();
+        Set<MembershipEntry> memberships = Collections.singleton(new MembershipEntry("/platform/administrators", "member"));
+        Identity other = new Identity("other", memberships, roles);
+        assertTrue(ua.hasPermission(other, "*:/platform/administrators"));
+        assertFalse(ua.hasPermission("*:/platform/administrators"));
+    }
+}
@@ -19,8 +19,11 @@
 
 package org.exoplatform.portal.mop.description;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -30,8 +33,10 @@ import org.exoplatform.component.test.ContainerScope;
 import org.exoplatform.container.PortalContainer;
 import org.exoplatform.portal.AbstractPortalTest;
 import org.exoplatform.portal.mop.Described;
+import org.exoplatform.portal.mop.i18n.I18NAdapter;
 import org.exoplatform.portal.mop.i18n.I18Nized;
 import org.exoplatform.portal.mop.navigation.NavigationServiceImpl;
+import org.exoplatform.portal.pom.config.POMSession;
 import org.exoplatform.portal.pom.config.POMSessionManager;
 import org.gatein.common.util.Tools;
 import org.gatein.mop.api.workspace.Navigation;
@@ -148,6 +153,112 @@ public class TestDescriptionService extends AbstractPortalTest {
         assertEquals(new Described.State("name_en_GB", null), svc.resolveDescription(id, null, Locale.UK));
     }
 
+    public void testResolveDescriptions() throws Exception {
+        DescriptionService svc = new DescriptionServiceImpl(mgr);
+        MOPService mop = mgr.getPOMService();
+        Site portal = mop.getModel().getWorkspace().addSite(ObjectType.PORTAL_SITE, "foo");
+        Navigation nav = portal.getRootNavigation().addChild("default");
+        Navigation a = nav.addChild("a");
+        I18Nized i18nized = a.adapt(I18Nized.class);
+        i18nized.getMixin(Described.class, Locale.ENGLISH, true).setName("a_en");
+        i18nized.getMixin(Described.class, Locale.FRENCH, true).setName("a_fr");
+        Navigation b = nav.addChild("b");
+        b.adapt(I18Nized.class).getMixin(Described.class, Locale.FRENCH, true).setName("b_fr");
+        Navigation c = nav.addChild("c");
+        List<String> ids = Arrays.asList(a.getObjectId(), b.getObjectId(), c.getObjectId());
+
+        //
+        Map<String, Described.State> descriptions = svc.resolveDescriptions(ids, Locale.US, null, Locale.FRENCH);
+        assertEquals(3, descriptions.size());
+        assertEquals(new Described.State("a_en", null), descriptions.get(a.getObjectId()));
+        assertEquals(new Described.State("b_fr", null), descriptions.get(b.getObjectId()));
+        assertTrue(descriptions.containsKey(c.getObjectId()));
+        assertEquals(null, descriptions.get(c.getObjectId()));
+
+        //
+        descriptions = svc.resolveDescriptions(ids, Locale.GERMAN);
+        assertEquals(3, descriptions.size());
+        assertEquals(null, descriptions.get(a.getObjectId()));
+
+        // The absence of description is invalidated when a description is added
+        svc.setDescription(c.getObjectId(), Locale.GERMAN, new Described.State("c_de", null));
+        assertEquals(new Described.State("c_de", null), svc.resolveDescription(c.getObjectId(), Locale.GERMAN));
+        svc.setDescriptions(b.getObjectId(), Collections.singletonMap(Locale.GERMAN, new Described.State("b_de", null)));
+        assertEquals(new Described.State("b_de", null), svc.resolveDescription(b.getObjectId(), Locale.GERMAN));
+
+        //
+        try {
+            svc.resolveDescriptions(ids, null, Locale.FRENCH);
+            fail();
+        } catch (NullPointerException e) {
+        }
+        try {
+            svc.resolveDescriptions(Arrays.asList(a.getObjectId(), null), Locale.FRENCH);
+            fail();
+        } catch (NullPointerException e) {
+        }
+    }
+
+    public void testResolveDescriptionsAccesses() throws Exception {
+        final int[] accesses = new int[1];
+        DescriptionService svc = new DescriptionServiceImpl(mgr, new SimpleDataCache() {
+            @Override
+            protected I18NAdapter getAdapter(POMSession session, String id) {
+                accesses[0]++;
+                return super.getAdapter(session, id);
+            }
+        });
+        MOPService mop = mgr.getPOMService();
+        Site portal = mop.getModel().getWorkspace().addSite(ObjectType.PORTAL_SITE, "foo");
+        Navigation nav = portal.getRootNavigation().addChild("default");
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 20; i++) {
+            Navigation child = nav.addChild("child" + i);
+            ids.add(child.getObjectId());
+            for (int j = 0; j < 20; j++) {
+                Navigation grandChild = child.addChild("grand_child" + j);
+                ids.add(grandChild.getObjectId());
+                if (j % 2 == 0) {
+                    I18Nized i18nized = grandChild.adapt(I18Nized.class);
+                    i18nized.getMixin(Described.class, Locale.FRENCH, true).setName("name_fr_" + j);
+                }
+            }
+        }
+
+        // Each locale is looked up once per object
+        Map<String, Described.State> descriptions = svc.resolveDescriptions(ids, Locale.GERMAN, Locale.FRENCH);
+        assertEquals(ids.size(), descriptions.size());
+        assertEquals(ids.size() * 2, accesses[0]);
+        assertEquals(new Described.State("name_fr_0", null), descriptions.get(ids.get(1)));
+        assertEquals(null, descriptions.get(ids.get(2)));
+
+        // The resolved descriptions and the missing ones are cached
+        accesses[0] = 0;
+        assertEquals(descriptions, svc.resolveDescriptions(ids, Locale.GERMAN, Locale.FRENCH));
+        for (String id : ids) {
+            assertEquals(descriptions.get(id), svc.resolveDescription(id, Locale.FRENCH, Locale.GERMAN));
+        }
+        assertEquals(0, accesses[0]);
+    }
+
+    public void testResolveDescriptionsParentLocale() throws Exception {
+        DescriptionService svc = new DescriptionServiceImpl(mgr);
+        MOPService mop = mgr.getPOMService();
+        Site portal = mop.getModel().getWorkspace().addSite(ObjectType.PORTAL_SITE, "foo");
+        Navigation nav = portal.getRootNavigation().addChild("default");
+        String id = nav.getObjectId();
+
+        //
+        assertEquals(null, svc.resolveDescriptions(Collections.singletonList(id), Locale.US).get(id));
+        assertEquals(null, svc.resolveDescription(id, Locale.US));
+
+        // The description set for the parent locale is resolved for the child locale
+        svc.setDescription(id, Locale.ENGLISH, new Described.State("name_en", null));
+        assertEquals(new Described.State("name_en", null), svc.resolveDescription(id, Locale.US));
+        assertEquals(new Described.State("name_en", null), svc.resolveDescriptions(Collections.singletonList(id), Locale.US)
+                .get(id));
+    }
+
     public void testGetDefaultDescription() throws Exception {
         DescriptionService svc = new DescriptionServiceImpl(mgr);
         MOPService mop = mgr.getPOMService();
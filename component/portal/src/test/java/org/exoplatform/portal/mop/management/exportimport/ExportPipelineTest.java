@@ -0,0 +1,166 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.mop.management.exportimport;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.commons.chromattic.ChromatticManager;
+import org.gatein.management.api.operation.model.ExportTask;
+
+/**
+ * @version $Revision$
+ */
+public class ExportPipelineTest extends TestCase {
+    private ChromatticManager manager;
+    private ExportPipeline pipeline;
+
+    @Override
+    protected void setUp() throws Exception {
+        manager = mock(ChromatticManager.class);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    public void testDisabled() throws Exception {
+        pipeline = new ExportPipeline(null, manager, 1);
+        pipeline.start();
+
+        MockExportTask task = new MockExportTask("a");
+        assertSame(task, pipeline.prefetch(task));
+        assertFalse(pipeline.isChaining());
+    }
+
+    public void testPrefetch() throws Exception {
+        pipeline = new ExportPipeline(null, manager, 2);
+        pipeline.start();
+
+        MockExportTask a = new MockExportTask("a");
+        MockExportTask b = new MockExportTask("b");
+        MockExportTask c = new MockExportTask("c");
+        ExportTask[] tasks = { pipeline.prefetch(a), pipeline.prefetch(b), pipeline.prefetch(c) };
+        assertTrue(pipeline.isChaining());
+        assertEquals("b", tasks[1].getEntry());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (ExportTask task : tasks) {
+            task.export(out);
+            assertFalse(pipeline.isChaining());
+        }
+        assertEquals("abc", out.toString("UTF-8"));
+
+        // The first entry is written directly, the next ones are exported by the workers with their own session
+        assertSame(Thread.currentThread(), a.thread);
+        assertTrue(b.thread.getName().startsWith("MopExport-"));
+        assertTrue(c.thread.getName().startsWith("MopExport-"));
+        verify(manager, times(2)).beginRequest();
+        verify(manager, times(2)).endRequest(false);
+    }
+
+    public void testNewChainOnceWritten() throws Exception {
+        pipeline = new ExportPipeline(null, manager, 2);
+        pipeline.start();
+
+        ExportTask first = pipeline.prefetch(new MockExportTask("a"));
+        first.export(new ByteArrayOutputStream());
+        assertFalse(pipeline.isChaining());
+
+        MockExportTask b = new MockExportTask("b");
+        ExportTask second = pipeline.prefetch(b);
+        assertTrue(pipeline.isChaining());
+        second.export(new ByteArrayOutputStream());
+        assertSame(Thread.currentThread(), b.thread);
+        verify(manager, never()).beginRequest();
+    }
+
+    public void testStop() throws Exception {
+        pipeline = new ExportPipeline(null, manager, 2);
+        pipeline.start();
+
+        MockExportTask a = new MockExportTask("a");
+        MockExportTask b = new MockExportTask("b");
+        ExportTask[] tasks = { pipeline.prefetch(a), pipeline.prefetch(b) };
+        pipeline.stop();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (ExportTask task : tasks) {
+            task.export(out);
+        }
+        assertEquals("ab", out.toString("UTF-8"));
+        assertSame(Thread.currentThread(), b.thread);
+
+        MockExportTask c = new MockExportTask("c");
+        assertSame(c, pipeline.prefetch(c));
+    }
+
+    public void testFailure() throws Exception {
+        pipeline = new ExportPipeline(null, manager, 2);
+        pipeline.start();
+
+        ExportTask a = pipeline.prefetch(new MockExportTask("a"));
+        ExportTask b = pipeline.prefetch(new MockExportTask(null));
+        a.export(new ByteArrayOutputStream());
+        try {
+            b.export(new ByteArrayOutputStream());
+            fail();
+        } catch (IOException expected) {
+        }
+        verify(manager).endRequest(false);
+    }
+
+    private static class MockExportTask implements ExportTask {
+        private final String content;
+        private volatile Thread thread;
+
+        private MockExportTask(String content) {
+            this.content = content;
+        }
+
+        @Override
+        public String getEntry() {
+            return content;
+        }
+
+        @Override
+        public void export(OutputStream outputStream) throws IOException {
+            thread = Thread.currentThread();
+            if (content == null) {
+                throw new IOException("No content");
+            }
+            outputStream.write(content.getBytes("UTF-8"));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.portal.mop.management.operations;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Scanner;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.exoplatform.commons.chromattic.ChromatticManager;
+import org.exoplatform.portal.config.DataStorage;
+import org.exoplatform.portal.config.model.PortalConfig;
+import org.exoplatform.portal.mop.importer.ImportMode;
+import org.exoplatform.portal.mop.management.binding.MopBindingProvider;
+import org.gatein.management.api.exceptions.OperationException;
+import org.gatein.management.api.operation.OperationContext;
+import org.gatein.management.api.operation.ResultHandler;
+import org.gatein.management.api.operation.model.ReadResourceModel;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+
+/**
+ * @version $Revision$
+ */
+public class MopImportResourceTest extends TestCase {
+    private OperationContext operationContext;
+    private DataStorage dataStorage;
+    private ChromatticManager manager;
+    private ResultHandler resultHandler;
+
+    @Override
+    protected void setUp() throws Exception {
+        operationContext = mock(OperationContext.class);
+        when(operationContext.getOperationName()).thenReturn("import-resource");
+        when(operationContext.getBindingProvider()).thenReturn(MopBindingProvider.INSTANCE);
+        dataStorage = mock(DataStorage.class);
+        manager = mock(ChromatticManager.class);
+        resultHandler = mock(ResultHandler.class);
+    }
+
+    public void testBatches() throws Exception {
+        byte[] zip = new ZipBuilder().addSites("site1", "site2", "site3", "site4", "site5").build();
+
+        importZip(zip, 2);
+
+        // Each batch is committed and the request is ended once more after the import
+        verify(manager, times(4)).endRequest(true);
+        verify(manager, times(4)).beginRequest();
+        verify(dataStorage, times(5)).create(any(PortalConfig.class));
+        verify(dataStorage, never()).remove(any(PortalConfig.class));
+
+        ArgumentCaptor<ReadResourceModel> result = ArgumentCaptor.forClass(ReadResourceModel.class);
+        verify(resultHandler).completed(result.capture());
+        assertEquals("Imported 5 sites in 3 batches.", result.getValue().getDescription());
+        assertEquals(new HashSet<String>(Arrays.asList("portal/site1", "portal/site2", "portal/site3", "portal/site4",
+                "portal/site5")), result.getValue().getChildren());
+    }
+
+    public void testFailureRollsBackCurrentBatch() throws Exception {
+        byte[] zip = new ZipBuilder().addSites("site1", "site2", "site3", "site4", "site5").build();
+        doThrow(new Exception("site4")).when(dataStorage).create(argThat(named("site4")));
+
+        try {
+            importZip(zip, 2);
+            fail();
+        } catch (OperationException e) {
+        }
+
+        // The first batch remains committed and the second batch is rolled back
+        verify(manager, times(2)).endRequest(true);
+        ArgumentCaptor<PortalConfig> removed = ArgumentCaptor.forClass(PortalConfig.class);
+        verify(dataStorage, times(2)).remove(removed.capture());
+        assertEquals(Arrays.asList("site3", "site4"), names(removed.getAllValues()));
+        verify(dataStorage, never()).create(argThat(named("site5")));
+        verify(resultHandler, never()).completed(any());
+    }
+
+    public void testNonContiguousEntries() throws Exception {
+        byte[] zip = new ZipBuilder().addSites("site1", "site2").addEntry("portal/site1/pages.xml", new byte[0]).build();
+
+        try {
+            importZip(zip, 10);
+            fail();
+        } catch (OperationException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        // Nothing was committed and the sites of the batch are rolled back
+        verify(manager, times(1)).endRequest(true);
+        ArgumentCaptor<PortalConfig> removed = ArgumentCaptor.forClass(PortalConfig.class);
+        verify(dataStorage, times(2)).remove(removed.capture());
+        assertEquals(Arrays.asList("site1", "site2"), names(removed.getAllValues()));
+        verify(resultHandler, never()).completed(any());
+    }
+
+    private void importZip(byte[] zip, int batchSize) throws OperationException {
+        MopImportResource.ImportContext context = new MopImportResource.ImportContext(operationContext, null, dataStorage,
+                null, null, null);
+        MopImportResource.NonCloseableZipInputStream zis = new MopImportResource.NonCloseableZipInputStream(
+                new ByteArrayInputStream(zip));
+        MopImportResource.streamingImport(context, zis, ImportMode.MERGE, batchSize, manager, resultHandler);
+    }
+
+    private static List<String> names(List<PortalConfig> configs) {
+        List<String> names = new ArrayList<String>(configs.size());
+        for (PortalConfig config : configs) {
+            names.add(config.getName());
+        }
+        return names;
+    }
+
+    private static ArgumentMatcher<PortalConfig> named(final String name) {
+        return new ArgumentMatcher<PortalConfig>() {
+            @Override
+            public boolean matches(Object o) {
+                return o instanceof PortalConfig && name.equals(((PortalConfig) o).getName());
+            }
+        };
+    }
+
+    private static class ZipBuilder {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final ZipOutputStream zos = new ZipOutputStream(out);
+        private final String portal;
+
+        private ZipBuilder() {
+            InputStream in = getClass().getResourceAsStream("/org/exoplatform/portal/mop/management/portal.xml");
+            this.portal = new Scanner(in, "UTF-8").useDelimiter("\\A").next();
+        }
+
+        private ZipBuilder addSites(String... names) throws Exception {
+            for (String name : names) {
+                String xml = portal.replace("<portal-name>classic</portal-name>", "<portal-name>" + name + "</portal-name>");
+                addEntry("portal/" + name + "/portal.xml", xml.getBytes("UTF-8"));
+            }
+            return this;
+        }
+
+        private ZipBuilder addEntry(String name, byte[] data) throws Exception {
+            zos.putNextEntry(new ZipEntry(name));
+            zos.write(data);
+            zos.closeEntry();
+            return this;
+        }
+
+        private byte[] build() throws Exception {
+            zos.close();
+            return out.toByteArray();
+        }
+    }
+}
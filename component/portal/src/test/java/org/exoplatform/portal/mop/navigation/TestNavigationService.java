@@ -29,6 +29,7 @@ import org.exoplatform.portal.mop.Described;
 import org.exoplatform.portal.mop.SiteKey;
 import org.exoplatform.portal.mop.SiteType;
 import org.exoplatform.portal.mop.Visibility;
+import org.exoplatform.portal.pom.config.POMSession;
 import org.exoplatform.portal.pom.data.MappedAttributes;
 import org.gatein.mop.api.workspace.Navigation;
 import org.gatein.mop.api.workspace.ObjectType;
@@ -765,4 +766,99 @@ public class TestNavigationService extends AbstractTestNavigationService {
         } catch (IllegalArgumentException e) {
         }
     }
+
+    public void testSnapshot() throws Exception {
+        MOPService mop = mgr.getPOMService();
+        Site portal = mop.getModel().getWorkspace().addSite(ObjectType.PORTAL_SITE, "snapshot");
+        Navigation defaultNav = portal.getRootNavigation().addChild("default");
+        defaultNav.addChild("a").addChild("b");
+        defaultNav.addChild("c");
+
+        //
+        sync(true);
+
+        //
+        SimpleDataCache cache = new SimpleDataCache();
+        NavigationServiceImpl service = new NavigationServiceImpl(mgr, cache);
+        NavigationContext navigation = service.loadNavigation(SiteKey.portal("snapshot"));
+
+        // A bounded scope only loads the nodes it visits
+        Node root = service.loadNode(Node.MODEL, navigation, Scope.CHILDREN, null).getNode();
+        assertNotNull(root.getChild("a"));
+        assertEquals(0, cache.snapshots.size());
+        assertEquals(3, cache.nodes.size());
+
+        // The full scope loads the snapshot
+        cache.clear();
+        root = service.loadNode(Node.MODEL, navigation, Scope.ALL, null).getNode();
+        Node a = root.getChild("a");
+        assertNotNull(a);
+        assertNotNull(a.getChild("b"));
+        assertNotNull(root.getChild("c"));
+        assertEquals(1, cache.snapshots.size());
+        assertEquals(0, cache.nodes.size());
+
+        // A bounded scope reuses the cached snapshot
+        root = service.loadNode(Node.MODEL, navigation, Scope.CHILDREN, null).getNode();
+        a = root.getChild("a");
+        service.updateNode(a.context, Scope.CHILDREN, null);
+        assertNotNull(a.getChild("b"));
+        assertEquals(1, cache.snapshots.size());
+        assertEquals(0, cache.nodes.size());
+
+        // Saving a node invalidates the snapshot
+        root.addChild("d");
+        service.saveNode(root.context, null);
+        assertEquals(0, cache.snapshots.size());
+
+        //
+        sync(true);
+
+        //
+        root = service.loadNode(Node.MODEL, navigation, Scope.ALL, null).getNode();
+        assertEquals(3, root.getSize());
+        assertNotNull(root.getChild("d"));
+        assertEquals(1, cache.snapshots.size());
+    }
+
+    public void testPrefetch() throws Exception {
+        MOPService mop = mgr.getPOMService();
+        Site portal = mop.getModel().getWorkspace().addSite(ObjectType.PORTAL_SITE, "prefetch");
+        Navigation defaultNav = portal.getRootNavigation().addChild("default");
+        defaultNav.addChild("a").addChild("b").addChild("c");
+        defaultNav.addChild("d");
+
+        //
+        sync(true);
+
+        //
+        final int[] misses = new int[1];
+        SimpleDataCache cache = new SimpleDataCache() {
+            @Override
+            protected NodeData getNode(POMSession session, String key) {
+                if (peekNode(key) == null) {
+                    misses[0]++;
+                }
+                return super.getNode(session, key);
+            }
+        };
+        NavigationServiceImpl service = new NavigationServiceImpl(mgr, cache);
+        NavigationContext navigation = service.loadNavigation(SiteKey.portal("prefetch"));
+
+        // The nodes of a bounded scope are loaded in one traversal instead of one by one
+        Node root = service.loadNode(Node.MODEL, navigation, Scope.GRANDCHILDREN, null).getNode();
+        assertNotNull(root.getChild("a").getChild("b"));
+        assertNotNull(root.getChild("d"));
+        assertEquals(1, misses[0]);
+        assertEquals(4, cache.nodes.size());
+        assertEquals(0, cache.snapshots.size());
+
+        // Expanding a cached node loads its missing descendants at once
+        misses[0] = 0;
+        Node b = root.getChild("a").getChild("b");
+        service.updateNode(b.context, Scope.CHILDREN, null);
+        assertNotNull(b.getChild("c"));
+        assertEquals(0, misses[0]);
+        assertEquals(5, cache.nodes.size());
+    }
 }
@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.portal.pom.config.cache;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import junit.framework.TestCase;
+
+import org.chromattic.api.ChromatticSession;
+import org.exoplatform.commons.chromattic.SessionContext;
+import org.exoplatform.commons.scope.ScopeManager;
+import org.exoplatform.container.ExoContainer;
+import org.exoplatform.portal.pom.config.POMSession;
+import org.exoplatform.portal.pom.config.POMSessionManager;
+import org.exoplatform.portal.pom.config.POMTask;
+import org.exoplatform.portal.pom.config.TaskExecutor;
+import org.exoplatform.services.jcr.RepositoryService;
+import org.exoplatform.services.jcr.config.RepositoryEntry;
+import org.exoplatform.services.jcr.core.ManageableRepository;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * @version $Revision$
+ */
+public class TestDataCache extends TestCase {
+
+    /** . */
+    private final ConcurrentMap<Serializable, Object> cache = new ConcurrentHashMap<Serializable, Object>();
+
+    /** . */
+    private final AtomicInteger executions = new AtomicInteger();
+
+    /** . */
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    /** . */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /** . */
+    private POMSession session;
+
+    /** . */
+    private DataCache dataCache;
+
+    @Override
+    protected void setUp() throws Exception {
+        // The session is final, it is created around a mocked manager holding the cache and an unmodified JCR session
+        POMSessionManager mgr = mock(POMSessionManager.class);
+        when(mgr.cacheGet(any(Serializable.class))).thenAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return cache.get(invocation.getArguments()[0]);
+            }
+        });
+        doAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                cache.put((Serializable) invocation.getArguments()[0], invocation.getArguments()[1]);
+                return null;
+            }
+        }).when(mgr).cachePut(any(Serializable.class), any());
+        Session jcrSession = mock(Session.class);
+        when(jcrSession.hasPendingChanges()).thenReturn(false);
+        ChromatticSession chromatticSession = mock(ChromatticSession.class);
+        when(chromatticSession.getJCRSession()).thenReturn(jcrSession);
+        SessionContext context = mock(SessionContext.class);
+        when(context.getSession()).thenReturn(chromatticSession);
+        session = new POMSession(mgr, null, context);
+        dataCache = new DataCache(new TaskExecutor() {
+            public <V> V execute(POMSession session, POMTask<V> task) throws Exception {
+                executions.incrementAndGet();
+                started.countDown();
+                release.await();
+                return task.run(session);
+            }
+        });
+    }
+
+    public void testSingleLoad() throws Exception {
+        int count = 8;
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final String[] values = new String[count];
+        Thread[] threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        values[index] = dataCache.execute(session, new Load("foo"));
+                    } catch (Throwable t) {
+                        failure.set(t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        // Wait until one thread loads the value and the others wait for it
+        started.await();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (countWaiting(threads) < count && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        //
+        assertNull(failure.get());
+        assertEquals(1, executions.get());
+        for (String value : values) {
+            assertEquals("value-foo", value);
+        }
+        assertEquals(1, dataCache.getReadCount());
+        assertEquals(count - 1, dataCache.getCoalescedCount());
+        assertEquals("value-foo", cache.get("foo"));
+
+        // The next read is a cache hit
+        assertEquals("value-foo", dataCache.execute(session, new Load("foo")));
+        assertEquals(1, executions.get());
+        assertEquals(1, dataCache.getHitCount());
+    }
+
+    public void testEvictionDuringLoad() throws Exception {
+        release.countDown();
+
+        // A value loaded while its key is evicted is not cached
+        dataCache = new DataCache(new TaskExecutor() {
+            public <V> V execute(POMSession session, POMTask<V> task) throws Exception {
+                dataCache.evicted("foo");
+                return task.run(session);
+            }
+        });
+        assertEquals("value-foo", dataCache.execute(session, new Load("foo")));
+        assertNull(cache.get("foo"));
+
+        // The eviction of another key does not concern the value
+        dataCache = new DataCache(new TaskExecutor() {
+            public <V> V execute(POMSession session, POMTask<V> task) throws Exception {
+                dataCache.evicted("bar");
+                return task.run(session);
+            }
+        });
+        assertEquals("value-foo", dataCache.execute(session, new Load("foo")));
+        assertEquals("value-foo", cache.get("foo"));
+    }
+
+    public void testClearDuringLoad() throws Exception {
+        release.countDown();
+        dataCache = new DataCache(new TaskExecutor() {
+            public <V> V execute(POMSession session, POMTask<V> task) throws Exception {
+                dataCache.cleared();
+                return task.run(session);
+            }
+        });
+        assertEquals("value-foo", dataCache.execute(session, new Load("foo")));
+        assertNull(cache.get("foo"));
+    }
+
+    public void testLoadIsScoped() throws Exception {
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread unscoped = new Thread() {
+            public void run() {
+                try {
+                    dataCache.execute(session, new Load("foo"));
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            }
+        };
+        unscoped.start();
+        started.await();
+
+        // The same key in another repository is loaded on its own
+        Thread scoped = new Thread() {
+            public void run() {
+                ScopeManager scopeManager = new ScopeManager();
+                ExoContainer container = scopedContainer("other");
+                scopeManager.startRequest(container);
+                try {
+                    dataCache.execute(session, new Load("foo"));
+                } catch (Throwable t) {
+                    failure.set(t);
+                } finally {
+                    scopeManager.endRequest(container);
+                }
+            }
+        };
+        scoped.start();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (executions.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+        release.countDown();
+        unscoped.join();
+        scoped.join();
+
+        //
+        assertNull(failure.get());
+        assertEquals(2, executions.get());
+        assertEquals(0, dataCache.getCoalescedCount());
+    }
+
+    private static ExoContainer scopedContainer(String scope) {
+        RepositoryEntry configuration = mock(RepositoryEntry.class);
+        when(configuration.getName()).thenReturn(scope);
+        ManageableRepository repository = mock(ManageableRepository.class);
+        when(repository.getConfiguration()).thenReturn(configuration);
+        RepositoryService repositoryService = mock(RepositoryService.class);
+        try {
+            when(repositoryService.getCurrentRepository()).thenReturn(repository);
+        } catch (RepositoryException e) {
+            throw new AssertionError(e);
+        }
+        ExoContainer container = mock(ExoContainer.class);
+        when(container.getComponentInstanceOfType(RepositoryService.class)).thenReturn(repositoryService);
+        return container;
+    }
+
+    private static int countWaiting(Thread[] threads) {
+        int waiting = 0;
+        for (Thread thread : threads) {
+            Thread.State state = thread.getState();
+            if (state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING) {
+                waiting++;
+            }
+        }
+        return waiting;
+    }
+
+    private static class Load implements CacheableDataTask<String, String> {
+
+        /** . */
+        private final String key;
+
+        private Load(String key) {
+            this.key = key;
+        }
+
+        public Class<String> getValueType() {
+            return String.class;
+        }
+
+        public DataAccessMode getAccessMode() {
+            return DataAccessMode.READ;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String run(POMSession session) {
+            return "value-" + key;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.groovyscript;
+
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The default formatter prints the dates with the medium date format of the rendering locale. The formats are expensive
+ * to obtain and are not thread safe, so each thread keeps the formats it used per locale. The thread local only holds
+ * JDK types so it does not retain the class loader of the formatter.
+ *
+ * @version $Revision$
+ */
+public class DefaultObjectFormatter implements ObjectFormatter {
+
+    /** . */
+    public static final DefaultObjectFormatter INSTANCE = new DefaultObjectFormatter();
+
+    /** The date formats of the current thread. */
+    private static final ThreadLocal<Map<Locale, DateFormat>> dateFormats = new ThreadLocal<Map<Locale, DateFormat>>();
+
+    private static DateFormat getDateFormat(Locale locale) {
+        Map<Locale, DateFormat> map = dateFormats.get();
+        if (map == null) {
+            map = new HashMap<Locale, DateFormat>();
+            dateFormats.set(map);
+        }
+        DateFormat format = map.get(locale);
+        if (format == null) {
+            format = DateFormat.getDateInstance(DateFormat.MEDIUM, locale);
+            map.put(locale, format);
+        }
+        return format;
+    }
+
+    public Object format(Object o, Locale locale) {
+        if (o instanceof Date && locale != null) {
+            return getDateFormat(locale).format((Date) o);
+        } else {
+            return o;
+        }
+    }
+}
@@ -20,10 +20,13 @@ package org.exoplatform.groovyscript;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.text.DateFormat;
-import java.util.Date;
+import java.text.Format;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 
+import org.exoplatform.commons.utils.HTMLEntityEncoder;
 import org.exoplatform.commons.utils.Text;
 
 import groovy.lang.GString;
@@ -39,6 +42,12 @@ abstract class GroovyPrinter extends GroovyObjectSupport implements GroovyInterc
     /** An optional locale. */
     private Locale locale;
 
+    /** The formatter of the printed objects. */
+    private ObjectFormatter formatter = DefaultObjectFormatter.INSTANCE;
+
+    /** The formats supplied by the template for the types of the printed objects. */
+    private Map<Class<?>, Format> formats;
+
     public Locale getLocale() {
         return locale;
     }
@@ -47,6 +56,39 @@ abstract class GroovyPrinter extends GroovyObjectSupport implements GroovyInterc
         this.locale = locale;
     }
 
+    public ObjectFormatter getFormatter() {
+        return formatter;
+    }
+
+    public void setFormatter(ObjectFormatter formatter) {
+        if (formatter == null) {
+            throw new NullPointerException("No null formatter accepted");
+        }
+        this.formatter = formatter;
+    }
+
+    /**
+     * Sets the format of the printed objects of a type such as {@link Number}, {@link java.util.Date} or {@link Calendar}
+     * in place of the formatter, a calendar is formatted as its date. The format is removed when the format argument is
+     * null.
+     *
+     * @param type the type
+     * @param format the format
+     */
+    public void setFormat(Class<?> type, Format format) {
+        if (type == null) {
+            throw new NullPointerException("No null type accepted");
+        }
+        if (format != null) {
+            if (formats == null) {
+                formats = new LinkedHashMap<Class<?>, Format>();
+            }
+            formats.put(type, format);
+        } else if (formats != null) {
+            formats.remove(type);
+        }
+    }
+
     /**
      * Optimize the call to the various print methods.
      *
@@ -93,15 +135,16 @@ abstract class GroovyPrinter extends GroovyObjectSupport implements GroovyInterc
      * @return the formatted object
      */
     private Object format(Object o) {
-        if (o instanceof Date) {
-            if (locale != null) {
-                DateFormat dateFormat = DateFormat.getDateInstance(DateFormat.MEDIUM, locale);
-                o = dateFormat.format((Date) o);
+        if (formats != null && o != null) {
+            for (Map.Entry<Class<?>, Format> entry : formats.entrySet()) {
+                if (entry.getKey().isInstance(o)) {
+                    return entry.getValue().format(o instanceof Calendar ? ((Calendar) o).getTime() : o);
+                }
             }
         }
 
         //
-        return o;
+        return formatter.format(o, locale);
     }
 
     private String toString(Object o) {
@@ -111,7 +154,7 @@ abstract class GroovyPrinter extends GroovyObjectSupport implements GroovyInterc
         } else if (f instanceof String) {
             return (String) f;
         } else {
-            return o.toString();
+            return f.toString();
         }
     }
 
@@ -133,6 +176,18 @@ abstract class GroovyPrinter extends GroovyObjectSupport implements GroovyInterc
         }
     }
 
+    /**
+     * Prints an object encoded for HTML, the encoded characters are written directly to the output.
+     *
+     * @param o the object to print
+     */
+    public final void printHTML(Object o) {
+        try {
+            HTMLEntityEncoder.getInstance().encodeHTML(toString(o), getWriter());
+        } catch (IOException ignore) {
+        }
+    }
+
     protected abstract Writer getWriter();
 
     protected abstract void write(char c) throws IOException;
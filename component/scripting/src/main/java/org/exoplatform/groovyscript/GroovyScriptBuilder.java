@@ -25,11 +25,15 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.tools.GroovyClass;
 
 import groovy.lang.GroovyClassLoader;
 import groovy.lang.GroovyCodeSource;
@@ -51,6 +55,9 @@ public class GroovyScriptBuilder {
     /** . */
     private final String templateText;
 
+    /** The optional fully qualified name of the generated script class. */
+    private final String className;
+
     /** . */
     private SectionType currentType = null;
 
@@ -58,12 +65,30 @@ public class GroovyScriptBuilder {
     private StringBuilder accumulatedText = new StringBuilder();
 
     /** . */
-    private Script script = new Script();
+    private final Script script;
+
+    /** . */
+    private String groovyText;
 
     public GroovyScriptBuilder(String templateId, String templateName, String templateText) {
+        this(templateId, templateName, templateText, null);
+    }
+
+    /**
+     * Creates a builder that generates a script class with the specified fully qualified name, this is used when templates
+     * are compiled ahead of time as the generated classes must not collide with each other.
+     *
+     * @param templateId the template id
+     * @param templateName the template name
+     * @param templateText the template text
+     * @param className the script class name
+     */
+    public GroovyScriptBuilder(String templateId, String templateName, String templateText, String className) {
         this.templateId = templateId;
         this.templateName = templateName;
         this.templateText = templateText;
+        this.className = className;
+        this.script = new Script(className);
     }
 
     private void begin(SectionType sectionType, Position pos) {
@@ -151,28 +176,49 @@ public class GroovyScriptBuilder {
         this.currentType = null;
     }
 
-    public GroovyScript build() throws TemplateCompilationException {
-        List<TemplateSection> sections = new TemplateParser().parse(templateText);
+    private String generate() throws TemplateCompilationException {
+        if (groovyText == null) {
+            List<TemplateSection> sections = new TemplateParser().parse(templateText);
 
-        //
-        for (TemplateSection section : sections) {
-            begin(section.getType(), section.getItems().get(0).getPosition());
-            for (SectionItem item : section.getItems()) {
-                append(item);
+            //
+            for (TemplateSection section : sections) {
+                begin(section.getType(), section.getItems().get(0).getPosition());
+                for (SectionItem item : section.getItems()) {
+                    append(item);
+                }
+                end();
             }
-            end();
+
+            //
+            groovyText = script.toString();
         }
+        return groovyText;
+    }
 
-        //
-        String groovyText = script.toString();
+    private CompilerConfiguration createConfiguration() {
+        CompilerConfiguration config = new CompilerConfiguration();
+        config.setScriptBaseClass(BaseScript.class.getName());
+        return config;
+    }
+
+    private String getSourceName() {
+        if (className != null) {
+            // The script class is named after its source
+            return className.substring(className.lastIndexOf('.') + 1) + ".groovy";
+        } else {
+            return templateName;
+        }
+    }
+
+    public GroovyScript build() throws TemplateCompilationException {
+        String groovyText = generate();
 
         //
-        CompilerConfiguration config = new CompilerConfiguration();
+        CompilerConfiguration config = createConfiguration();
 
         //
         byte[] bytes;
         try {
-            config.setScriptBaseClass(BaseScript.class.getName());
             bytes = groovyText.getBytes(config.getSourceEncoding());
         } catch (UnsupportedEncodingException e) {
             throw new TemplateCompilationException(e, groovyText);
@@ -180,7 +226,7 @@ public class GroovyScriptBuilder {
 
         //
         InputStream in = new ByteArrayInputStream(bytes);
-        GroovyCodeSource gcs = new GroovyCodeSource(in, templateName, "/groovy/shell");
+        GroovyCodeSource gcs = new GroovyCodeSource(in, getSourceName(), "/groovy/shell");
         GroovyClassLoader loader = new GroovyClassLoader(prepareClassLoader(), config);
         Class<?> scriptClass;
         try {
@@ -191,8 +237,50 @@ public class GroovyScriptBuilder {
             throw new GroovyCompilationException(e, templateText, groovyText);
         }
 
-        return new GroovyScript(templateId, script.toString(), scriptClass,
-                Collections.unmodifiableMap(new HashMap<Integer, TextItem>(script.positionTable)));
+        return build(scriptClass);
+    }
+
+    /**
+     * Builds the script with a class that was compiled ahead of time from the same template text, the template is parsed
+     * to provide the line table but it is not compiled again.
+     *
+     * @param scriptClass the script class
+     * @return the script
+     * @throws TemplateCompilationException if the template cannot be parsed
+     */
+    public GroovyScript build(Class<?> scriptClass) throws TemplateCompilationException {
+        String groovyText = generate();
+        return new GroovyScript(templateId, groovyText, scriptClass, Collections.unmodifiableMap(new HashMap<Integer, TextItem>(
+                script.positionTable)));
+    }
+
+    /**
+     * Compiles the template to bytecode.
+     *
+     * @return the class names mapped to their bytecode
+     * @throws TemplateCompilationException if the template cannot be compiled
+     */
+    public Map<String, byte[]> compile() throws TemplateCompilationException {
+        String groovyText = generate();
+
+        //
+        CompilerConfiguration config = createConfiguration();
+        GroovyClassLoader loader = new GroovyClassLoader(prepareClassLoader(), config);
+        CompilationUnit unit = new CompilationUnit(config, null, loader);
+        unit.addSource(getSourceName(), groovyText);
+        try {
+            unit.compile(Phases.CLASS_GENERATION);
+        } catch (CompilationFailedException e) {
+            throw new GroovyCompilationException(e, templateText, groovyText);
+        }
+
+        //
+        Map<String, byte[]> classes = new LinkedHashMap<String, byte[]>();
+        for (Object o : unit.getClasses()) {
+            GroovyClass groovyClass = (GroovyClass) o;
+            classes.put(groovyClass.getName(), groovyClass.getBytes());
+        }
+        return classes;
     }
 
     private ClassLoader prepareClassLoader() {
@@ -212,6 +300,12 @@ public class GroovyScriptBuilder {
      */
     private static class Script {
 
+        /** The package declaration and the local variable holding the printer that shortcuts the out property. */
+        private final String prolog;
+
+        /** . */
+        private final String constantsName;
+
         /** . */
         private StringBuilder out = new StringBuilder();
 
@@ -227,12 +321,32 @@ public class GroovyScriptBuilder {
         /** The current line number. */
         private int lineNumber = 1;
 
+        private Script(String className) {
+            StringBuilder prolog = new StringBuilder();
+            String constantsName = "Constants";
+            if (className != null) {
+                int pos = className.lastIndexOf('.');
+                if (pos != -1) {
+                    prolog.append("package ").append(className.substring(0, pos)).append(";");
+                }
+                constantsName = className.substring(pos + 1) + "Constants";
+            }
+
+            // The prolog is kept on the first line so the line table is not shifted
+            prolog.append("def out = this.out;");
+
+            //
+            this.prolog = prolog.toString();
+            this.constantsName = constantsName;
+        }
+
         @Override
         public String toString() {
             StringBuilder builder = new StringBuilder();
+            builder.append(prolog);
             builder.append(out.toString());
             builder.append("\n");
-            builder.append("public class Constants\n");
+            builder.append("public class ").append(constantsName).append("\n");
             builder.append("{\n");
             for (TextContant method : textMethods) {
                 builder.append(method.getDeclaration()).append("\n");
@@ -243,7 +357,7 @@ public class GroovyScriptBuilder {
 
         public void appendText(String text) {
             TextContant m = new TextContant("s" + methodCount++, text);
-            out.append("out.print(Constants.").append(m.name).append(");\n");
+            out.append("out.print(").append(constantsName).append(".").append(m.name).append(");\n");
             textMethods.add(m);
             lineNumber++;
         }
@@ -71,6 +71,21 @@ public class GroovyTemplate implements Serializable {
     }
 
     public GroovyTemplate(String templateId, String templateName, String templateText) throws TemplateCompilationException {
+        this(templateId, templateName, templateText, null);
+    }
+
+    /**
+     * Creates a template from a script class compiled ahead of time from the same template text, when the script class is
+     * null the template is compiled.
+     *
+     * @param templateId the template id
+     * @param templateName the template name
+     * @param templateText the template text
+     * @param scriptClass the optional script class
+     * @throws TemplateCompilationException if the template cannot be compiled
+     */
+    public GroovyTemplate(String templateId, String templateName, String templateText, Class<?> scriptClass)
+            throws TemplateCompilationException {
         if (templateName == null) {
             templateName = "fic";
         } else {
@@ -81,7 +96,7 @@ public class GroovyTemplate implements Serializable {
         GroovyScriptBuilder compiler = new GroovyScriptBuilder(templateId, templateName, templateText);
 
         //
-        this.script = compiler.build();
+        this.script = scriptClass != null ? compiler.build(scriptClass) : compiler.build();
         this.templateText = templateText;
         this.templateId = templateId;
         this.templateName = templateName;
@@ -18,12 +18,113 @@
  */
 package org.exoplatform.groovyscript;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+
+import org.gatein.common.io.IOTools;
+import org.gatein.common.logging.Logger;
+import org.gatein.common.logging.LoggerFactory;
+
 /**
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  * @version $Revision$
  */
 public class GroovyTemplateEngine {
+
+    /** . */
+    private static final Logger log = LoggerFactory.getLogger(GroovyTemplateEngine.class);
+
+    /** The templates compiled ahead of time by {@link TemplatePrecompiler}, indexed per class loader. */
+    private final Map<ClassLoader, Map<String, String>> precompiled = new WeakHashMap<ClassLoader, Map<String, String>>();
+
+    /** . */
+    private final boolean usePrecompiled;
+
+    public GroovyTemplateEngine() {
+        this(true);
+    }
+
+    public GroovyTemplateEngine(boolean usePrecompiled) {
+        this.usePrecompiled = usePrecompiled;
+    }
+
     public GroovyTemplate createTemplate(String id, String name, String text) throws TemplateCompilationException {
-        return new GroovyTemplate(id, name, text);
+        Class<?> scriptClass = usePrecompiled && id != null ? getPrecompiledClass(id, text) : null;
+        return new GroovyTemplate(id, name, text, scriptClass);
+    }
+
+    /**
+     * Returns the script class compiled ahead of time for the template or null when there is none or when the template
+     * text was modified after its compilation.
+     */
+    private Class<?> getPrecompiledClass(String id, String text) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            return null;
+        }
+
+        //
+        String entry = getIndex(loader).get(TemplatePrecompiler.getTemplatePath(id));
+        if (entry == null) {
+            return null;
+        }
+
+        //
+        int pos = entry.indexOf(',');
+        String className = entry.substring(0, pos);
+        String hash = entry.substring(pos + 1);
+        if (!hash.equals(TemplatePrecompiler.hash(text))) {
+            log.debug("Template " + id + " changed since its compilation, it will be compiled again");
+            return null;
+        }
+
+        //
+        try {
+            return loader.loadClass(className);
+        } catch (ClassNotFoundException e) {
+            log.warn("Could not load the compiled class " + className + " of template " + id, e);
+            return null;
+        }
+    }
+
+    private Map<String, String> getIndex(ClassLoader loader) {
+        synchronized (precompiled) {
+            Map<String, String> index = precompiled.get(loader);
+            if (index == null) {
+                index = loadIndex(loader);
+                precompiled.put(loader, index);
+            }
+            return index;
+        }
+    }
+
+    private Map<String, String> loadIndex(ClassLoader loader) {
+        Map<String, String> index = new HashMap<String, String>();
+        try {
+            Enumeration<URL> urls = loader.getResources(TemplatePrecompiler.INDEX);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                InputStream in = url.openStream();
+                try {
+                    Properties props = new Properties();
+                    props.load(in);
+                    for (String path : props.stringPropertyNames()) {
+                        index.put(path, props.getProperty(path));
+                    }
+                } finally {
+                    IOTools.safeClose(in);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not load the compiled template index", e);
+        }
+        return index.isEmpty() ? Collections.<String, String> emptyMap() : index;
     }
 }
@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.groovyscript;
+
+import java.util.Locale;
+
+/**
+ * Converts the objects printed by a template to the objects actually printed, for instance a date to its localized
+ * representation.
+ *
+ * @version $Revision$
+ */
+public interface ObjectFormatter {
+
+    /**
+     * Returns the object to print in place of the specified object.
+     *
+     * @param o the object to format
+     * @param locale the locale of the rendering or null
+     * @return the formatted object
+     */
+    Object format(Object o, Locale locale);
+
+}
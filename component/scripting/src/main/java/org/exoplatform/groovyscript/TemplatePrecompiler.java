@@ -0,0 +1,224 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.groovyscript;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+import org.exoplatform.commons.utils.IOUtil;
+import org.gatein.common.io.IOTools;
+import org.gatein.common.logging.Logger;
+import org.gatein.common.logging.LoggerFactory;
+
+/**
+ * Compiles the <code>.gtmpl</code> templates of a directory ahead of time. The script classes are written in the output
+ * directory along with an index mapping the path of each template to its class and to the hash of the text it was compiled
+ * from. At runtime the {@link GroovyTemplateEngine} uses a compiled class when the index can be found by the context class
+ * loader and the template text is unchanged, otherwise it compiles the template as usual.
+ *
+ * Templates that cannot be compiled at build time, for instance because a class they import is not on the build class
+ * path, are skipped and compiled at runtime.
+ *
+ * @version $Revision$
+ */
+public class TemplatePrecompiler {
+
+    /** The index of compiled templates. */
+    public static final String INDEX = "META-INF/gatein-templates.properties";
+
+    /** The package of the generated classes. */
+    private static final String PACKAGE = "gtmpl";
+
+    /** . */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** . */
+    private static final Logger log = LoggerFactory.getLogger(TemplatePrecompiler.class);
+
+    /**
+     * Returns the path of a template from its id, i.e the id without the resolver scheme such as <code>war:</code> or
+     * <code>system:</code>.
+     *
+     * @param templateId the template id
+     * @return the template path
+     */
+    public static String getTemplatePath(String templateId) {
+        int pos = templateId.indexOf(':');
+        String path = pos == -1 ? templateId : templateId.substring(pos + 1);
+        return path.startsWith("/") ? path : "/" + path;
+    }
+
+    /**
+     * Returns the hash of a template text.
+     *
+     * @param text the text
+     * @return the hash
+     */
+    public static String hash(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes(UTF_8));
+        return Long.toHexString(crc.getValue()) + "-" + text.length();
+    }
+
+    /** . */
+    private final File sourceDir;
+
+    /** . */
+    private final File outputDir;
+
+    /** . */
+    private final Properties index;
+
+    /** . */
+    private int failed;
+
+    public TemplatePrecompiler(File sourceDir, File outputDir) {
+        this.sourceDir = sourceDir;
+        this.outputDir = outputDir;
+        this.index = new Properties();
+    }
+
+    public Properties getIndex() {
+        return index;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * Compiles all the templates of the source directory.
+     *
+     * @throws IOException any io exception
+     */
+    public void execute() throws IOException {
+        compileDirectory(sourceDir, "/");
+
+        //
+        File indexFile = new File(outputDir, INDEX);
+        indexFile.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(indexFile);
+        try {
+            index.store(out, "Compiled templates");
+        } finally {
+            IOTools.safeClose(out);
+        }
+    }
+
+    private void compileDirectory(File dir, String path) throws IOException {
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    compileDirectory(child, path + child.getName() + "/");
+                } else if (child.getName().endsWith(".gtmpl")) {
+                    compileTemplate(child, path + child.getName());
+                }
+            }
+        }
+    }
+
+    private void compileTemplate(File file, String path) throws IOException {
+        byte[] bytes;
+        InputStream in = new FileInputStream(file);
+        try {
+            bytes = IOUtil.getStreamContentAsBytes(in);
+        } finally {
+            IOTools.safeClose(in);
+        }
+
+        // Decoded the same way the TemplateService does
+        String text = new String(bytes);
+
+        //
+        String className = getClassName(path);
+        Map<String, byte[]> classes;
+        try {
+            classes = new GroovyScriptBuilder(path, file.getName(), text, className).compile();
+        } catch (TemplateCompilationException e) {
+            log.warn("Could not compile template " + path + ", it will be compiled at runtime: " + e.getMessage());
+            failed++;
+            return;
+        }
+
+        //
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            File classFile = new File(outputDir, entry.getKey().replace('.', File.separatorChar) + ".class");
+            classFile.getParentFile().mkdirs();
+            OutputStream out = new FileOutputStream(classFile);
+            try {
+                out.write(entry.getValue());
+            } finally {
+                IOTools.safeClose(out);
+            }
+        }
+
+        //
+        index.setProperty(path, className + "," + hash(text));
+    }
+
+    /**
+     * Maps a template path such as <code>/groovy/webui/core/UIForm.gtmpl</code> to a class name such as
+     * <code>gtmpl.groovy.webui.core.UIForm_gtmpl</code>.
+     */
+    static String getClassName(String path) {
+        StringBuilder sb = new StringBuilder(PACKAGE);
+        for (String segment : path.split("/")) {
+            if (segment.length() > 0) {
+                sb.append('.');
+                if (!Character.isJavaIdentifierStart(segment.charAt(0))) {
+                    sb.append('_');
+                }
+                for (int i = 0; i < segment.length(); i++) {
+                    char c = segment.charAt(i);
+                    sb.append(Character.isJavaIdentifierPart(c) ? c : '_');
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Compiles the templates of a source directory to an output directory.
+     *
+     * @param args the source directory and the output directory
+     * @throws Exception any exception
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: TemplatePrecompiler <source directory> <output directory>");
+        }
+
+        //
+        long time = System.currentTimeMillis();
+        TemplatePrecompiler compiler = new TemplatePrecompiler(new File(args[0]), new File(args[1]));
+        compiler.execute();
+        time = System.currentTimeMillis() - time;
+        log.info("Compiled " + compiler.getIndex().size() + " templates in " + time + "ms, " + compiler.getFailed()
+                + " templates will be compiled at runtime");
+    }
+}
@@ -19,9 +19,8 @@
 
 package org.exoplatform.groovyscript.text;
 
+import org.exoplatform.commons.utils.LatencyHistogram;
 import org.exoplatform.resolver.ResourceResolver;
-import org.gatein.common.concurrent.AtomicPositiveLong;
-import org.gatein.common.concurrent.LongSampler;
 
 /**
  * Created by The eXo Platform SAS Author : tam.nguyen tam.nguyen@exoplatform.com Mar 17, 2009
@@ -29,17 +28,10 @@ import org.gatein.common.concurrent.LongSampler;
 
 public class TemplateStatistic {
 
-    private final LongSampler times = new LongSampler(1000);
+    private final LatencyHistogram times = new LatencyHistogram();
 
     private String name;
 
-    private final AtomicPositiveLong maxTime = new AtomicPositiveLong();
-
-    private final AtomicPositiveLong minTime = new AtomicPositiveLong();
-
-    // count variable, store number of request
-    private volatile long countRequest = 0;
-
     // resolver for name
     private ResourceResolver resolver;
 
@@ -48,42 +40,49 @@ public class TemplateStatistic {
     }
 
     public void setTime(long timeMillis) {
-
-        //
-        times.add(timeMillis);
-
-        // if time > max time then put a new max time value
-        maxTime.setIfGreater(timeMillis);
-
-        // generate first value for min time
-        minTime.setIfLower(timeMillis);
-
-        //
-        countRequest++;
+        times.record(timeMillis);
     }
 
     public double getMaxTime() {
-        long maxTime = this.maxTime.get();
-        if (maxTime == -1) {
-            return -1;
-        }
-        return maxTime;
+        return times.getMax();
     }
 
     public double getMinTime() {
-        long minTime = this.minTime.get();
-        if (minTime == -1) {
-            return -1;
-        }
-        return minTime;
+        return times.getMin();
     }
 
     public double getAverageTime() {
-        return times.average();
+        return times.getMean();
+    }
+
+    /**
+     * Returns the time below which a percentage of the renderings completed.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the time in milliseconds or -1 when the template was not rendered
+     */
+    public double getPercentileTime(double percentile) {
+        return times.snapshot().getValueAtPercentile(percentile);
     }
 
     public long executionCount() {
-        return countRequest;
+        return times.getCount();
+    }
+
+    /**
+     * Returns a snapshot of the rendering times.
+     *
+     * @return the snapshot
+     */
+    public LatencyHistogram.Snapshot snapshot() {
+        return times.snapshot();
+    }
+
+    /**
+     * Discards the rendering times.
+     */
+    public void reset() {
+        times.reset();
     }
 
     public void setResolver(ResourceResolver resolver) {
@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.exoplatform.management.annotations.Impact;
 import org.exoplatform.management.annotations.ImpactType;
@@ -50,7 +51,7 @@ import org.exoplatform.management.rest.annotations.RESTEndpoint;
 @RESTEndpoint(path = "templatestatistics")
 public class TemplateStatisticService {
 
-    final Map<String, TemplateStatistic> apps = new ConcurrentHashMap<String, TemplateStatistic>();
+    final ConcurrentMap<String, TemplateStatistic> apps = new ConcurrentHashMap<String, TemplateStatistic>();
 
     private final String ASC = "ASC";
 
@@ -81,7 +82,10 @@ public class TemplateStatisticService {
         TemplateStatistic app = apps.get(name);
         if (app == null) {
             app = new TemplateStatistic(name);
-            apps.put(name, app);
+            TemplateStatistic existing = apps.putIfAbsent(name, app);
+            if (existing != null) {
+                app = existing;
+            }
         }
         return app;
     }
@@ -147,6 +151,78 @@ public class TemplateStatisticService {
         return toSeconds(app.getAverageTime());
     }
 
+    /*
+     * Return the median rendering time of a specified template
+     */
+    @Managed
+    @ManagedDescription("The median rendering time of a specified template in seconds")
+    @Impact(ImpactType.READ)
+    public double getMedianTime(@ManagedDescription("The template id") @ManagedName("templateId") String name) {
+        return toSeconds(findTemplateStatistic(name).getPercentileTime(50));
+    }
+
+    /*
+     * Return the 95th percentile rendering time of a specified template
+     */
+    @Managed
+    @ManagedDescription("The 95th percentile rendering time of a specified template in seconds")
+    @Impact(ImpactType.READ)
+    public double getPercentile95Time(@ManagedDescription("The template id") @ManagedName("templateId") String name) {
+        return toSeconds(findTemplateStatistic(name).getPercentileTime(95));
+    }
+
+    /*
+     * Return the 99th percentile rendering time of a specified template
+     */
+    @Managed
+    @ManagedDescription("The 99th percentile rendering time of a specified template in seconds")
+    @Impact(ImpactType.READ)
+    public double getPercentile99Time(@ManagedDescription("The template id") @ManagedName("templateId") String name) {
+        return toSeconds(findTemplateStatistic(name).getPercentileTime(99));
+    }
+
+    /*
+     * Return the 99.9th percentile rendering time of a specified template
+     */
+    @Managed
+    @ManagedDescription("The 99.9th percentile rendering time of a specified template in seconds")
+    @Impact(ImpactType.READ)
+    public double getPercentile999Time(@ManagedDescription("The template id") @ManagedName("templateId") String name) {
+        return toSeconds(findTemplateStatistic(name).getPercentileTime(99.9));
+    }
+
+    /*
+     * Return a snapshot of the rendering times of a specified template
+     */
+    @Managed
+    @ManagedDescription("A snapshot of the count, min, max, mean and percentiles in milliseconds of a specified template")
+    @Impact(ImpactType.READ)
+    public String getSnapshot(@ManagedDescription("The template id") @ManagedName("templateId") String name) {
+        return findTemplateStatistic(name).snapshot().toString();
+    }
+
+    /*
+     * Reset the statistic of a specified template
+     */
+    @Managed
+    @ManagedDescription("Reset the statistic of a specified template")
+    @Impact(ImpactType.IDEMPOTENT_WRITE)
+    public void reset(@ManagedDescription("The template id") @ManagedName("templateId") String name) {
+        findTemplateStatistic(name).reset();
+    }
+
+    /*
+     * Reset the statistics of all templates
+     */
+    @Managed
+    @ManagedDescription("Reset the statistics of all templates")
+    @Impact(ImpactType.IDEMPOTENT_WRITE)
+    public void resetAll() {
+        for (TemplateStatistic statistic : apps.values()) {
+            statistic.reset();
+        }
+    }
+
     /*
      * returns 10 slowest template
      */
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.groovyscript;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+
+import org.exoplatform.component.test.AbstractGateInTest;
+
+/**
+ * @version $Revision$
+ */
+public class TestTemplatePrecompiler extends AbstractGateInTest {
+
+    /** . */
+    private static final String TEXT = "a<%= 'b' %><% for (i in 0..1) { %>c<% } %>";
+
+    /** . */
+    private File sourceDir;
+
+    /** . */
+    private File outputDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        File root = new File(System.getProperty("java.io.tmpdir"), "gtmpl-" + System.nanoTime());
+        sourceDir = new File(root, "src");
+        outputDir = new File(root, "classes");
+        File dir = new File(sourceDir, "groovy/webui");
+        dir.mkdirs();
+        OutputStream out = new FileOutputStream(new File(dir, "UIFoo.gtmpl"));
+        try {
+            out.write(TEXT.getBytes());
+        } finally {
+            out.close();
+        }
+    }
+
+    public void testClassName() {
+        assertEquals("gtmpl.groovy.webui.UIFoo_gtmpl", TemplatePrecompiler.getClassName("/groovy/webui/UIFoo.gtmpl"));
+        assertEquals("gtmpl._1.a_b_gtmpl", TemplatePrecompiler.getClassName("/1/a-b.gtmpl"));
+        assertEquals("/groovy/webui/UIFoo.gtmpl", TemplatePrecompiler.getTemplatePath("system:/groovy/webui/UIFoo.gtmpl"));
+        assertEquals("/groovy/webui/UIFoo.gtmpl", TemplatePrecompiler.getTemplatePath("/groovy/webui/UIFoo.gtmpl"));
+    }
+
+    public void testUsePrecompiledClass() throws Exception {
+        TemplatePrecompiler compiler = new TemplatePrecompiler(sourceDir, outputDir);
+        compiler.execute();
+        assertEquals(0, compiler.getFailed());
+        assertEquals(Collections.singleton("/groovy/webui/UIFoo.gtmpl"), compiler.getIndex().stringPropertyNames());
+        assertTrue(new File(outputDir, "gtmpl/groovy/webui/UIFoo_gtmpl.class").exists());
+
+        //
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        ClassLoader loader = new URLClassLoader(new URL[] { outputDir.toURI().toURL() }, getClass().getClassLoader());
+        Thread.currentThread().setContextClassLoader(loader);
+        try {
+            GroovyTemplateEngine engine = new GroovyTemplateEngine();
+
+            // The compiled class is used
+            GroovyTemplate template = engine.createTemplate("war:/groovy/webui/UIFoo.gtmpl", "UIFoo.gtmpl", TEXT);
+            assertEquals("gtmpl.groovy.webui.UIFoo_gtmpl", template.getClassName());
+            assertSame(loader, Class.forName(template.getClassName(), false, loader).getClassLoader());
+            assertEquals("abcc", template.render());
+
+            // A modified template is compiled again
+            template = engine.createTemplate("war:/groovy/webui/UIFoo.gtmpl", "UIFoo.gtmpl", TEXT + "d");
+            assertFalse("gtmpl.groovy.webui.UIFoo_gtmpl".equals(template.getClassName()));
+            assertEquals("abccd", template.render());
+
+            // Unless precompiled templates are disabled
+            engine = new GroovyTemplateEngine(false);
+            template = engine.createTemplate("war:/groovy/webui/UIFoo.gtmpl", "UIFoo.gtmpl", TEXT);
+            assertFalse("gtmpl.groovy.webui.UIFoo_gtmpl".equals(template.getClassName()));
+            assertEquals("abcc", template.render());
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+        }
+    }
+}
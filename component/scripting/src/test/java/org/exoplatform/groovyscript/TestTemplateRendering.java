@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.text.DateFormat;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.EmptyStackException;
 import java.util.HashMap;
@@ -88,6 +89,50 @@ public class TestTemplateRendering extends AbstractGateInTest {
         assertEquals(dateToTest.toString(), template.render());
     }
 
+    public void testFormat() throws Exception {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(new Date(0));
+        Map<String, Object> context = new HashMap<String, Object>();
+        context.put("calendar", calendar);
+        GroovyTemplate template = new GroovyTemplate("<% out.setFormat(Number, new java.text.DecimalFormat('0.00')); "
+                + "out.setFormat(Calendar, java.text.DateFormat.getDateInstance(java.text.DateFormat.SHORT, Locale.ENGLISH)); %>"
+                + "<%= 3 %>|${1.5}|<%= calendar %>|<%= new Date(0) %>");
+        String expected = "3.00|1.50|" + DateFormat.getDateInstance(DateFormat.SHORT, Locale.ENGLISH).format(new Date(0)) + "|"
+                + dateFormatFR.format(new Date(0));
+        assertEquals(expected, template.render(context, Locale.FRENCH));
+    }
+
+    public void testFormatter() throws Exception {
+        GroovyTemplate template = new GroovyTemplate("<% out.formatter = { o, locale -> o instanceof Number ? o * 2 : o } "
+                + "as org.exoplatform.groovyscript.ObjectFormatter %><%= 3 %>|${'a'}");
+        assertEquals("6|a", template.render(Locale.ENGLISH));
+    }
+
+    public void testPrintHTML() throws Exception {
+        GroovyTemplate template = new GroovyTemplate("<% out.printHTML('<b>Home</b>'); out.printHTML(3) %>");
+        assertEquals("&lt;b&gt;Home&lt;&#x2f;b&gt;3", template.render());
+    }
+
+    public void testDateTable() throws Exception {
+        int rows = 200;
+        int columns = 10;
+        Date[][] table = new Date[rows][columns];
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            expected.append("<tr>");
+            for (int j = 0; j < columns; j++) {
+                table[i][j] = new Date((i * columns + j) * 24L * 60 * 60 * 1000);
+                expected.append("<td>").append(dateFormatFR.format(table[i][j])).append("</td>");
+            }
+            expected.append("</tr>");
+        }
+        Map<String, Object> context = new HashMap<String, Object>();
+        context.put("table", table);
+        GroovyTemplate template = new GroovyTemplate("<% for (row in table) { %><tr><% for (date in row) { %>"
+                + "<td>$date</td><% } %></tr><% } %>");
+        assertEquals(expected.toString(), template.render(context, Locale.FRENCH));
+    }
+
     public void testFoo() throws Exception {
         GroovyTemplate template = new GroovyTemplate("a");
         String render = template.render();
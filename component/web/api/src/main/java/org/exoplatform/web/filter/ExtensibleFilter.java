@@ -22,7 +22,6 @@ package org.exoplatform.web.filter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 
 import javax.servlet.FilterChain;
@@ -43,6 +42,11 @@ public class ExtensibleFilter {
      */
     private volatile List<FilterDefinition> filters = Collections.unmodifiableList(new ArrayList<FilterDefinition>());
 
+    /**
+     * The dispatch table compiled from the sub filters, it is rebuilt when sub filters are added
+     */
+    private volatile FilterDispatcher dispatcher = new FilterDispatcher(filters);
+
     /**
      * Adds new {@link FilterDefinition}
      */
@@ -61,13 +65,14 @@ public class ExtensibleFilter {
         synchronized (this) {
             List<FilterDefinition> result = new ArrayList<FilterDefinition>(filters);
             result.addAll(pluginFilters);
+            this.dispatcher = new FilterDispatcher(result);
             this.filters = Collections.unmodifiableList(result);
         }
     }
 
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain, String path) throws IOException,
             ServletException {
-        ExtensibleFilterChain efChain = new ExtensibleFilterChain(chain, filters, path);
+        ExtensibleFilterChain efChain = new ExtensibleFilterChain(chain, dispatcher.resolve(path));
         efChain.doFilter(request, response);
     }
 
@@ -75,25 +80,24 @@ public class ExtensibleFilter {
 
         private final FilterChain parentChain;
 
-        private final Iterator<FilterDefinition> filters;
+        /**
+         * The sub filters whose mapping matches the path
+         */
+        private final FilterDefinition[] filters;
 
-        private final String path;
+        private int index;
 
-        private ExtensibleFilterChain(FilterChain parentChain, List<FilterDefinition> filters, String path_) {
+        private ExtensibleFilterChain(FilterChain parentChain, FilterDefinition[] filters) {
             this.parentChain = parentChain;
-            this.filters = filters.iterator();
-            this.path = path_;
+            this.filters = filters;
         }
 
         public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
-            while (filters.hasNext()) {
-                FilterDefinition filterDef = filters.next();
-                if (filterDef.getMapping().match(path)) {
-                    filterDef.getFilter().doFilter(request, response, this);
-                    return;
-                }
+            if (index < filters.length) {
+                filters[index++].getFilter().doFilter(request, response, this);
+            } else {
+                parentChain.doFilter(request, response);
             }
-            parentChain.doFilter(request, response);
         }
     }
 }
@@ -20,6 +20,7 @@
 package org.exoplatform.web.filter;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -74,17 +75,23 @@ public class FilterDefinition {
     /**
      * This class is used to defined a mapping based on a list of regular expression
      */
-    private static class PatternMapping implements FilterMapping {
+    static class PatternMapping implements FilterMapping {
 
         /**
          * the list of regular expressions
          */
         private final List<Pattern> patterns;
 
+        /**
+         * the regular expressions as they are defined
+         */
+        private final List<String> strPatterns;
+
         private PatternMapping(List<String> strPatterns) {
             if (strPatterns == null || strPatterns.isEmpty()) {
                 throw new IllegalArgumentException("The list of patterns cannot be empty");
             }
+            this.strPatterns = Collections.unmodifiableList(new ArrayList<String>(strPatterns));
             this.patterns = new ArrayList<Pattern>(strPatterns.size());
             for (String sPattern : strPatterns) {
                 patterns.add(Pattern.compile(sPattern));
@@ -105,5 +112,11 @@ public class FilterDefinition {
             return false;
         }
 
+        /**
+         * @return the regular expressions as they are defined
+         */
+        List<String> getPatterns() {
+            return strPatterns;
+        }
     }
 }
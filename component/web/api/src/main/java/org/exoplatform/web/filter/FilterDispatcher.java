@@ -0,0 +1,235 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.web.filter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * The immutable dispatch table of the {@link ExtensibleFilter} compiled from its filter definitions. The patterns of the
+ * mappings that are a plain path, a plain prefix followed by <code>.*</code> or <code>.*</code> followed by a plain
+ * suffix are matched with string comparisons, the other patterns are matched with their regular expression and the
+ * filters resolved for a path are then cached.
+ *
+ * @version $Revision$
+ */
+class FilterDispatcher {
+
+    /** The maximum number of paths whose resolved filters are cached. */
+    static final int MAX_CACHED_PATHS = 1024;
+
+    /** . */
+    private static final FilterDefinition[] NO_FILTERS = new FilterDefinition[0];
+
+    /** . */
+    private final FilterDefinition[] definitions;
+
+    /** The matcher of each definition. */
+    private final PathMatcher[] matchers;
+
+    /** The filters resolved per path or null when resolving them does not involve regular expressions. */
+    private final ConcurrentMap<String, FilterDefinition[]> cache;
+
+    FilterDispatcher(List<FilterDefinition> definitions) {
+        boolean cached = false;
+        PathMatcher[] matchers = new PathMatcher[definitions.size()];
+        for (int i = 0; i < matchers.length; i++) {
+            FilterMapping mapping = definitions.get(i).getMapping();
+            if (mapping instanceof FilterDefinition.PatternMapping) {
+                PatternMatcher matcher = new PatternMatcher(((FilterDefinition.PatternMapping) mapping).getPatterns());
+                cached |= matcher.regexes.length > 0;
+                matchers[i] = matcher;
+            } else {
+                matchers[i] = new MappingMatcher(mapping);
+            }
+        }
+
+        //
+        this.definitions = definitions.toArray(new FilterDefinition[definitions.size()]);
+        this.matchers = matchers;
+        this.cache = cached ? new ConcurrentHashMap<String, FilterDefinition[]>() : null;
+    }
+
+    /**
+     * Returns the definitions whose mapping matches a path in registration order.
+     *
+     * @param path the path
+     * @return the matching definitions
+     */
+    FilterDefinition[] resolve(String path) {
+        if (cache != null) {
+            FilterDefinition[] resolved = cache.get(path);
+            if (resolved == null) {
+                resolved = match(path);
+                if (cache.size() < MAX_CACHED_PATHS) {
+                    cache.put(path, resolved);
+                }
+            }
+            return resolved;
+        } else {
+            return match(path);
+        }
+    }
+
+    private FilterDefinition[] match(String path) {
+        List<FilterDefinition> matched = null;
+        for (int i = 0; i < matchers.length; i++) {
+            if (matchers[i].match(path)) {
+                if (matched == null) {
+                    matched = new ArrayList<FilterDefinition>(matchers.length - i);
+                }
+                matched.add(definitions[i]);
+            }
+        }
+        return matched != null ? matched.toArray(new FilterDefinition[matched.size()]) : NO_FILTERS;
+    }
+
+    /**
+     * Returns the plain string matched by a regular expression or null when the expression is not a plain string.
+     *
+     * @param regex the regular expression
+     * @return the plain string
+     */
+    static String toLiteral(String regex) {
+        StringBuilder literal = new StringBuilder(regex.length());
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                // An escaped character is plain unless it is a character class or a construct such as \d or \Q
+                if (++i == regex.length()) {
+                    return null;
+                }
+                c = regex.charAt(i);
+                if (Character.isLetterOrDigit(c)) {
+                    return null;
+                }
+            } else if (".[]{}()*+?^$|".indexOf(c) != -1) {
+                return null;
+            }
+            literal.append(c);
+        }
+        return literal.toString();
+    }
+
+    /**
+     * Returns true when a part of a path is matched by <code>.*</code> that does not match the line terminators.
+     */
+    private static boolean isLine(String path, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = path.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private abstract static class PathMatcher {
+        abstract boolean match(String path);
+    }
+
+    private static class MappingMatcher extends PathMatcher {
+
+        /** . */
+        private final FilterMapping mapping;
+
+        private MappingMatcher(FilterMapping mapping) {
+            this.mapping = mapping;
+        }
+
+        @Override
+        boolean match(String path) {
+            return mapping.match(path);
+        }
+    }
+
+    private static class PatternMatcher extends PathMatcher {
+
+        /** . */
+        private final boolean all;
+
+        /** . */
+        private final Set<String> paths = new HashSet<String>();
+
+        /** . */
+        private final String[] prefixes;
+
+        /** . */
+        private final String[] suffixes;
+
+        /** . */
+        private final Pattern[] regexes;
+
+        private PatternMatcher(List<String> patterns) {
+            boolean all = false;
+            List<String> prefixes = new ArrayList<String>();
+            List<String> suffixes = new ArrayList<String>();
+            List<Pattern> regexes = new ArrayList<Pattern>();
+            for (String pattern : patterns) {
+                String literal;
+                if (pattern.equals(".*")) {
+                    all = true;
+                } else if ((literal = toLiteral(pattern)) != null) {
+                    paths.add(literal);
+                } else if (pattern.endsWith(".*") && (literal = toLiteral(pattern.substring(0, pattern.length() - 2))) != null) {
+                    prefixes.add(literal);
+                } else if (pattern.startsWith(".*") && (literal = toLiteral(pattern.substring(2))) != null) {
+                    suffixes.add(literal);
+                } else {
+                    regexes.add(Pattern.compile(pattern));
+                }
+            }
+
+            //
+            this.all = all;
+            this.prefixes = prefixes.toArray(new String[prefixes.size()]);
+            this.suffixes = suffixes.toArray(new String[suffixes.size()]);
+            this.regexes = regexes.toArray(new Pattern[regexes.size()]);
+        }
+
+        @Override
+        boolean match(String path) {
+            if (paths.contains(path) || all && isLine(path, 0, path.length())) {
+                return true;
+            }
+            for (String prefix : prefixes) {
+                if (path.startsWith(prefix) && isLine(path, prefix.length(), path.length())) {
+                    return true;
+                }
+            }
+            for (String suffix : suffixes) {
+                if (path.endsWith(suffix) && isLine(path, 0, path.length() - suffix.length())) {
+                    return true;
+                }
+            }
+            for (Pattern regex : regexes) {
+                if (regex.matcher(path).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2013 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.exoplatform.web.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.exoplatform.component.test.AbstractGateInTest;
+
+/**
+ * @version $Revision$
+ */
+public class TestFilterDispatcher extends AbstractGateInTest {
+
+    /** . */
+    private static final String[] PATTERNS = { ".*", "/.*", ".*/favicon\\.ico", "/portal/rest/.*", "/portal/login",
+            ".*\\.(gif|png)", "/portal/[a-z]+/page", "\\d+", ".*\\.", "/portal\\.*" };
+
+    /** . */
+    private static final String[] PATHS = { "", "/", "/favicon.ico", "/portal/favicon.ico", "/portal/favicon.icon",
+            "/portal/rest/", "/portal/rest/jcr/repository", "/portal/restx", "/portal/login", "/portal/login/",
+            "/portal/img.gif", "/portal/img.png", "/portal/classic/page", "/portal/Classic/page", "123", "/portal.",
+            "/portal..", "/portal/rest/a\nb", "a\nb" };
+
+    public void testToLiteral() {
+        assertEquals("/portal/login", FilterDispatcher.toLiteral("/portal/login"));
+        assertEquals("/favicon.ico", FilterDispatcher.toLiteral("/favicon\\.ico"));
+        assertEquals("\\", FilterDispatcher.toLiteral("\\\\"));
+        assertNull(FilterDispatcher.toLiteral(".*"));
+        assertNull(FilterDispatcher.toLiteral("/portal/[a-z]+"));
+        assertNull(FilterDispatcher.toLiteral("\\d"));
+        assertNull(FilterDispatcher.toLiteral("\\"));
+    }
+
+    public void testMatchLikeRegex() {
+        for (String pattern : PATTERNS) {
+            FilterDefinition definition = new FilterDefinition(null, Arrays.asList(pattern));
+            FilterDispatcher dispatcher = new FilterDispatcher(Arrays.asList(definition));
+            for (String path : PATHS) {
+                boolean expected = Pattern.compile(pattern).matcher(path).matches();
+                assertEquals("Pattern " + pattern + " with path " + path, expected, dispatcher.resolve(path).length == 1);
+            }
+        }
+    }
+
+    public void testRegistrationOrder() {
+        List<FilterDefinition> definitions = new ArrayList<FilterDefinition>();
+        FilterDefinition favicon = new FilterDefinition(null, Arrays.asList(".*/favicon\\.ico"));
+        FilterDefinition rest = new FilterDefinition(null, Arrays.asList("/portal/rest/.*"));
+        FilterDefinition all = new FilterDefinition(null, Arrays.asList(".*"));
+        definitions.add(favicon);
+        definitions.add(rest);
+        definitions.add(all);
+        FilterDispatcher dispatcher = new FilterDispatcher(definitions);
+        assertEquals(Arrays.asList(favicon, all), Arrays.asList(dispatcher.resolve("/portal/favicon.ico")));
+        assertEquals(Arrays.asList(rest, all), Arrays.asList(dispatcher.resolve("/portal/rest/jcr")));
+        assertEquals(Arrays.asList(all), Arrays.asList(dispatcher.resolve("/portal/classic")));
+        assertEquals(0, new FilterDispatcher(new ArrayList<FilterDefinition>()).resolve("/portal").length);
+    }
+
+    public void testCustomMapping() {
+        FilterDefinition definition = new FilterDefinition() {
+            @Override
+            public FilterMapping getMapping() {
+                return new FilterMapping() {
+                    public boolean match(String path) {
+                        return path.length() > 3;
+                    }
+                };
+            }
+        };
+        FilterDispatcher dispatcher = new FilterDispatcher(Arrays.asList(definition));
+        assertEquals(1, dispatcher.resolve("/portal").length);
+        assertEquals(0, dispatcher.resolve("/p").length);
+    }
+
+    public void testCachedPaths() {
+        FilterDefinition definition = new FilterDefinition(null, Arrays.asList("/portal/[a-z]+/page"));
+        FilterDispatcher dispatcher = new FilterDispatcher(Arrays.asList(definition));
+        for (int i = 0; i < FilterDispatcher.MAX_CACHED_PATHS * 2; i++) {
+            assertEquals(0, dispatcher.resolve("/portal/" + i + "/page").length);
+        }
+        assertEquals(1, dispatcher.resolve("/portal/classic/page").length);
+    }
+}
@@ -36,7 +36,8 @@ import org.gatein.security.oauth.spi.OAuthProviderType;
 import org.gatein.security.oauth.spi.OAuthProviderTypeRegistry;
 
 /**
- * Listener for invalidate access token of particular user, if OAuth username of this user is changed to different value
+ * Listener for invalidate access token of particular user, if OAuth username of this user is changed to different value.
+ * It also invalidates the OAuth usernames and access tokens cached by {@link SocialNetworkServiceImpl} for this user
  *
  * @author <a href="mailto:mposolda@redhat.com">Marek Posolda</a>
  */
@@ -64,6 +65,7 @@ public class AccessTokenInvalidationListener extends UserProfileEventListener {
         for (OAuthProviderType opt : oauthProviderTypeRegistry.getEnabledOAuthProviders()) {
             String oauthProviderUsername = userProfile.getAttribute(opt.getUserNameAttrName());
             String foundOauthProviderUsername = foundUserProfile.getAttribute(opt.getUserNameAttrName());
+            invalidate(opt, userProfile.getUserName(), oauthProviderUsername, foundOauthProviderUsername);
 
             // This means that oauthUsername has been changed. We may need to invalidate current accessToken as well
             if (!Safe.equals(oauthProviderUsername, foundOauthProviderUsername)) {
@@ -81,4 +83,30 @@ public class AccessTokenInvalidationListener extends UserProfileEventListener {
             }
         }
     }
+
+    @Override
+    public void postSave(UserProfile userProfile, boolean isNew) throws Exception {
+        // Invalidate again as a concurrent request may have cached the previous access token before the profile was saved
+        if (oauthCodec instanceof SocialNetworkServiceImpl) {
+            for (OAuthProviderType opt : oauthProviderTypeRegistry.getEnabledOAuthProviders()) {
+                ((SocialNetworkServiceImpl)oauthCodec).invalidateAccessToken(opt, userProfile.getUserName());
+            }
+        }
+    }
+
+    @Override
+    public void postDelete(UserProfile userProfile) throws Exception {
+        for (OAuthProviderType opt : oauthProviderTypeRegistry.getEnabledOAuthProviders()) {
+            invalidate(opt, userProfile.getUserName(), userProfile.getAttribute(opt.getUserNameAttrName()), null);
+        }
+    }
+
+    private void invalidate(OAuthProviderType opt, String username, String oauthProviderUsername, String previousOauthProviderUsername) {
+        if (oauthCodec instanceof SocialNetworkServiceImpl) {
+            SocialNetworkServiceImpl socialNetworkService = (SocialNetworkServiceImpl)oauthCodec;
+            socialNetworkService.invalidateAccessToken(opt, username);
+            socialNetworkService.invalidateOAuthProviderUsername(opt, oauthProviderUsername);
+            socialNetworkService.invalidateOAuthProviderUsername(opt, previousOauthProviderUsername);
+        }
+    }
 }
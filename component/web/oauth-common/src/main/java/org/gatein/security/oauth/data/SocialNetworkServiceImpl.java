@@ -23,10 +23,13 @@
 
 package org.gatein.security.oauth.data;
 
+import java.io.Serializable;
 import java.lang.reflect.Method;
 
 import org.exoplatform.container.ExoContainer;
 import org.exoplatform.container.component.ComponentRequestLifecycle;
+import org.exoplatform.services.cache.CacheService;
+import org.exoplatform.services.cache.ExoCache;
 import org.exoplatform.services.organization.OrganizationService;
 import org.exoplatform.services.organization.User;
 import org.exoplatform.services.organization.UserHandler;
@@ -38,6 +41,7 @@ import org.exoplatform.web.security.codec.CodecInitializer;
 import org.exoplatform.web.security.security.TokenServiceInitializationException;
 import org.gatein.security.oauth.spi.AccessTokenContext;
 import org.gatein.security.oauth.exception.OAuthException;
+import org.gatein.common.io.IOTools;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
 import org.gatein.security.oauth.spi.OAuthCodec;
@@ -55,22 +59,61 @@ public class SocialNetworkServiceImpl implements SocialNetworkService, OAuthCode
 
     private static Logger log = LoggerFactory.getLogger(SocialNetworkServiceImpl.class);
 
+    /** The name of the cache of the portal usernames by OAuth provider username. */
+    public static final String USERNAME_CACHE_NAME = "OAuthProviderUsername";
+
+    /** The name of the cache of the decoded access tokens by portal username. */
+    public static final String ACCESS_TOKEN_CACHE_NAME = "OAuthAccessToken";
+
     private OrganizationService orgService;
     private AbstractCodec codec;
 
-    public SocialNetworkServiceImpl(OrganizationService orgService, CodecInitializer codecInitializer) throws TokenServiceInitializationException {
+    // Cache of portal usernames, the key is the provider key and the OAuth provider username
+    private final ExoCache<String, String> usernameCache;
+
+    // Cache of decoded access tokens, the key is the provider key and the portal username
+    private final ExoCache<String, AccessTokenContext> accessTokenCache;
+
+    // The findUserByUniqueAttribute method of the user handler, resolved once
+    private volatile Method findUserByUniqueAttribute;
+
+    public SocialNetworkServiceImpl(OrganizationService orgService, CodecInitializer codecInitializer, CacheService cacheService) throws TokenServiceInitializationException {
         this.orgService = orgService;
         this.codec = codecInitializer.getCodec();
+        this.usernameCache = cacheService.getCacheInstance(USERNAME_CACHE_NAME);
+        this.accessTokenCache = cacheService.getCacheInstance(ACCESS_TOKEN_CACHE_NAME);
     }
 
     @Override
     public User findUserByOAuthProviderUsername(OAuthProviderType oauthProviderType, String oauthProviderUsername) {
         UserHandler userHandler = orgService.getUserHandler();
 
+        // The cached username is only a hint, the user is loaded by name and its profile must still hold the OAuth username,
+        // which is cheap compared to the attribute query
+        String key = getKey(oauthProviderType, oauthProviderUsername);
+        String username = usernameCache.get(key);
+        if (username != null) {
+            try {
+                User user = userHandler.findUserByName(username, UserStatus.ANY);
+                if (user != null) {
+                    UserProfile userProfile = orgService.getUserProfileHandler().findUserProfileByName(username);
+                    if (userProfile != null && oauthProviderUsername.equals(userProfile.getAttribute(oauthProviderType.getUserNameAttrName()))) {
+                        return user;
+                    }
+                }
+            } catch (Exception e) {
+                throw new OAuthException(OAuthExceptionCode.PERSISTENCE_ERROR, e);
+            }
+            usernameCache.remove(key);
+        }
+
         // TODO: Ugly, but it's used due to OrganizationService API limitations because it doesn't allow to find user by unique userProfile attribute
         try {
-            Method m = userHandler.getClass().getDeclaredMethod("findUserByUniqueAttribute", String.class, String.class, UserStatus.class);
-            return (User)m.invoke(userHandler, oauthProviderType.getUserNameAttrName(), oauthProviderUsername, UserStatus.ANY);
+            User user = (User)getFindUserByUniqueAttribute(userHandler).invoke(userHandler, oauthProviderType.getUserNameAttrName(), oauthProviderUsername, UserStatus.ANY);
+            if (user != null) {
+                usernameCache.put(key, user.getUserName());
+            }
+            return user;
         } catch (NoSuchMethodException e) {
             String error = "Method findUserByUniqueAttribute(String, String, boolean) is not available on userHandler object " + userHandler +
                     "of class " + userHandler.getClass();
@@ -81,6 +124,15 @@ public class SocialNetworkServiceImpl implements SocialNetworkService, OAuthCode
         }
     }
 
+    private Method getFindUserByUniqueAttribute(UserHandler userHandler) throws NoSuchMethodException {
+        Method m = findUserByUniqueAttribute;
+        if (m == null || m.getDeclaringClass() != userHandler.getClass()) {
+            m = userHandler.getClass().getDeclaredMethod("findUserByUniqueAttribute", String.class, String.class, UserStatus.class);
+            findUserByUniqueAttribute = m;
+        }
+        return m;
+    }
+
     @Override
     public <T extends AccessTokenContext> void updateOAuthAccessToken(OAuthProviderType<T> oauthProviderType, String username, T accessToken) {
         try {
@@ -94,6 +146,7 @@ public class SocialNetworkServiceImpl implements SocialNetworkService, OAuthCode
             oauthProviderProcessor.saveAccessTokenAttributesToUserProfile(userProfile, this, accessToken);
 
             userProfileHandler.saveUserProfile(userProfile, true);
+            invalidateAccessToken(oauthProviderType, username);
         } catch (OAuthException oauthEx) {
             throw oauthEx;
         } catch (Exception e) {
@@ -103,6 +156,13 @@ public class SocialNetworkServiceImpl implements SocialNetworkService, OAuthCode
 
     @Override
     public <T extends AccessTokenContext> T getOAuthAccessToken(OAuthProviderType<T> oauthProviderType, String username) {
+        String key = getKey(oauthProviderType, username);
+        AccessTokenContext cached = accessTokenCache.get(key);
+        if (cached != null) {
+            // Callers may add scopes to the token so they are given their own copy
+            return (T)copy(cached);
+        }
+
         try {
             UserProfileHandler userProfileHandler = orgService.getUserProfileHandler();
             UserProfile userProfile = userProfileHandler.findUserProfileByName(username);
@@ -112,7 +172,11 @@ public class SocialNetworkServiceImpl implements SocialNetworkService, OAuthCode
             }
 
             OAuthProviderProcessor<T> oauthProviderProcessor = oauthProviderType.getOauthProviderProcessor();
-            return oauthProviderProcessor.getAccessTokenFromUserProfile(userProfile, this);
+            T accessToken = oauthProviderProcessor.getAccessTokenFromUserProfile(userProfile, this);
+            if (accessToken != null) {
+                accessTokenCache.put(key, copy(accessToken));
+            }
+            return accessToken;
         } catch (Exception e) {
             throw new OAuthException(OAuthExceptionCode.PERSISTENCE_ERROR, e);
         }
@@ -132,6 +196,7 @@ public class SocialNetworkServiceImpl implements SocialNetworkService, OAuthCode
             oauthProviderProcessor.removeAccessTokenFromUserProfile(userProfile);
 
             userProfileHandler.saveUserProfile(userProfile, true);
+            invalidateAccessToken(oauthProviderType, username);
         } catch (Exception e) {
             throw new OAuthException(OAuthExceptionCode.PERSISTENCE_ERROR, e);
         }
@@ -151,6 +216,7 @@ public class SocialNetworkServiceImpl implements SocialNetworkService, OAuthCode
             OAuthProviderProcessor<T> oauthProviderProcessor = oauthProviderType.getOauthProviderProcessor();
             oauthProviderProcessor.saveAccessTokenAttributesToUserProfile(userProfile, this, accessToken);
             userProfileHandler.saveUserProfile(userProfile, true);
+            invalidateAccessToken(oauthProviderType, username);
         } catch (OAuthException oauthEx) {
             throw oauthEx;
         } catch (Exception e) {
@@ -158,6 +224,34 @@ public class SocialNetworkServiceImpl implements SocialNetworkService, OAuthCode
         }
     }
 
+    /**
+     * Removes the cached access token of a user for an OAuth provider.
+     */
+    void invalidateAccessToken(OAuthProviderType<?> oauthProviderType, String username) {
+        accessTokenCache.remove(getKey(oauthProviderType, username));
+    }
+
+    /**
+     * Removes the cached portal username of an OAuth provider username.
+     */
+    void invalidateOAuthProviderUsername(OAuthProviderType<?> oauthProviderType, String oauthProviderUsername) {
+        if (oauthProviderUsername != null) {
+            usernameCache.remove(getKey(oauthProviderType, oauthProviderUsername));
+        }
+    }
+
+    private static String getKey(OAuthProviderType<?> oauthProviderType, String name) {
+        return oauthProviderType.getKey() + ":" + name;
+    }
+
+    private static <T extends Serializable> T copy(T object) {
+        try {
+            return IOTools.clone(object);
+        } catch (Exception e) {
+            throw new OAuthException(OAuthExceptionCode.PERSISTENCE_ERROR, e);
+        }
+    }
+
     @Override
     public String encodeString(String input) {
         if (input == null) {
@@ -31,6 +31,8 @@ import org.exoplatform.component.test.ConfigurationUnit;
 import org.exoplatform.component.test.ConfiguredBy;
 import org.exoplatform.component.test.ContainerScope;
 import org.exoplatform.container.PortalContainer;
+import org.exoplatform.services.cache.CacheService;
+import org.exoplatform.services.cache.ExoCache;
 import org.exoplatform.services.organization.OrganizationService;
 import org.exoplatform.services.organization.User;
 import org.exoplatform.services.organization.UserProfile;
@@ -41,6 +43,7 @@ import org.gatein.security.oauth.exception.OAuthExceptionCode;
 import org.gatein.security.oauth.exception.OAuthException;
 import org.gatein.security.oauth.spi.OAuthProviderType;
 import org.gatein.security.oauth.common.OAuthConstants;
+import org.gatein.security.oauth.data.SocialNetworkServiceImpl;
 import org.gatein.security.oauth.spi.OAuthProviderTypeRegistry;
 import org.gatein.security.oauth.spi.SocialNetworkService;
 import org.gatein.security.oauth.facebook.FacebookAccessTokenContext;
@@ -294,6 +297,36 @@ public class TestSocialNetworkService extends AbstractKernelTest {
         orgService.getUserHandler().removeUser(user1.getUserName(), false);
     }
 
+    public void testCachedOAuthData() throws Exception {
+        User user1 = new UserImpl("testUser1");
+        orgService.getUserHandler().createUser(user1, false);
+        socialNetworkService.updateOAuthInfo(getFacebookProvider(), user1.getUserName(), "fbUsername1", createFacebookAccessToken("fbAccessToken1"));
+
+        // The cached access token is not modified by the caller
+        FacebookAccessTokenContext accessToken = socialNetworkService.getOAuthAccessToken(getFacebookProvider(), user1.getUserName());
+        accessToken.addScope("publish_stream");
+        accessToken = socialNetworkService.getOAuthAccessToken(getFacebookProvider(), user1.getUserName());
+        assertEquals("fbAccessToken1", accessToken.getAccessToken());
+        assertFalse(accessToken.isScopeAvailable("publish_stream"));
+
+        // The cached user is not found anymore by its previous OAuth username
+        assertEquals(user1.getUserName(), socialNetworkService.findUserByOAuthProviderUsername(getFacebookProvider(), "fbUsername1").getUserName());
+        UserProfile userProfile1 = orgService.getUserProfileHandler().findUserProfileByName(user1.getUserName());
+        userProfile1.setAttribute(getFacebookProvider().getUserNameAttrName(), "fbUsername2");
+        orgService.getUserProfileHandler().saveUserProfile(userProfile1, true);
+        assertNull(socialNetworkService.findUserByOAuthProviderUsername(getFacebookProvider(), "fbUsername1"));
+        assertEquals(user1.getUserName(), socialNetworkService.findUserByOAuthProviderUsername(getFacebookProvider(), "fbUsername2").getUserName());
+
+        // A cached username that does not match the profile anymore is not trusted
+        CacheService cacheService = (CacheService) PortalContainer.getInstance().getComponentInstanceOfType(CacheService.class);
+        ExoCache<String, String> usernameCache = cacheService.getCacheInstance(SocialNetworkServiceImpl.USERNAME_CACHE_NAME);
+        usernameCache.put(getFacebookProvider().getKey() + ":fbUsername3", user1.getUserName());
+        assertNull(socialNetworkService.findUserByOAuthProviderUsername(getFacebookProvider(), "fbUsername3"));
+        assertNull(usernameCache.get(getFacebookProvider().getKey() + ":fbUsername3"));
+
+        orgService.getUserHandler().removeUser(user1.getUserName(), false);
+    }
+
     private OAuthProviderType<FacebookAccessTokenContext> getFacebookProvider() {
         return oAuthProviderTypeRegistry.getOAuthProvider(OAuthConstants.OAUTH_PROVIDER_KEY_FACEBOOK, FacebookAccessTokenContext.class);
     }
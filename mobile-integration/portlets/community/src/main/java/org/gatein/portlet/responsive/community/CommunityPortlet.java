@@ -53,6 +53,22 @@ public class CommunityPortlet extends GenericPortlet {
     private String PFX_BLOG_AUTHOR = "pfx.url.author";
     private static final Logger log = LoggerFactory.getLogger(CommunityPortlet.class);
 
+    /** The feeds shared by the requests of the portlet. */
+    private FeedCache cache;
+
+    @Override
+    public void init() throws PortletException {
+        cache = new FeedCache(FeedCache.DEFAULT_TTL);
+    }
+
+    @Override
+    public void destroy() {
+        if (cache != null) {
+            cache.close();
+            cache = null;
+        }
+    }
+
     @Override
     protected void doView(RenderRequest request, RenderResponse response) throws PortletException, IOException {
         PortletRequestDispatcher prd = getPortletContext().getRequestDispatcher("/jsp/community.jsp");
@@ -65,7 +81,7 @@ public class CommunityPortlet extends GenericPortlet {
 
         try {
             URL rssSourceUrl = new URL(urlRss);
-            rssReaderBean.setFeedTitles(RomeRssControllerBean.getFeedTitles(rssSourceUrl, head));
+            rssReaderBean.setFeedTitles(RomeRssControllerBean.getFeedTitles(cache, rssSourceUrl, head));
             rssReaderBean.setContentSource(new URL(urlContent));
             rssReaderBean.setAuthorUrlPrefix(pfxBlogAuthor);
         } catch (IOException e) {
@@ -0,0 +1,197 @@
+/******************************************************************************
+ * JBoss, a division of Red Hat                                               *
+ * Copyright 2013, Red Hat Middleware, LLC, and individual                    *
+ * contributors as indicated by the @authors tag. See the                     *
+ * copyright.txt in the distribution for a full listing of                    *
+ * individual contributors.                                                   *
+ *                                                                            *
+ * This is free software; you can redistribute it and/or modify it            *
+ * under the terms of the GNU Lesser General Public License as                *
+ * published by the Free Software Foundation; either version 2.1 of           *
+ * the License, or (at your option) any later version.                        *
+ *                                                                            *
+ * This software is distributed in the hope that it will be useful,           *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of             *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU           *
+ * Lesser General Public License for more details.                            *
+ *                                                                            *
+ * You should have received a copy of the GNU Lesser General Public           *
+ * License along with this software; if not, write to the Free                *
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA         *
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.                   *
+ ******************************************************************************/
+package org.gatein.portlet.responsive.community;
+
+import com.sun.syndication.feed.synd.SyndFeed;
+import com.sun.syndication.io.FeedException;
+import com.sun.syndication.io.SyndFeedInput;
+import com.sun.syndication.io.XmlReader;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.gatein.common.logging.Logger;
+import org.gatein.common.logging.LoggerFactory;
+
+/**
+ * A cache of the feeds shared by the requests of a portlet. A feed is fetched when it is first requested, then the cached
+ * feed is served during its time to live. An expired feed is still served while a background thread revalidates it with
+ * a conditional request using the <code>ETag</code> and <code>Last-Modified</code> headers of the previous response, so
+ * a render never waits for a feed that was already fetched. The cache must be closed when it is not used anymore to stop
+ * its background thread.
+ *
+ * @version $Revision$
+ */
+public class FeedCache {
+
+    /** The default time to live of a feed in milliseconds. */
+    public static final long DEFAULT_TTL = 10 * 60 * 1000;
+
+    /** The time to wait for the feed server in milliseconds. */
+    private static final int TIMEOUT = 10 * 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(FeedCache.class);
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    private final long ttl;
+
+    private final ExecutorService refresher;
+
+    public FeedCache(long ttl) {
+        this.ttl = ttl;
+        this.refresher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "FeedCache-refresh");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Returns the feed of a source, the feed is fetched when it is not cached yet and an expired feed is returned while
+     * it is refreshed in the background.
+     *
+     * @param source the feed source
+     * @return the feed
+     * @throws IOException when the feed could not be fetched
+     * @throws FeedException when the feed could not be parsed
+     */
+    public SyndFeed getFeed(URL source) throws IOException, FeedException {
+        String key = source.toExternalForm();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(source);
+            entry.fetch();
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing != null) {
+                entry = existing;
+            }
+        } else if (entry.isExpired() && entry.refreshing.compareAndSet(false, true)) {
+            final Entry refreshed = entry;
+            try {
+                refresher.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            refreshed.fetch();
+                        } catch (Exception e) {
+                            // The stale feed is served until the next attempt
+                            refreshed.expires = System.currentTimeMillis() + ttl;
+                            log.debug("Could not refresh the feed " + refreshed.source + ": " + e);
+                        } finally {
+                            refreshed.refreshing.set(false);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The cache is closed, the stale feed is served
+                refreshed.refreshing.set(false);
+            }
+        }
+        return entry.feed;
+    }
+
+    /**
+     * Removes the cached feeds.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Stops the background thread and removes the cached feeds, the expired feeds are not refreshed anymore.
+     */
+    public void close() {
+        refresher.shutdownNow();
+        entries.clear();
+    }
+
+    private class Entry {
+
+        private final URL source;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private volatile SyndFeed feed;
+
+        private volatile long expires;
+
+        private String etag;
+
+        private long lastModified;
+
+        private Entry(URL source) {
+            this.source = source;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expires;
+        }
+
+        private void fetch() throws IOException, FeedException {
+            URLConnection connection = source.openConnection();
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+            if (feed != null) {
+                if (etag != null) {
+                    connection.setRequestProperty("If-None-Match", etag);
+                }
+                if (lastModified > 0) {
+                    connection.setIfModifiedSince(lastModified);
+                }
+            }
+
+            //
+            boolean modified;
+            if (connection instanceof HttpURLConnection) {
+                modified = ((HttpURLConnection) connection).getResponseCode() != HttpURLConnection.HTTP_NOT_MODIFIED;
+            } else {
+                // Local sources have no conditional requests, the modification date is compared instead
+                modified = feed == null || lastModified == 0 || connection.getLastModified() != lastModified;
+            }
+
+            //
+            if (modified) {
+                XmlReader reader = new XmlReader(connection);
+                try {
+                    feed = new SyndFeedInput().build(reader);
+                } finally {
+                    reader.close();
+                }
+                etag = connection.getHeaderField("ETag");
+                lastModified = connection.getLastModified();
+            } else {
+                connection.getInputStream().close();
+            }
+            expires = System.currentTimeMillis() + ttl;
+        }
+    }
+}
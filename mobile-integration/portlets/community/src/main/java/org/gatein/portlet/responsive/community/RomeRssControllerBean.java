@@ -26,8 +26,6 @@ import com.sun.syndication.feed.synd.SyndEntry;
 import com.sun.syndication.feed.synd.SyndFeed;
 import com.sun.syndication.feed.synd.SyndPerson;
 import com.sun.syndication.io.FeedException;
-import com.sun.syndication.io.SyndFeedInput;
-import com.sun.syndication.io.XmlReader;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -44,40 +42,35 @@ public class RomeRssControllerBean {
 
     private static final Logger log = LoggerFactory.getLogger(RomeRssControllerBean.class);
 
-    public static List<RssTitleBean> getFeedTitles(URL source, int headsize) throws IOException, FeedException {
-        List<RssTitleBean> rssTitleBeanList = new ArrayList<RssTitleBean>();
-        XmlReader reader = null;
+    public static List<RssTitleBean> getFeedTitles(FeedCache cache, URL source, int headsize) throws IOException,
+            FeedException {
+        return getFeedTitles(cache.getFeed(source), headsize);
+    }
 
-        try {
-            reader = new XmlReader(source);
-            SyndFeed feed = new SyndFeedInput().build(reader);
+    static List<RssTitleBean> getFeedTitles(SyndFeed feed, int headsize) {
+        List<RssTitleBean> rssTitleBeanList = new ArrayList<RssTitleBean>();
 
-            for (Iterator i = feed.getEntries().iterator(); i.hasNext() && (headsize-- > 0);) {
-                SyndEntry entry = (SyndEntry) i.next();
+        for (Iterator i = feed.getEntries().iterator(); i.hasNext() && (headsize-- > 0);) {
+            SyndEntry entry = (SyndEntry) i.next();
 
-                RssTitleBean rssTitleBean = new RssTitleBean();
-                rssTitleBean.setTitle(entry.getTitle());
-                rssTitleBean.setLink(entry.getLink());
-                rssTitleBean.setPublishedDate(entry.getPublishedDate());
+            RssTitleBean rssTitleBean = new RssTitleBean();
+            rssTitleBean.setTitle(entry.getTitle());
+            rssTitleBean.setLink(entry.getLink());
+            rssTitleBean.setPublishedDate(entry.getPublishedDate());
 
-                List<RssAuthorBean> rssAuthors = new ArrayList<RssAuthorBean>();
+            List<RssAuthorBean> rssAuthors = new ArrayList<RssAuthorBean>();
 
-                for (SyndPerson author : (List<SyndPerson>) entry.getAuthors()) {
-                    RssAuthorBean rssAuthorBean = new RssAuthorBean();
-                    rssAuthorBean.setName(author.getName());
-                    rssAuthorBean.setUri(author.getUri());
+            for (SyndPerson author : (List<SyndPerson>) entry.getAuthors()) {
+                RssAuthorBean rssAuthorBean = new RssAuthorBean();
+                rssAuthorBean.setName(author.getName());
+                rssAuthorBean.setUri(author.getUri());
 
-                    rssAuthors.add(rssAuthorBean);
-                }
+                rssAuthors.add(rssAuthorBean);
+            }
 
-                rssTitleBean.setAuthors(rssAuthors);
+            rssTitleBean.setAuthors(rssAuthors);
 
-                rssTitleBeanList.add(rssTitleBean);
-            }
-        } finally {
-            if (reader != null) {
-                reader.close();
-            }
+            rssTitleBeanList.add(rssTitleBean);
         }
 
         return rssTitleBeanList;
@@ -0,0 +1,145 @@
+/******************************************************************************
+ * JBoss, a division of Red Hat                                               *
+ * Copyright 2013, Red Hat Middleware, LLC, and individual                    *
+ * contributors as indicated by the @authors tag. See the                     *
+ * copyright.txt in the distribution for a full listing of                    *
+ * individual contributors.                                                   *
+ *                                                                            *
+ * This is free software; you can redistribute it and/or modify it            *
+ * under the terms of the GNU Lesser General Public License as                *
+ * published by the Free Software Foundation; either version 2.1 of           *
+ * the License, or (at your option) any later version.                        *
+ *                                                                            *
+ * This software is distributed in the hope that it will be useful,           *
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of             *
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU           *
+ * Lesser General Public License for more details.                            *
+ *                                                                            *
+ * You should have received a copy of the GNU Lesser General Public           *
+ * License along with this software; if not, write to the Free                *
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA         *
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.                   *
+ ******************************************************************************/
+package org.gatein.portlet.responsive.community;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.syndication.feed.synd.SyndFeed;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @version $Revision$
+ */
+public class FeedCacheTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    private static final String FEED = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<rss version=\"2.0\"><channel><title>Blog</title><link>http://localhost/</link><description>Blog</description>"
+            + "<item><title>First</title><link>http://localhost/1</link></item>"
+            + "<item><title>Second</title><link>http://localhost/2</link></item>"
+            + "<item><title>Third</title><link>http://localhost/3</link></item>" + "</channel></rss>";
+
+    private HttpServer server;
+
+    private URL source;
+
+    /** The cache under test. */
+    private FeedCache cache;
+
+    /** The number of requests received by the server. */
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    /** The number of requests answered with a not modified response. */
+    private final AtomicInteger revalidations = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/feed", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                fetches.incrementAndGet();
+                if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    revalidations.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    byte[] body = FEED.getBytes("UTF-8");
+                    exchange.getResponseHeaders().set("Content-Type", "application/rss+xml; charset=UTF-8");
+                    exchange.getResponseHeaders().set("ETag", ETAG);
+                    exchange.sendResponseHeaders(200, body.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(body);
+                    out.close();
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        source = new URL("http://localhost:" + server.getAddress().getPort() + "/feed");
+    }
+
+    @After
+    public void tearDown() {
+        if (cache != null) {
+            cache.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void testCached() throws Exception {
+        cache = new FeedCache(60 * 1000);
+        SyndFeed feed = cache.getFeed(source);
+        assertEquals(1, fetches.get());
+        for (int i = 0; i < 10; i++) {
+            assertSame(feed, cache.getFeed(source));
+        }
+        assertEquals(1, fetches.get());
+
+        //
+        List<RssTitleBean> titles = RomeRssControllerBean.getFeedTitles(feed, 2);
+        assertEquals(2, titles.size());
+        assertEquals("First", titles.get(0).getTitle());
+        assertEquals("Second", titles.get(1).getTitle());
+    }
+
+    @Test
+    public void testRevalidate() throws Exception {
+        cache = new FeedCache(0);
+        SyndFeed feed = cache.getFeed(source);
+        assertEquals(1, fetches.get());
+
+        // The expired feed is served while it is revalidated in the background
+        assertSame(feed, cache.getFeed(source));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (revalidations.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, revalidations.get());
+
+        // The feed was not modified, the cached feed is kept
+        assertSame(feed, cache.getFeed(source));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        cache = new FeedCache(60 * 1000);
+        cache.getFeed(source);
+        cache.clear();
+        cache.getFeed(source);
+        assertEquals(2, fetches.get());
+        assertEquals(0, revalidations.get());
+    }
+}
@@ -19,6 +19,8 @@
 
 package org.exoplatform.gadget.webui.component;
 
+import java.util.Collections;
+
 import javax.portlet.PortletPreferences;
 import javax.portlet.PortletRequest;
 
@@ -44,7 +46,6 @@ import org.exoplatform.webui.event.Event;
 import org.exoplatform.webui.event.EventListener;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -172,8 +173,10 @@ public class UIGadgetPortlet extends UIPortletApplication {
     private JSONObject fetchMetadata(String url) {
         JSONObject metadata_ = null;
         try {
-            String strMetadata = GadgetUtil.fetchGagdetRpcMetadata(url);
-            metadata_ = new JSONArray(strMetadata).getJSONObject(0).getJSONObject(UIGadget.RPC_RESULT).getJSONObject(url);
+            metadata_ = GadgetUtil.fetchGadgetRpcMetadata(Collections.singleton(url)).get(url);
+            if (metadata_ == null) {
+                throw new JSONException("No metadata returned for " + url);
+            }
             String token = GadgetUtil.createToken(url, new Long(hashCode()));
             metadata_.put("secureToken", token);
         } catch (JSONException e) {
@@ -149,6 +149,11 @@ public class UIDashboardContainer extends org.exoplatform.webui.core.UIContainer
             PortalDataMapper.toUIContainer(uiRoot, dashboard);
         }
 
+        // Fetch the metadata of all the gadgets at once rather than one by one when each gadget renders
+        List<UIGadget> gadgets = new ArrayList<UIGadget>();
+        findComponentOfType(gadgets, UIGadget.class);
+        UIGadget.fetchRpcMetadata(gadgets);
+
         //
         super.processRender(context);
     }
@@ -60,6 +60,8 @@ public abstract class WebuiRequestContext extends RequestContext {
 
     private boolean processRender_ = false;
 
+    private boolean stateChanged_ = false;
+
     private Set<UIComponent> uicomponentToUpdateByAjax;
 
     public WebuiRequestContext(Application app) {
@@ -141,6 +143,23 @@ public abstract class WebuiRequestContext extends RequestContext {
         processRender_ = b;
     }
 
+    /**
+     * Returns true when the UI component tree of this request context was mutated during the request and its state needs
+     * to be stored again by the {@link StateManager}.
+     *
+     * @return true when the state changed
+     */
+    public boolean isStateChanged() {
+        return stateChanged_;
+    }
+
+    /**
+     * Signals that the UI component tree of this request context was mutated during the request.
+     */
+    public void markStateChanged() {
+        stateChanged_ = true;
+    }
+
     public Set<UIComponent> getUIComponentToUpdateByAjax() {
         return uicomponentToUpdateByAjax;
     }
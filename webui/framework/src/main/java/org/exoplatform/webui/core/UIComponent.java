@@ -28,6 +28,7 @@ import org.exoplatform.resolver.ResourceResolver;
 import org.exoplatform.services.log.ExoLogger;
 import org.exoplatform.services.log.Log;
 import org.exoplatform.web.application.Parameter;
+import org.exoplatform.web.application.RequestContext;
 import org.exoplatform.web.application.URLBuilder;
 import org.exoplatform.webui.application.WebuiApplication;
 import org.exoplatform.webui.application.WebuiRequestContext;
@@ -88,6 +89,9 @@ public abstract class UIComponent {
     }
 
     public void setParent(UIComponent uicomponent) {
+        if (this.uiparent != uicomponent) {
+            markStateChanged();
+        }
         this.uiparent = uicomponent;
     }
 
@@ -97,6 +101,9 @@ public abstract class UIComponent {
 
     @SuppressWarnings("unchecked")
     public <T extends UIComponent> T setRendered(boolean b) {
+        if (this.rendered != b) {
+            markStateChanged();
+        }
         this.rendered = b;
         return (T) this;
     }
@@ -139,6 +146,17 @@ public abstract class UIComponent {
         }
     }
 
+    /**
+     * Signals to the current request context that the state of this component changed during the request, so the
+     * {@link org.exoplatform.webui.application.StateManager} stores the component tree again.
+     */
+    protected void markStateChanged() {
+        RequestContext context = RequestContext.getCurrentInstance();
+        if (context instanceof WebuiRequestContext) {
+            ((WebuiRequestContext) context).markStateChanged();
+        }
+    }
+
     private Lifecycle<UIComponent> getLifecycle() throws Exception {
         if (config == null) {
             log.debug("No config was found for " + getClass().getSimpleName() + " with id '" + id + "'. Using a default one.");
@@ -309,6 +327,13 @@ public abstract class UIComponent {
 
         Phase executionPhase = econfig.getExecutionPhase();
         if (executionPhase == phase || executionPhase == Event.Phase.ANY) {
+            // The listeners are executed directly and not through the event, so the state change is signaled here
+            WebuiRequestContext context = event.getRequestContext();
+            if (context != null) {
+                context.markStateChanged();
+            } else {
+                markStateChanged();
+            }
             for (EventListener<T> listener : econfig.getCachedEventListeners()) {
                 listener.execute(event);
             }
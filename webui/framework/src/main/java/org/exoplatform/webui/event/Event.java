@@ -93,6 +93,9 @@ public class Event<T> {
             getRequestContext().setResponseComplete(true);
             log.error("csrfToken is lost or this is an csrf attack");
         } else {
+            if (context_ != null) {
+                context_.markStateChanged();
+            }
             for (EventListener<T> listener : listeners_)
                 listener.execute(this);
         }
@@ -138,6 +138,88 @@ public class ApplicationStatisticService implements Startable {
         return app.executionCount();
     }
 
+    /*
+     * return throughput of an specify application
+     */
+    @Managed
+    @ManagedDescription("The number of request per second of a specified application")
+    @Impact(ImpactType.READ)
+    public double getThroughput(@ManagedDescription("The application id") @ManagedName("applicationId") String appId) {
+        return findApplicationStatistic(appId).getThroughput();
+    }
+
+    /*
+     * Return the median execution time of a specified application
+     */
+    @Managed
+    @ManagedDescription("The median execution time of a specified application in seconds")
+    @Impact(ImpactType.READ)
+    public double getMedianTime(@ManagedDescription("The application id") @ManagedName("applicationId") String appId) {
+        return toSeconds(findApplicationStatistic(appId).getPercentileTime(50));
+    }
+
+    /*
+     * Return the 95th percentile execution time of a specified application
+     */
+    @Managed
+    @ManagedDescription("The 95th percentile execution time of a specified application in seconds")
+    @Impact(ImpactType.READ)
+    public double getPercentile95Time(@ManagedDescription("The application id") @ManagedName("applicationId") String appId) {
+        return toSeconds(findApplicationStatistic(appId).getPercentileTime(95));
+    }
+
+    /*
+     * Return the 99th percentile execution time of a specified application
+     */
+    @Managed
+    @ManagedDescription("The 99th percentile execution time of a specified application in seconds")
+    @Impact(ImpactType.READ)
+    public double getPercentile99Time(@ManagedDescription("The application id") @ManagedName("applicationId") String appId) {
+        return toSeconds(findApplicationStatistic(appId).getPercentileTime(99));
+    }
+
+    /*
+     * Return the 99.9th percentile execution time of a specified application
+     */
+    @Managed
+    @ManagedDescription("The 99.9th percentile execution time of a specified application in seconds")
+    @Impact(ImpactType.READ)
+    public double getPercentile999Time(@ManagedDescription("The application id") @ManagedName("applicationId") String appId) {
+        return toSeconds(findApplicationStatistic(appId).getPercentileTime(99.9));
+    }
+
+    /*
+     * Return a snapshot of the execution times of a specified application
+     */
+    @Managed
+    @ManagedDescription("A snapshot of the count, min, max, mean and percentiles in milliseconds of a specified application")
+    @Impact(ImpactType.READ)
+    public String getSnapshot(@ManagedDescription("The application id") @ManagedName("applicationId") String appId) {
+        return findApplicationStatistic(appId).snapshot().toString();
+    }
+
+    /*
+     * Reset the statistic of a specified application
+     */
+    @Managed
+    @ManagedDescription("Reset the statistic of a specified application")
+    @Impact(ImpactType.IDEMPOTENT_WRITE)
+    public void reset(@ManagedDescription("The application id") @ManagedName("applicationId") String appId) {
+        findApplicationStatistic(appId).reset();
+    }
+
+    /*
+     * Reset the statistics of all applications
+     */
+    @Managed
+    @ManagedDescription("Reset the statistics of all applications")
+    @Impact(ImpactType.IDEMPOTENT_WRITE)
+    public void resetAll() {
+        for (ApplicationStatistic statistic : apps.values()) {
+            statistic.reset();
+        }
+    }
+
     /*
      * returns 10 slowest applications
      */
@@ -19,9 +19,11 @@
 
 package org.exoplatform.portal.application;
 
+import javax.portlet.RenderRequest;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
+import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.commons.utils.Safe;
 import org.exoplatform.portal.application.replication.ApplicationState;
 import org.exoplatform.webui.application.ConfigurationManager;
@@ -41,6 +43,20 @@ public class PortalStateManager extends StateManager {
     /** . */
     private static final Logger log = LoggerFactory.getLogger(PortalStateManager.class);
 
+    /**
+     * The property configuring when the application state is stored in the session: <code>changed</code> (the default)
+     * stores it only when the UI tree was changed during the request, <code>always</code> stores it at the end of every
+     * request.
+     */
+    public static final String STATE_STORE_PROPERTY = "gatein.portal.state.store";
+
+    /** . */
+    private final boolean trackChanges;
+
+    public PortalStateManager() {
+        this.trackChanges = !"always".equals(PropertyManager.getProperty(STATE_STORE_PROPERTY));
+    }
+
     @Override
     public UIApplication restoreUIRootComponent(WebuiRequestContext context) throws Exception {
         context.setStateManager(this);
@@ -93,18 +109,59 @@ public class PortalStateManager extends StateManager {
             // because the session might be invalidated and the response is already commited to the client.
             // That situation happens during a logout that invalidates the HttpSession
             if (session != null) {
-                String key = getKey(context);
-                log.debug("Storing application " + key);
-                session.setAttribute(APPLICATION_ATTRIBUTE_PREFIX + key, new ApplicationState(uiapp, context.getRemoteUser()));
+                store(session, getKey(context), context, uiapp);
             }
         }
     }
 
+    /**
+     * Stores the application in the session unless the session already holds it and the request did not change it.
+     *
+     * @param session the session
+     * @param key the application key
+     * @param context the request context
+     * @param uiapp the application
+     */
+    void store(HttpSession session, String key, WebuiRequestContext context, UIApplication uiapp) {
+        String name = APPLICATION_ATTRIBUTE_PREFIX + key;
+        String userName = context.getRemoteUser();
+
+        // Setting the attribute again is what triggers the replication of the whole UI tree, so we avoid it
+        // when the session already holds this very application and nothing changed during the request
+        if (trackChanges && !isStateChanged(context)) {
+            ApplicationState appState = (ApplicationState) session.getAttribute(name);
+            if (appState != null && appState.holds(uiapp, userName)) {
+                log.debug("Application " + key + " unchanged, not storing it");
+                return;
+            }
+        }
+
+        //
+        log.debug("Storing application " + key);
+        session.setAttribute(name, new ApplicationState(uiapp, userName));
+    }
+
     @Override
     public void expire(String sessionId, WebuiApplication app) {
         // For now do nothing....
     }
 
+    /**
+     * Determines whether the UI tree may have changed during the request. Components signal their mutations to the
+     * request context, however requests that can decode or process state without broadcasting an event (portlet action,
+     * event and resource phases or a portal request targeting a component) are always considered as changed.
+     */
+    private boolean isStateChanged(WebuiRequestContext webuiRC) {
+        if (webuiRC.isStateChanged()) {
+            return true;
+        }
+        if (webuiRC instanceof PortletRequestContext) {
+            return !(((PortletRequestContext) webuiRC).getRequest() instanceof RenderRequest);
+        } else {
+            return webuiRC.getRequestParameter(webuiRC.getUIComponentIdParameterName()) != null;
+        }
+    }
+
     private String getKey(WebuiRequestContext webuiRC) {
         if (webuiRC instanceof PortletRequestContext) {
             PortletRequestContext portletRC = (PortletRequestContext) webuiRC;
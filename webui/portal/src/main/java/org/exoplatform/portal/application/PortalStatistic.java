@@ -19,26 +19,16 @@
 
 package org.exoplatform.portal.application;
 
-import org.gatein.common.concurrent.AtomicPositiveLong;
-import org.gatein.common.concurrent.LongSampler;
+import org.exoplatform.commons.utils.LatencyHistogram;
 
 public class PortalStatistic {
 
-    /** . */
-    private static final int ONE_SECOND = 20000;
+    /** The number of seconds the throughput is computed over. */
+    private static final int THROUGHPUT_SECONDS = 10;
 
     private final String appId;
 
-    private final LongSampler times = new LongSampler(1000);
-
-    private final LongSampler throughput = new LongSampler(1000);
-
-    private final AtomicPositiveLong maxTime = new AtomicPositiveLong();
-
-    private final AtomicPositiveLong minTime = new AtomicPositiveLong();
-
-    // count varible, store number of request
-    private volatile long countRequest = 0;
+    private final LatencyHistogram times = new LatencyHistogram();
 
     public PortalStatistic(String appId) {
         this.appId = appId;
@@ -50,41 +40,29 @@ public class PortalStatistic {
      * @param timeMillis the time to log in milliseconds
      */
     public void logTime(long timeMillis) {
-
-        //
-        times.add(timeMillis);
-
-        // add current time to throughput array
-        throughput.add(System.currentTimeMillis());
-
-        // if time > max time then put a new max time value
-        maxTime.setIfGreater(timeMillis);
-
-        // generate first value for min time
-        minTime.setIfLower(timeMillis);
-
-        //
-        countRequest++;
+        times.record(timeMillis);
     }
 
     public double getMaxTime() {
-        long maxTime = this.maxTime.get();
-        if (maxTime == -1) {
-            return -1;
-        }
-        return maxTime;
+        return times.getMax();
     }
 
     public double getMinTime() {
-        long minTime = this.minTime.get();
-        if (minTime == -1) {
-            return -1;
-        }
-        return minTime;
+        return times.getMin();
     }
 
     public double getAverageTime() {
-        return times.average();
+        return times.getMean();
+    }
+
+    /**
+     * Returns the time below which a percentage of the requests were served.
+     *
+     * @param percentile the percentile between 0 and 100
+     * @return the time in milliseconds or -1 when no request was served
+     */
+    public double getPercentileTime(double percentile) {
+        return times.snapshot().getValueAtPercentile(percentile);
     }
 
     /**
@@ -93,10 +71,26 @@ public class PortalStatistic {
      * @return the throughput
      */
     public double getThroughput() {
-        return throughput.countAboveThreshold(System.currentTimeMillis() - ONE_SECOND);
+        return times.getRate(THROUGHPUT_SECONDS);
     }
 
     public long viewCount() {
-        return countRequest;
+        return times.getCount();
+    }
+
+    /**
+     * Returns a snapshot of the request times.
+     *
+     * @return the snapshot
+     */
+    public LatencyHistogram.Snapshot snapshot() {
+        return times.snapshot();
+    }
+
+    /**
+     * Discards the logged times.
+     */
+    public void reset() {
+        times.reset();
     }
 }
@@ -154,6 +154,78 @@ public class PortalStatisticService implements Startable {
         return findPortalStatistic(id).viewCount();
     }
 
+    /*
+     * Return the median execution time of a specified portal
+     */
+    @Managed
+    @ManagedDescription("The median execution time of a specified portal in seconds")
+    @Impact(ImpactType.READ)
+    public double getMedianTime(@ManagedDescription("The portal id") @ManagedName("portalId") String id) {
+        return toSeconds(findPortalStatistic(id).getPercentileTime(50));
+    }
+
+    /*
+     * Return the 95th percentile execution time of a specified portal
+     */
+    @Managed
+    @ManagedDescription("The 95th percentile execution time of a specified portal in seconds")
+    @Impact(ImpactType.READ)
+    public double getPercentile95Time(@ManagedDescription("The portal id") @ManagedName("portalId") String id) {
+        return toSeconds(findPortalStatistic(id).getPercentileTime(95));
+    }
+
+    /*
+     * Return the 99th percentile execution time of a specified portal
+     */
+    @Managed
+    @ManagedDescription("The 99th percentile execution time of a specified portal in seconds")
+    @Impact(ImpactType.READ)
+    public double getPercentile99Time(@ManagedDescription("The portal id") @ManagedName("portalId") String id) {
+        return toSeconds(findPortalStatistic(id).getPercentileTime(99));
+    }
+
+    /*
+     * Return the 99.9th percentile execution time of a specified portal
+     */
+    @Managed
+    @ManagedDescription("The 99.9th percentile execution time of a specified portal in seconds")
+    @Impact(ImpactType.READ)
+    public double getPercentile999Time(@ManagedDescription("The portal id") @ManagedName("portalId") String id) {
+        return toSeconds(findPortalStatistic(id).getPercentileTime(99.9));
+    }
+
+    /*
+     * Return a snapshot of the execution times of a specified portal
+     */
+    @Managed
+    @ManagedDescription("A snapshot of the count, min, max, mean and percentiles in milliseconds of a specified portal")
+    @Impact(ImpactType.READ)
+    public String getSnapshot(@ManagedDescription("The portal id") @ManagedName("portalId") String id) {
+        return findPortalStatistic(id).snapshot().toString();
+    }
+
+    /*
+     * Reset the statistic of a specified portal
+     */
+    @Managed
+    @ManagedDescription("Reset the statistic of a specified portal")
+    @Impact(ImpactType.IDEMPOTENT_WRITE)
+    public void reset(@ManagedDescription("The portal id") @ManagedName("portalId") String id) {
+        findPortalStatistic(id).reset();
+    }
+
+    /*
+     * Reset the statistics of all portals
+     */
+    @Managed
+    @ManagedDescription("Reset the statistics of all portals")
+    @Impact(ImpactType.IDEMPOTENT_WRITE)
+    public void resetAll() {
+        for (PortalStatistic statistic : apps.values()) {
+            statistic.reset();
+        }
+    }
+
     private double toSeconds(double value) {
         return value == -1 ? -1 : value / 1000D;
     }
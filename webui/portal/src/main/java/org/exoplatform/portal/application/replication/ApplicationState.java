@@ -27,6 +27,7 @@ import java.io.Serializable;
 
 import org.exoplatform.commons.serialization.SerializationContext;
 import org.exoplatform.commons.serialization.api.annotations.Serialized;
+import org.exoplatform.commons.utils.Safe;
 import org.exoplatform.webui.core.UIApplication;
 
 /**
@@ -58,6 +59,18 @@ public class ApplicationState implements Serializable {
         return userName;
     }
 
+    /**
+     * Returns true when this state holds the live instance of the specified application for the specified user, i.e the
+     * application was not replaced and has not been read from a serialized form.
+     *
+     * @param application the application
+     * @param userName the user name
+     * @return true when this state holds the application
+     */
+    public boolean holds(UIApplication application, String userName) {
+        return serialization == null && this.application == application && Safe.equals(this.userName, userName);
+    }
+
     public UIApplication getApplication() throws IOException, ClassNotFoundException {
         if (serialization != null) {
             SerializationContext serializationContext = SerializationContextSingleton.getInstance();
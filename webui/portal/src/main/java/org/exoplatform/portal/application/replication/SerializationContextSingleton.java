@@ -24,6 +24,7 @@ import org.exoplatform.commons.serialization.model.TypeDomain;
 import org.exoplatform.commons.serialization.model.metadata.DomainMetaData;
 import org.exoplatform.commons.utils.LazyList;
 import org.exoplatform.commons.utils.ObjectPageList;
+import org.exoplatform.commons.utils.PropertyManager;
 import org.exoplatform.services.organization.Query;
 import org.exoplatform.services.organization.impl.UserImpl;
 
@@ -33,6 +34,16 @@ import org.exoplatform.services.organization.impl.UserImpl;
  */
 class SerializationContextSingleton {
 
+    /**
+     * The format used to write the application state: <code>java</code> (the default) or <code>compact</code>. Both formats
+     * can always be read, the <code>compact</code> format should only be enabled once every node of the cluster is able to
+     * read it.
+     */
+    static final String FORMAT_PROPERTY = "gatein.serialization.format";
+
+    /** The compression of the compact format: <code>none</code> (the default) or <code>deflate</code>. */
+    static final String COMPRESSION_PROPERTY = "gatein.serialization.compression";
+
     /** . */
     private static SerializationContext instance = createInstance();
 
@@ -57,6 +68,8 @@ class SerializationContextSingleton {
         // Build serialization context
         SerializationContext serializationContext = new SerializationContext(domain);
         serializationContext.addFactory(new UIComponentFactory());
+        serializationContext.setCompact("compact".equals(PropertyManager.getProperty(FORMAT_PROPERTY)));
+        serializationContext.setCompressed("deflate".equals(PropertyManager.getProperty(COMPRESSION_PROPERTY)));
 
         //
         return serializationContext;
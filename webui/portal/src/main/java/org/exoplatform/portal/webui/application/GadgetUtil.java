@@ -23,8 +23,12 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
@@ -37,8 +41,11 @@ import org.exoplatform.container.ExoContainerContext;
 import org.exoplatform.container.PortalContainer;
 import org.exoplatform.portal.gadget.core.SecurityTokenGenerator;
 import org.exoplatform.portal.webui.util.Util;
+import org.exoplatform.services.cache.CacheService;
+import org.exoplatform.services.cache.ExoCache;
 import org.gatein.common.logging.Logger;
 import org.gatein.common.logging.LoggerFactory;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -49,6 +56,9 @@ public class GadgetUtil {
 
     private static final Logger log = LoggerFactory.getLogger(GadgetUtil.class);
 
+    /** The name of the cache of the gadget metadata shared by all the users. */
+    private static final String METADATA_CACHE_NAME = "GadgetMetadata";
+
     public static Gadget toGadget(String name, String path, boolean isLocal) throws Exception {
         Gadget gadget = new Gadget();
         gadget.setName(name);
@@ -106,11 +116,12 @@ public class GadgetUtil {
     }
 
     /**
-     * Fetchs Metatada of gadget application, create the connection to shindig server to get the metadata TODO cache the
-     * informations for better performance
+     * Fetchs Metatada of gadget application, create the connection to shindig server to get the metadata
      *
      * @return the string represents metadata of gadget application
+     * @deprecated use {@link #fetchGadgetRpcMetadata(Collection)} that caches the metadata
      */
+    @Deprecated
     public static String fetchGagdetRpcMetadata(String urlStr) {
         String result = null;
 
@@ -141,6 +152,114 @@ public class GadgetUtil {
         return result;
     }
 
+    /**
+     * Returns the metadata of several gadgets. The metadata is shared by all the users and is cached per gadget url and
+     * locale, the metadata that is not cached is fetched from the gadget server in a single request. The returned objects
+     * belong to the caller that can modify them.
+     *
+     * @param urls the gadget urls
+     * @return the metadata of each gadget url, a gadget which metadata cannot be fetched is absent from the map
+     */
+    public static Map<String, JSONObject> fetchGadgetRpcMetadata(Collection<String> urls) {
+        ExoContainer container = ExoContainerContext.getCurrentContainer();
+        GadgetRegistryService gadgetService = (GadgetRegistryService) container
+                .getComponentInstanceOfType(GadgetRegistryService.class);
+        return fetchGadgetRpcMetadata(urls, getMetadataCache(container), PortalContainer.getCurrentPortalContainerName(),
+                gadgetService.getLanguage(), gadgetService.getCountry(), GadgetServer.INSTANCE);
+    }
+
+    static Map<String, JSONObject> fetchGadgetRpcMetadata(Collection<String> urls, ExoCache<String, String> cache,
+            String containerName, String language, String country, GadgetServer server) {
+        Map<String, JSONObject> result = new HashMap<String, JSONObject>();
+        List<String> missing = new ArrayList<String>();
+        for (String url : urls) {
+            String metadata = cache != null ? cache.get(getMetadataKey(containerName, url, language, country)) : null;
+            JSONObject object = metadata != null ? parse(metadata) : null;
+            if (object != null) {
+                result.put(url, object);
+            } else if (!missing.contains(url)) {
+                missing.add(url);
+            }
+        }
+
+        //
+        if (missing.size() > 0) {
+            StringBuilder ids = new StringBuilder();
+            for (String url : missing) {
+                if (ids.length() > 0) {
+                    ids.append(',');
+                }
+                ids.append(JSONObject.quote(url));
+            }
+            String data = "[{method:\"gadgets.metadata\", id:\"metadata\", params: {ids:[" + ids
+                    + "], container:\"default\", language:\"" + language + "\", country:\"" + country
+                    + "\", view:\"home\"}}]";
+            try {
+                String response = server.post("api/rpc", data);
+                JSONObject metadatas = new JSONArray(response).getJSONObject(0).getJSONObject(UIGadget.RPC_RESULT);
+                for (String url : missing) {
+                    JSONObject object = metadatas.optJSONObject(url);
+                    if (object != null) {
+                        // Errors are not cached so the gadget is fetched again next time
+                        if (cache != null && !object.has(UIGadget.METADATA_ERROR)) {
+                            cache.put(getMetadataKey(containerName, url, language, country), object.toString());
+                        }
+                        result.put(url, object);
+                    }
+                }
+            } catch (IOException e) {
+                log.error(e.getMessage(), e);
+            } catch (JSONException e) {
+                log.error("Could not parse the metadata of the gadgets " + missing, e);
+            }
+        }
+
+        //
+        return result;
+    }
+
+    /**
+     * Posts JSON requests to the gadget server.
+     */
+    static class GadgetServer {
+
+        /** . */
+        static final GadgetServer INSTANCE = new GadgetServer();
+
+        String post(String path, String data) throws IOException {
+            String gadgetServer = getGadgetServerUrl();
+            URL url = new URL(gadgetServer + (gadgetServer.endsWith("/") ? "" : "/") + path);
+            URLConnection conn = url.openConnection();
+            conn.setRequestProperty("Content-Type", "application/json");
+            conn.setDoOutput(true);
+            OutputStreamWriter wr = new OutputStreamWriter(conn.getOutputStream(), "UTF-8");
+            try {
+                wr.write(data);
+                wr.flush();
+                return IOUtils.toString(conn.getInputStream(), "UTF-8");
+            } finally {
+                wr.close();
+            }
+        }
+    }
+
+    private static JSONObject parse(String metadata) {
+        try {
+            return new JSONObject(metadata);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    private static String getMetadataKey(String containerName, String url, String language, String country) {
+        return containerName + ":" + language + "_" + country + ":" + url;
+    }
+
+    private static ExoCache<String, String> getMetadataCache(ExoContainer container) {
+        CacheService cacheService = (CacheService) container.getComponentInstanceOfType(CacheService.class);
+        return cacheService != null ? cacheService.<String, String> getCacheInstance(METADATA_CACHE_NAME) : null;
+    }
+
     public static String createToken(String gadgetURL, Long moduleId) {
         SecurityTokenGenerator tokenGenerator = (SecurityTokenGenerator) ExoContainerContext.getCurrentContainer()
                 .getComponentInstanceOfType(SecurityTokenGenerator.class);
@@ -156,10 +275,11 @@ public class GadgetUtil {
     @SuppressWarnings("unchecked")
     public static Map<String, String> getMapMetadata(String url) throws JSONException {
         Map<String, String> mapMetaData = new HashMap<String, String>();
-        String metadata = fetchGagdetRpcMetadata(url);
-        metadata = metadata.substring(metadata.indexOf("[") + 1, metadata.lastIndexOf("]"));
-        JSONObject jsonObj = new JSONObject(metadata).getJSONObject(UIGadget.RPC_RESULT).getJSONObject(url)
-                .getJSONObject(UIGadget.METADATA_MODULEPREFS);
+        JSONObject metadata = fetchGadgetRpcMetadata(Collections.singleton(url)).get(url);
+        if (metadata == null) {
+            throw new JSONException("No metadata returned for " + url);
+        }
+        JSONObject jsonObj = metadata.getJSONObject(UIGadget.METADATA_MODULEPREFS);
         Iterator<String> iter = jsonObj.keys();
         while (iter.hasNext()) {
             String element = iter.next();
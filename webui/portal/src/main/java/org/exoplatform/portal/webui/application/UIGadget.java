@@ -19,6 +19,11 @@
 
 package org.exoplatform.portal.webui.application;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
 
@@ -213,13 +218,17 @@ public class UIGadget extends UIComponent {
     public String getMetadata() {
         try {
             if (metadata_ == null) {
-                String strMetadata = GadgetUtil.fetchGagdetRpcMetadata(getUrl());
-                metadata_ = new JSONObject(strMetadata);
+                metadata_ = fetchRpcMetadata();
+                if (metadata_ == null) {
+                    return null;
+                }
             }
-            JSONObject obj = metadata_.getJSONArray(METADATA_GADGETS).getJSONObject(0);
+            JSONObject obj = new JSONObject(metadata_.toString());
             String token = GadgetUtil.createToken(this.getUrl(), new Random().nextLong());
             obj.put("secureToken", token);
-            return metadata_.toString();
+            JSONObject metadata = new JSONObject();
+            metadata.put(METADATA_GADGETS, new JSONArray().put(obj));
+            return metadata.toString();
         } catch (JSONException e) {
             return null;
         }
@@ -245,15 +254,35 @@ public class UIGadget extends UIComponent {
     }
 
     private JSONObject fetchRpcMetadata() {
-        try {
-            String gadgetUrl = getUrl();
-            String strMetadata = GadgetUtil.fetchGagdetRpcMetadata(gadgetUrl);
-            JSONObject metadata = new JSONArray(strMetadata).getJSONObject(0).getJSONObject(UIGadget.RPC_RESULT)
-                    .getJSONObject(gadgetUrl);
+        String gadgetUrl = getUrl();
+        return GadgetUtil.fetchGadgetRpcMetadata(Collections.singleton(gadgetUrl)).get(gadgetUrl);
+    }
 
-            return metadata;
-        } catch (JSONException e) {
-            return null;
+    /**
+     * Fetches the metadata of the gadgets which metadata was not fetched yet, the metadata is fetched in a single
+     * request to the gadget server.
+     *
+     * @param gadgets the gadgets
+     */
+    public static void fetchRpcMetadata(List<UIGadget> gadgets) {
+        Map<UIGadget, String> urls = new HashMap<UIGadget, String>();
+        for (UIGadget gadget : gadgets) {
+            if (gadget.metadata_ == null) {
+                if (gadget.url_ == null) {
+                    Gadget application = gadget.getApplication();
+                    if (application == null) {
+                        continue;
+                    }
+                    gadget.url_ = GadgetUtil.reproduceUrl(application.getUrl(), application.isLocal());
+                }
+                urls.put(gadget, gadget.url_);
+            }
+        }
+        if (urls.size() > 0) {
+            Map<String, JSONObject> metadatas = GadgetUtil.fetchGadgetRpcMetadata(new HashSet<String>(urls.values()));
+            for (Map.Entry<UIGadget, String> entry : urls.entrySet()) {
+                entry.getKey().metadata_ = metadatas.get(entry.getValue());
+            }
         }
     }
 
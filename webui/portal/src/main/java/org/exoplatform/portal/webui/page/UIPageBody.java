@@ -21,10 +21,10 @@ package org.exoplatform.portal.webui.page;
 
 import org.exoplatform.container.ExoContainer;
 import org.exoplatform.portal.config.UserPortalConfigService;
-import org.exoplatform.portal.config.model.Page;
 import org.exoplatform.portal.config.model.PageBody;
 import org.exoplatform.portal.mop.page.PageContext;
 import org.exoplatform.portal.mop.user.UserNode;
+import org.exoplatform.portal.pom.data.PageData;
 import org.exoplatform.portal.webui.portal.UIPortal;
 import org.exoplatform.portal.webui.util.PortalDataMapper;
 import org.exoplatform.portal.webui.util.Util;
@@ -124,9 +124,8 @@ public class UIPageBody extends UIComponentDecorator {
             UIPageFactory clazz = UIPageFactory.getInstance(pageContext.getState().getFactoryId());
             uiPage = clazz.createUIPage(context);
 
-            Page page = userPortalConfigService.getDataStorage().getPage(pageReference);
-            pageContext.update(page);
-            PortalDataMapper.toUIPage(uiPage, page);
+            PageData page = userPortalConfigService.getDataStorage().getPageData(pageReference);
+            PortalDataMapper.toUIPage(uiPage, page, pageContext.getState());
             uiPortal.setUIPage(pageReference, uiPage);
         } catch (Exception e) {
             if (log.isDebugEnabled()) {
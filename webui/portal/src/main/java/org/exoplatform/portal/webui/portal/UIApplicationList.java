@@ -133,7 +133,6 @@ public class UIApplicationList extends UIContainer {
         }
 
         ApplicationRegistryService service = getApplicationComponent(ApplicationRegistryService.class);
-        UserACL userACL = getApplicationComponent(UserACL.class);
 
         final Comparator<Application> appComparator = new Comparator<Application>() {
             public int compare(Application p_1, Application p_2) {
@@ -146,29 +145,15 @@ public class UIApplicationList extends UIContainer {
             }
         };
 
-        List<ApplicationCategory> allCategories = service.getApplicationCategories(remoteUser);
-        categories = new ArrayList<ApplicationCategory>();
-
-        for (ApplicationCategory category : allCategories) {
+        categories = service.getAccessibleApplicationCategories(cateComparator);
+        for (ApplicationCategory category : categories) {
             List<Application> apps = category.getApplications();
-            List<String> accessPermission = category.getAccessPermissions();
-            if (accessPermission == null) {
-                continue;
-            }
-
-            for (String p : accessPermission) {
-                if (userACL.hasPermission(p)) {
-                    if (apps.size() > 0) {
-                        Collections.sort(apps, appComparator);
-                    }
-                    categories.add(category);
-                    break;
-                }
+            if (apps.size() > 0) {
+                Collections.sort(apps, appComparator);
             }
         }
 
         if (categories.size() > 0) {
-            Collections.sort(categories, cateComparator);
             selectedCategory = categories.get(0);
         }
     }
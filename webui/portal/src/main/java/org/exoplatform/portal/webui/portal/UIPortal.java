@@ -109,6 +109,7 @@ public class UIPortal extends UIContainer {
     }
 
     public void setSiteKey(SiteKey key) {
+        markStateChanged();
         siteKey = key;
     }
 
@@ -117,6 +118,7 @@ public class UIPortal extends UIContainer {
     }
 
     public void setLocale(String s) {
+        markStateChanged();
         locale = s;
     }
 
@@ -125,6 +127,7 @@ public class UIPortal extends UIContainer {
     }
 
     public void setEditPermission(String editPermission) {
+        markStateChanged();
         this.editPermission = editPermission;
     }
 
@@ -133,6 +136,7 @@ public class UIPortal extends UIContainer {
     }
 
     public void setSkin(String s) {
+        markStateChanged();
         skin = s;
     }
 
@@ -155,6 +159,7 @@ public class UIPortal extends UIContainer {
     }
 
     public void setPublicParameters(Map<String, String[]> publicParams) {
+        markStateChanged();
         publicParameters_ = publicParams;
     }
 
@@ -167,6 +172,7 @@ public class UIPortal extends UIContainer {
     }
 
     public void setNavPath(UserNode nav) {
+        markStateChanged();
         this.navPath = nav;
     }
 
@@ -188,9 +194,11 @@ public class UIPortal extends UIContainer {
             this.all_UIPages = new HashMap<String, UIPage>(5);
         }
         this.all_UIPages.put(pageReference, uiPage);
+        markStateChanged();
     }
 
     public void clearUIPage(String pageReference) {
+        markStateChanged();
         if (this.all_UIPages != null)
             this.all_UIPages.remove(pageReference);
     }
@@ -223,6 +231,7 @@ public class UIPortal extends UIContainer {
     }
 
     public void setMaximizedUIComponent(UIComponent maximizedReferenceComponent) {
+        markStateChanged();
         this.maximizedUIComponent = maximizedReferenceComponent;
     }
 
@@ -231,6 +240,7 @@ public class UIPortal extends UIContainer {
     }
 
     public void setProperties(Properties props) {
+        markStateChanged();
         properties = props;
     }
 
@@ -250,12 +260,14 @@ public class UIPortal extends UIContainer {
     }
 
     public void setProperty(String name, String value) {
+        markStateChanged();
         if (name == null || properties == null)
             throw new NullPointerException();
             properties.setProperty(name, value);
     }
 
     public void removeProperty(String name) {
+        markStateChanged();
         if (name == null)
             throw new NullPointerException();
         properties.setProperty(name, null);
@@ -318,6 +330,7 @@ public class UIPortal extends UIContainer {
     }
 
     public void setLabel(String label) {
+        markStateChanged();
         this.label = label;
     }
 
@@ -326,6 +339,7 @@ public class UIPortal extends UIContainer {
     }
 
     public void setDescription(String description) {
+        markStateChanged();
         this.description = description;
     }
 
@@ -419,6 +433,7 @@ public class UIPortal extends UIContainer {
     }
 
     public void setRedirects(ArrayList<PortalRedirect> portalRedirects) {
+        markStateChanged();
         this.portalRedirects = portalRedirects;
     }
 
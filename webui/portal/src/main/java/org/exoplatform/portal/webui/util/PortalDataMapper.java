@@ -23,7 +23,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+import org.exoplatform.portal.config.DataStorage;
 import org.exoplatform.portal.config.model.Application;
+import org.exoplatform.portal.config.model.ApplicationState;
 import org.exoplatform.portal.config.model.ApplicationType;
 import org.exoplatform.portal.config.model.Container;
 import org.exoplatform.portal.config.model.Dashboard;
@@ -33,6 +35,15 @@ import org.exoplatform.portal.config.model.PageBody;
 import org.exoplatform.portal.config.model.PortalConfig;
 import org.exoplatform.portal.config.model.SiteBody;
 import org.exoplatform.portal.mop.SiteKey;
+import org.exoplatform.portal.mop.page.PageContext;
+import org.exoplatform.portal.mop.page.PageState;
+import org.exoplatform.portal.pom.data.ApplicationData;
+import org.exoplatform.portal.pom.data.BodyData;
+import org.exoplatform.portal.pom.data.BodyType;
+import org.exoplatform.portal.pom.data.ComponentData;
+import org.exoplatform.portal.pom.data.ContainerData;
+import org.exoplatform.portal.pom.data.DashboardData;
+import org.exoplatform.portal.pom.data.PageData;
 import org.exoplatform.portal.pom.spi.gadget.Gadget;
 import org.exoplatform.portal.webui.application.PortletState;
 import org.exoplatform.portal.webui.application.UIGadget;
@@ -231,7 +242,10 @@ public class PortalDataMapper {
         if (model.getAccessPermissions() != null)
             uiPortlet.setAccessPermissions(model.getAccessPermissions());
         uiPortlet.setModifiable(model.isModifiable());
+        setSupportModes(uiPortlet);
+    }
 
+    private static void setSupportModes(UIPortlet<?, ?> uiPortlet) {
         Portlet portlet = uiPortlet.getProducedOfferedPortlet();
         if (portlet == null || portlet.getInfo() == null)
             return;
@@ -303,6 +317,139 @@ public class PortalDataMapper {
         for (UIPortlet portlet : portlets) {
             portlet.setPortletInPortal(false);
         }
+        preloadPreferences(uiPage, portlets);
+    }
+
+    /**
+     * Builds the UI page from the shared data of the page returned by
+     * {@link org.exoplatform.portal.config.DataStorage#getPageData(String)}, the page state overrides the attributes it
+     * holds like {@link PageContext#update(Page)} does. Unlike {@link #toUIPage(UIPage, Page)} the page and its containers
+     * are not copied to model objects, only the applications are since the UI components keep their mutable parts.
+     *
+     * @param uiPage the UI page
+     * @param data the page data
+     * @param state the page state
+     * @throws Exception any exception
+     */
+    public static void toUIPage(UIPage uiPage, PageData data, PageState state) throws Exception {
+        toUIContainer(uiPage, data);
+        uiPage.setSiteKey(new SiteKey(data.getOwnerType(), data.getOwnerId()));
+        uiPage.setPageId(data.getOwnerType() + "::" + data.getOwnerId() + "::" + data.getName());
+        uiPage.setTitle(state.getDisplayName());
+        uiPage.setDescription(state.getDescription());
+        uiPage.setFactoryId(state.getFactoryId());
+        uiPage.setShowMaxWindow(state.getShowMaxWindow());
+        uiPage.setAccessPermissions(toArray(state.getAccessPermissions()));
+        uiPage.setEditPermission(state.getEditPermission());
+        uiPage.setMoveAppsPermissions(toArray(state.getMoveAppsPermissions()));
+        uiPage.setMoveContainersPermissions(toArray(state.getMoveContainersPermissions()));
+        uiPage.setModifiable(false);
+
+        List<UIPortlet> portlets = new ArrayList<UIPortlet>();
+        uiPage.findComponentOfType(portlets, UIPortlet.class);
+        for (UIPortlet portlet : portlets) {
+            portlet.setPortletInPortal(false);
+        }
+        preloadPreferences(uiPage, portlets);
+    }
+
+    /**
+     * Loads the preferences of the portlets of a stored page at once, the portlets then find them in the cache when they
+     * are rendered.
+     */
+    private static void preloadPreferences(UIPage uiPage, List<UIPortlet> portlets) throws Exception {
+        if (uiPage.getStorageId() == null) {
+            return;
+        }
+        List<ApplicationState<org.exoplatform.portal.pom.spi.portlet.Portlet>> states = new ArrayList<ApplicationState<org.exoplatform.portal.pom.spi.portlet.Portlet>>(
+                portlets.size());
+        for (UIPortlet<?, ?> portlet : portlets) {
+            PortletState<?> state = portlet.getState();
+            if (state != null && state.getApplicationType() == ApplicationType.PORTLET) {
+                states.add((ApplicationState<org.exoplatform.portal.pom.spi.portlet.Portlet>) state.getApplicationState());
+            }
+        }
+        if (states.size() > 1) {
+            DataStorage dataStorage = uiPage.getApplicationComponent(DataStorage.class);
+            dataStorage.preload(uiPage.getStorageId(), states, ApplicationType.PORTLET);
+        }
+    }
+
+    private static void toUIContainer(UIContainer uiContainer, ContainerData data) throws Exception {
+        toUIContainer(uiContainer, data, data instanceof DashboardData);
+    }
+
+    private static void toUIContainer(UIContainer uiContainer, ContainerData data, boolean dashboard) throws Exception {
+        uiContainer.setStorageId(data.getStorageId());
+        uiContainer.setId(data.getId());
+        uiContainer.setWidth(data.getWidth());
+        uiContainer.setHeight(data.getHeight());
+        uiContainer.setTitle(data.getTitle());
+        uiContainer.setIcon(data.getIcon());
+        uiContainer.setDescription(data.getDescription());
+        uiContainer.setFactoryId(data.getFactoryId());
+        uiContainer.setName(data.getName());
+        uiContainer.setTemplate(data.getTemplate());
+        uiContainer.setAccessPermissions(toArray(data.getAccessPermissions()));
+        uiContainer.setMoveAppsPermissions(toArray(data.getMoveAppsPermissions()));
+        uiContainer.setMoveContainersPermissions(toArray(data.getMoveContainersPermissions()));
+        for (ComponentData child : data.getChildren()) {
+            buildUIContainer(uiContainer, child, dashboard);
+        }
+    }
+
+    private static void buildUIContainer(UIContainer uiContainer, ComponentData data, boolean dashboard) throws Exception {
+        UIComponent uiComponent = null;
+        WebuiRequestContext context = Util.getPortalRequestContext();
+
+        if (data instanceof BodyData) {
+            if (((BodyData) data).getType() == BodyType.PAGE) {
+                UIPageBody uiPageBody = uiContainer.createUIComponent(context, UIPageBody.class, null, null);
+                uiPageBody.setStorageId(data.getStorageId());
+                uiComponent = uiPageBody;
+            } else {
+                UISiteBody uiSiteBody = uiContainer.createUIComponent(context, UISiteBody.class, null, null);
+                uiSiteBody.setStorageId(data.getStorageId());
+                uiComponent = uiSiteBody;
+            }
+        } else if (data instanceof ApplicationData) {
+            // An application is small, its model copy is filled in the UI component like the model based builder does
+            Application application = new Application((ApplicationData) data);
+
+            if (dashboard && application.getType() == ApplicationType.GADGET) {
+                Application<Gadget> ga = (Application<Gadget>) application;
+                UIGadget uiGadget = uiContainer.createUIComponent(context, UIGadget.class, null, null);
+                uiGadget.setStorageId(application.getStorageId());
+                toUIGadget(uiGadget, ga);
+                uiComponent = uiGadget;
+            } else {
+                UIPortlet uiPortlet = uiContainer.createUIComponent(context, UIPortlet.class, null, null);
+                uiPortlet.setStorageId(application.getStorageId());
+                if (application.getStorageName() != null) {
+                    uiPortlet.setStorageName(application.getStorageName());
+                }
+                toUIPortlet(uiPortlet, application);
+                uiComponent = uiPortlet;
+            }
+        } else if (data instanceof ContainerData) {
+            ContainerData container = (ContainerData) data;
+
+            UIComponentFactory<? extends UIContainer> factory = UIComponentFactory.getInstance(UIContainer.class);
+            UIContainer uiTempContainer = factory.createUIComponent(container.getFactoryId(), context);
+
+            if (uiTempContainer == null) {
+                log.warn("Can't find container factory for: {}. Default container is used", container.getFactoryId());
+                uiTempContainer = uiContainer.createUIComponent(context, UIContainer.class, null, null);
+            }
+
+            toUIContainer(uiTempContainer, container, dashboard);
+            uiComponent = uiTempContainer;
+        }
+        uiContainer.addChild(uiComponent);
+    }
+
+    private static String[] toArray(List<String> list) {
+        return list != null ? list.toArray(new String[list.size()]) : null;
     }
 
     public static void toUIPortal(UIPortal uiPortal, PortalConfig model) throws Exception {
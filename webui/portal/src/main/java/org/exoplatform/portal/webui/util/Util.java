@@ -27,6 +27,7 @@ import org.exoplatform.portal.config.model.Page;
 import org.exoplatform.portal.config.model.PageNode;
 import org.exoplatform.portal.mop.page.PageContext;
 import org.exoplatform.portal.mop.page.PageKey;
+import org.exoplatform.portal.pom.data.PageData;
 import org.exoplatform.portal.webui.container.UIContainer;
 import org.exoplatform.portal.webui.page.UIPage;
 import org.exoplatform.portal.webui.page.UIPageFactory;
@@ -129,9 +130,17 @@ public class Util {
     public static UIPage toUIPage(String pageRef, UIComponent uiParent) throws Exception {
         UserPortalConfigService configService = uiParent.getApplicationComponent(UserPortalConfigService.class);
         PageContext pageContext = configService.getPage(PageKey.parse(pageRef));
-        Page page = configService.getDataStorage().getPage(pageRef);
-        pageContext.update(page);
-        return toUIPage(page, uiParent);
+        PageData page = configService.getDataStorage().getPageData(pageRef);
+        UIPage uiPage = Util.getUIPortal().findFirstComponentOfType(UIPage.class);
+        if (uiPage != null && uiPage.getId().equals(page.getId()))
+            return uiPage;
+        WebuiRequestContext context = Util.getPortalRequestContext();
+
+        UIPageFactory clazz = UIPageFactory.getInstance(pageContext.getState().getFactoryId());
+        uiPage = clazz.createUIPage(context);
+
+        PortalDataMapper.toUIPage(uiPage, page, pageContext.getState());
+        return uiPage;
     }
 
     public static UIPage toUIPage(Page page, UIComponent uiParent) throws Exception {
@@ -294,6 +294,7 @@ public class UIPortalApplication extends UIApplication {
      * @param uiPortal
      */
     public void setCurrentSite(UIPortal uiPortal) {
+        markStateChanged();
         this.currentSite = uiPortal;
 
         UISiteBody siteBody = this.findFirstComponentOfType(UISiteBody.class);
@@ -404,6 +405,7 @@ public class UIPortalApplication extends UIApplication {
     }
 
     public void setSessionOpen(boolean isSessionOpen) {
+        markStateChanged();
         this.isSessionOpen = isSessionOpen;
     }
 
@@ -412,6 +414,7 @@ public class UIPortalApplication extends UIApplication {
     }
 
     public void setOrientation(Orientation orientation) {
+        markStateChanged();
         this.orientation_ = orientation;
     }
 
@@ -420,6 +423,9 @@ public class UIPortalApplication extends UIApplication {
     }
 
     public void setModeState(int mode) {
+        if (this.modeState != mode) {
+            markStateChanged();
+        }
         this.modeState = mode;
         if (modeState == NORMAL_MODE) {
             editLevel = EditLevel.NO_EDIT;
@@ -427,6 +433,7 @@ public class UIPortalApplication extends UIApplication {
     }
 
     public void setDefaultEditMode(ComponentTab componentTab, EditLevel editLevel) {
+        markStateChanged();
         this.editLevel = editLevel;
         EditMode editMode = getDefaultEditMode();
         switch (componentTab) {
@@ -474,6 +481,7 @@ public class UIPortalApplication extends UIApplication {
     }
 
     public void setLastRequestNavData(RequestNavigationData navData) {
+        markStateChanged();
         this.lastRequestNavData = navData;
     }
 
@@ -602,6 +610,7 @@ public class UIPortalApplication extends UIApplication {
     }
 
     public void setSkin(String skin) {
+        markStateChanged();
         this.skin_ = skin;
     }
 
@@ -725,6 +734,7 @@ public class UIPortalApplication extends UIApplication {
         if (!Safe.equals(portalName, lastPortal)) {
             reloadPortalProperties();
             lastPortal = portalName;
+            markStateChanged();
         }
         super.processDecode(context);
     }
@@ -748,6 +758,7 @@ public class UIPortalApplication extends UIApplication {
         if (!isAjax) {
             if (isAjaxInLastRequest) {
                 isAjaxInLastRequest = false;
+                markStateChanged();
                 if (requestNavData.equals(lastNonAjaxRequestNavData) && !requestNavData.equals(lastRequestNavData)) {
                     NodeURL nodeURL = pcontext.createURL(NodeURL.TYPE).setNode(getCurrentSite().getSelectedUserNode());
                     pcontext.sendRedirect(nodeURL.toString());
@@ -757,10 +768,14 @@ public class UIPortalApplication extends UIApplication {
             lastNonAjaxRequestNavData = requestNavData;
         }
 
-        isAjaxInLastRequest = isAjax;
+        if (isAjaxInLastRequest != isAjax) {
+            isAjaxInLastRequest = isAjax;
+            markStateChanged();
+        }
 
         if (!requestNavData.equals(lastRequestNavData)) {
             lastRequestNavData = requestNavData;
+            markStateChanged();
 
             StringBuilder js = new StringBuilder("eXo.env.server.portalBaseURL=\"");
             js.append(getBaseURL()).append("\";\n");
@@ -1045,6 +1060,7 @@ public class UIPortalApplication extends UIApplication {
      * @param editLevel the editLevel to set
      */
     public void setEditLevel(EditLevel editLevel) {
+        markStateChanged();
         this.editLevel = editLevel;
     }
 
@@ -0,0 +1,219 @@
+/*
+ * JBoss, a division of Red Hat
+ * Copyright 2014, Red Hat Middleware, LLC, and individual
+ * contributors as indicated by the @authors tag. See the
+ * copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.portal.application;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpSession;
+
+import org.exoplatform.portal.mop.user.UserPortal;
+import org.exoplatform.portal.webui.portal.UIPortal;
+import org.exoplatform.services.resources.Orientation;
+import org.exoplatform.web.application.RequestContext;
+import org.exoplatform.web.application.URLBuilder;
+import org.exoplatform.web.url.PortalURL;
+import org.exoplatform.web.url.ResourceType;
+import org.exoplatform.web.url.URLFactory;
+import org.exoplatform.webui.application.WebuiRequestContext;
+import org.exoplatform.webui.config.Component;
+import org.exoplatform.webui.core.UIApplication;
+import org.exoplatform.webui.core.UIComponent;
+import org.exoplatform.webui.event.Event;
+import org.exoplatform.webui.event.EventListener;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Checks that the application state is stored in the session again whenever the request changed the UI tree.
+ */
+public class PortalStateManagerTest {
+
+    /** . */
+    private final Map<String, Object> attributes = new HashMap<String, Object>();
+
+    /** . */
+    private int stores;
+
+    /** . */
+    private final HttpSession session = (HttpSession) Proxy.newProxyInstance(HttpSession.class.getClassLoader(),
+            new Class<?>[] { HttpSession.class }, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name = method.getName();
+                    if ("getAttribute".equals(name)) {
+                        return attributes.get(args[0]);
+                    } else if ("setAttribute".equals(name)) {
+                        stores++;
+                        attributes.put((String) args[0], args[1]);
+                        return null;
+                    } else {
+                        throw new UnsupportedOperationException(name);
+                    }
+                }
+            });
+
+    /** . */
+    private final PortalStateManager manager = new PortalStateManager();
+
+    /** . */
+    private final UIApplication app = new UIApplication() {
+    };
+
+    @After
+    public void tearDown() {
+        RequestContext.setCurrentInstance(null);
+    }
+
+    @Test
+    public void testUnchangedRequestDoesNotStore() {
+        store(new MockContext());
+        assertEquals(1, stores);
+
+        store(new MockContext());
+        assertEquals(1, stores);
+    }
+
+    @Test
+    public void testNavigationStores() {
+        UIPortal portal = new UIPortal();
+        store(new MockContext());
+        assertEquals(1, stores);
+
+        MockContext context = new MockContext();
+        RequestContext.setCurrentInstance(context);
+        portal.setNavPath(null);
+        store(context);
+        assertEquals(2, stores);
+    }
+
+    @Test
+    public void testBroadcastStores() throws Exception {
+        org.exoplatform.webui.config.Event econfig = new org.exoplatform.webui.config.Event();
+        econfig.setName("Noop");
+        econfig.setListeners(new ArrayList<String>(Collections.singletonList(NoopActionListener.class.getName())));
+        Component config = new Component(UIPortal.class, null, UIPortal.class.getName(), null, null, null, null, null,
+                Collections.singletonList(econfig), null);
+        UIPortal portal = new UIPortal();
+        portal.setComponentConfig(null, config);
+        store(new MockContext());
+        assertEquals(1, stores);
+
+        MockContext context = new MockContext();
+        portal.broadcast(new Event<UIPortal>(portal, "Noop", context), Event.Phase.PROCESS);
+        store(context);
+        assertEquals(2, stores);
+    }
+
+    private void store(WebuiRequestContext context) {
+        manager.store(session, PortalApplication.PORTAL_APPLICATION_ID, context, app);
+    }
+
+    public static class NoopActionListener extends EventListener<UIPortal> {
+        @Override
+        public void execute(Event<UIPortal> event) throws Exception {
+        }
+    }
+
+    private static class MockContext extends WebuiRequestContext {
+
+        private MockContext() {
+            super(null);
+        }
+
+        @Override
+        public String getRemoteUser() {
+            return "root";
+        }
+
+        @Override
+        public URLBuilder<UIComponent> getURLBuilder() {
+            return null;
+        }
+
+        @Override
+        public String getRequestContextPath() {
+            return null;
+        }
+
+        @Override
+        public String getPortalContextPath() {
+            return null;
+        }
+
+        @Override
+        public <T> T getRequest() {
+            return null;
+        }
+
+        @Override
+        public <T> T getResponse() {
+            return null;
+        }
+
+        @Override
+        public void sendRedirect(String url) throws Exception {
+        }
+
+        @Override
+        public URLFactory getURLFactory() {
+            return null;
+        }
+
+        @Override
+        public <R, U extends PortalURL<R, U>> U newURL(ResourceType<R, U> resourceType, URLFactory urlFactory) {
+            return null;
+        }
+
+        @Override
+        public Orientation getOrientation() {
+            return null;
+        }
+
+        @Override
+        public String getRequestParameter(String name) {
+            return null;
+        }
+
+        @Override
+        public String[] getRequestParameterValues(String name) {
+            return null;
+        }
+
+        @Override
+        public boolean useAjax() {
+            return false;
+        }
+
+        @Override
+        public UserPortal getUserPortal() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * JBoss, a division of Red Hat
+ * Copyright 2014, Red Hat Middleware, LLC, and individual
+ * contributors as indicated by the @authors tag. See the
+ * copyright.txt in the distribution for a full listing of
+ * individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.exoplatform.portal.webui.application;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.exoplatform.services.cache.ExoCache;
+import org.exoplatform.services.cache.concurrent.ConcurrentFIFOExoCache;
+import org.json.JSONObject;
+import org.junit.Test;
+
+/**
+ * Checks that the gadget metadata is fetched from the gadget server only when it is not cached.
+ */
+public class GadgetUtilTest {
+
+    /** . */
+    private final ExoCache<String, String> cache = new ConcurrentFIFOExoCache<String, String>(100);
+
+    /** . */
+    private final CountingGadgetServer server = new CountingGadgetServer();
+
+    @Test
+    public void testSecondFetchIsCached() throws Exception {
+        Map<String, JSONObject> metadata = fetch("http://gadgets/a.xml");
+        assertEquals("a", metadata.get("http://gadgets/a.xml").getString("title"));
+        assertEquals(1, server.requests);
+
+        //
+        metadata = fetch("http://gadgets/a.xml");
+        assertEquals("a", metadata.get("http://gadgets/a.xml").getString("title"));
+        assertEquals(1, server.requests);
+    }
+
+    @Test
+    public void testFetchOnlyMissing() throws Exception {
+        fetch("http://gadgets/a.xml");
+        assertEquals(1, server.requests);
+
+        //
+        Map<String, JSONObject> metadata = fetch("http://gadgets/a.xml", "http://gadgets/b.xml");
+        assertEquals(2, metadata.size());
+        assertEquals(2, server.requests);
+        assertFalse(server.data.contains("a.xml"));
+        assertTrue(server.data.contains("b.xml"));
+    }
+
+    @Test
+    public void testErrorIsNotCached() throws Exception {
+        server.error = true;
+        Map<String, JSONObject> metadata = fetch("http://gadgets/a.xml");
+        assertTrue(metadata.get("http://gadgets/a.xml").has(UIGadget.METADATA_ERROR));
+
+        //
+        server.error = false;
+        metadata = fetch("http://gadgets/a.xml");
+        assertFalse(metadata.get("http://gadgets/a.xml").has(UIGadget.METADATA_ERROR));
+        assertEquals(2, server.requests);
+    }
+
+    private Map<String, JSONObject> fetch(String... urls) {
+        return GadgetUtil.fetchGadgetRpcMetadata(Arrays.asList(urls), cache, "portal", "en", "US", server);
+    }
+
+    private static class CountingGadgetServer extends GadgetUtil.GadgetServer {
+
+        /** . */
+        private int requests;
+
+        /** . */
+        private String data;
+
+        /** . */
+        private boolean error;
+
+        @Override
+        String post(String path, String data) throws IOException {
+            this.requests++;
+            this.data = data;
+            JSONObject result = new JSONObject();
+            try {
+                for (String name : new String[] { "a", "b" }) {
+                    String url = "http://gadgets/" + name + ".xml";
+                    if (data.contains(JSONObject.quote(url))) {
+                        JSONObject metadata = new JSONObject(Collections.singletonMap("title", name));
+                        if (error) {
+                            metadata.put(UIGadget.METADATA_ERROR, "unavailable");
+                        }
+                        result.put(url, metadata);
+                    }
+                }
+                return "[" + new JSONObject().put(UIGadget.RPC_RESULT, result) + "]";
+            } catch (Exception e) {
+                throw new IOException(e.getMessage());
+            }
+        }
+    }
+}
@@ -37,6 +37,7 @@ import org.exoplatform.container.xml.InitParams;
 import org.exoplatform.portal.config.DataStorage;
 import org.exoplatform.portal.mop.EventType;
 import org.exoplatform.portal.pc.ExoKernelIntegration;
+import org.exoplatform.portal.pom.config.POMSession;
 import org.exoplatform.portal.pom.config.POMSessionManager;
 import org.exoplatform.services.jcr.ext.hierarchy.NodeHierarchyCreator;
 import org.exoplatform.services.listener.ListenerService;
@@ -361,6 +362,24 @@ public class WSRPServiceIntegration implements Startable, WebAppListener {
                 }
             }, consumersInitDelay, TimeUnit.SECONDS);
 
+            // index the pages in the background so that the first consumer call does not wait for it
+            final POMSessionManager pomManager = sessionManager;
+            final MOPConsumerStructureProvider provider = structureprovider;
+            scheduledExecutorService.execute(new Runnable() {
+                public void run() {
+                    ExoContainerContext.setCurrentContainer(container);
+                    POMSession session = pomManager.openSession();
+                    try {
+                        provider.initialize();
+                    } catch (Exception e) {
+                        log.debug("Couldn't index the pages in the background, they will be indexed on first use", e);
+                    } finally {
+                        session.close(false);
+                        ExoContainerContext.setCurrentContainer(null);
+                    }
+                }
+            });
+
             // set up a PortletInvokerResolver so that when a remote producer is queried, we can start it if needed
             RegisteringPortletInvokerResolver resolver = new RegisteringPortletInvokerResolver();
             resolver.setConsumerRegistry(consumerRegistry);
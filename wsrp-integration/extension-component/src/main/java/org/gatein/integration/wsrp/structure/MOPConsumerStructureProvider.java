@@ -26,11 +26,15 @@ package org.gatein.integration.wsrp.structure;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.exoplatform.portal.config.DataStorage;
 import org.exoplatform.portal.mop.Described;
@@ -52,52 +56,105 @@ import org.gatein.pc.api.StatefulPortletContext;
 import org.gatein.wsrp.api.context.ConsumerStructureProvider;
 
 /**
+ * Provides the structure of the portal pages to the WSRP consumers. The pages are indexed once by walking all the pages
+ * of the portal, the walk can be started in the background with {@link #initialize()} or is performed by the first
+ * lookup. The index is then maintained for each page affected by the page events, it can be read and updated
+ * concurrently.
+ *
  * @author <a href="mailto:chris.laprun@jboss.com">Chris Laprun</a>
  * @version $Revision$
  */
 public class MOPConsumerStructureProvider extends Listener implements ConsumerStructureProvider {
     private final PortalStructureAccess structureAccess;
-    private Map<String, PageInfo> pageInfos;
-    private boolean pagesHaveBeenInitialized;
+    private final ConcurrentMap<String, PageInfo> pageInfos;
+
+    /** The internal names of the pages removed while the pages are walked, the walk must not index them again */
+    private final Set<String> removedPages;
+
+    /** The walk of all the pages building the index */
+    private volatile FutureTask<Void> initialization;
 
     public MOPConsumerStructureProvider(PortalStructureAccess structureAccess) {
         ParameterValidation.throwIllegalArgExceptionIfNull(structureAccess, "PortalStructureAccess");
 
         this.structureAccess = structureAccess;
-        pageInfos = new HashMap<String, PageInfo>();
+        pageInfos = new ConcurrentHashMap<String, PageInfo>();
+        removedPages = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        initialization = createInitialization();
     }
 
-    public List<String> getPageIdentifiers() {
-        if (!pagesHaveBeenInitialized) {
-            // initialize page information
-            Collection<Page> pages = structureAccess.getPages();
-            for (Page page : pages) {
-                addPage(page);
+    private FutureTask<Void> createInitialization() {
+        return new FutureTask<Void>(new Callable<Void>() {
+            public Void call() throws Exception {
+                // initialize page information, the pages indexed by the page events meanwhile are more recent
+                Collection<Page> pages = structureAccess.getPages();
+                for (Page page : pages) {
+                    addPage(page, true);
+                }
+                removedPages.clear();
+                return null;
             }
+        });
+    }
 
-            pagesHaveBeenInitialized = true;
+    /**
+     * Builds the index of the pages if it is not built yet, when the index is being built by another thread this method
+     * waits until it is built. The caller must be associated with a session to the model.
+     */
+    public void initialize() {
+        FutureTask<Void> task = initialization;
+        task.run();
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while indexing the pages", e);
+        } catch (ExecutionException e) {
+            // the next lookup will walk the pages again
+            synchronized (this) {
+                if (initialization == task) {
+                    initialization = createInitialization();
+                }
+            }
+            throw new IllegalStateException("Couldn't index the pages", e.getCause());
         }
+    }
+
+    public List<String> getPageIdentifiers() {
+        initialize();
 
         LinkedList<String> identifiers = new LinkedList<String>(pageInfos.keySet());
         Collections.sort(identifiers);
         return identifiers;
     }
 
-    private void addPage(Page page) {
+    private void addPage(Page page, boolean initializing) {
         PageInfo pageInfo = new PageInfo(page);
-        pageInfos.put(pageInfo.getId(), pageInfo);
         UIContainer container = page.getRootComponent();
         processContainer(container, pageInfo);
 
+        // the page information is complete before it is published
+        String id = pageInfo.getId();
+        if (initializing) {
+            if (pageInfos.putIfAbsent(id, pageInfo) == null && removedPages.contains(pageInfo.getInternalName())) {
+                pageInfos.remove(id, pageInfo);
+            }
+        } else {
+            removedPages.remove(pageInfo.getInternalName());
+            pageInfos.put(id, pageInfo);
+        }
+
         Collection<Page> children = page.getChildren();
         if (ParameterValidation.existsAndIsNotEmpty(children)) {
             for (Page child : children) {
-                addPage(child);
+                addPage(child, initializing);
             }
         }
     }
 
     public List<String> getWindowIdentifiersFor(String pageId) {
+        initialize();
+
         PageInfo pageInfo = pageInfos.get(pageId);
         if (pageInfo == null) {
             throw new IllegalArgumentException("Page '" + pageId + "' does not exist.");
@@ -130,6 +187,8 @@ public class MOPConsumerStructureProvider extends Listener implements ConsumerSt
 
     public void assignPortletToWindow(PortletContext portletContext, String windowId, String pageId,
             String exportedPortletHandle) {
+        initialize();
+
         PageInfo pageInfo = pageInfos.get(pageId);
         String uuid = pageInfo.getWindowUUID(windowId);
         ParameterValidation.throwIllegalArgExceptionIfNull(uuid, "UUID for " + windowId);
@@ -193,31 +252,21 @@ public class MOPConsumerStructureProvider extends Listener implements ConsumerSt
         }
 
         if (page != null) {
-            if (EventType.PAGE_CREATED.equals(eventName)) {
-                // add information for new page
-                addPage(page);
-            } else if (EventType.PAGE_UPDATED.equals(eventName) || DataStorage.PAGE_UPDATED.equals(eventName)) {
-                removePage(page);
-                addPage(page);
+            if (EventType.PAGE_CREATED.equals(eventName) || EventType.PAGE_UPDATED.equals(eventName)
+                    || DataStorage.PAGE_UPDATED.equals(eventName)) {
+                // add or replace information for the page
+                addPage(page, false);
             }
         }
     }
 
-    private void removePage(Page page) {
-        final String id = PageInfo.getPageIdFor(page);
-
-        PageInfo pageInfo = pageInfos.get(id);
-        if (pageInfo != null && page.getName().equals(pageInfo.getInternalName())) {
-            // remove page info
-            pageInfos.remove(id);
-        }
-    }
-
     private void removePageByInternalName(String internalName) {
-        Iterator<PageInfo> itr = pageInfos.values().iterator();
-        while (itr.hasNext()) {
-            if (itr.next().getInternalName().equals(internalName)) {
-                itr.remove();
+        if (!initialization.isDone()) {
+            removedPages.add(internalName);
+        }
+        for (Map.Entry<String, PageInfo> entry : pageInfos.entrySet()) {
+            if (entry.getValue().getInternalName().equals(internalName)) {
+                pageInfos.remove(entry.getKey(), entry.getValue());
                 return;
             }
         }
@@ -225,7 +274,7 @@ public class MOPConsumerStructureProvider extends Listener implements ConsumerSt
 
     static class PageInfo {
         private final String uuid;
-        private final Map<String, String> childrenWindows = new HashMap<String, String>();
+        private final Map<String, String> childrenWindows = new ConcurrentHashMap<String, String>();
 
         /** Name as provided by Described */
         private final String name;
@@ -27,6 +27,8 @@ import static org.mockito.Mockito.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import junit.framework.TestCase;
 
@@ -169,6 +171,68 @@ public class MOPConsumerStructureProviderTestCase extends TestCase {
         assertTrue(identifiers.contains(getPageIdFor("page12")));
     }
 
+    public void testConcurrentLookupsDuringPageEvents() throws Exception {
+        final int pageCount = 20;
+        final PageKey[] pageKeys = new PageKey[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            String name = "concurrent" + i;
+            Page page = createPage(name, null, new String[] { name + "window" });
+            pageKeys[i] = mock(PageKey.class);
+            when(pageKeys[i].getName()).thenReturn(createInternalNameFrom(name));
+            when(structureAccess.getPageFrom(pageKeys[i])).thenReturn(page, (Page) null);
+        }
+
+        // readers look the pages up while the pages are created and destroyed
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        while (!done.get()) {
+                            List<String> identifiers = provider.getPageIdentifiers();
+                            assertTrue(identifiers.contains(getPageIdFor("page1")));
+                            checkWindows("page1", "window11", "window12");
+                            for (String identifier : identifiers) {
+                                try {
+                                    provider.getWindowIdentifiersFor(identifier);
+                                } catch (IllegalArgumentException e) {
+                                    // the page was destroyed meanwhile
+                                }
+                            }
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            };
+            readers[i].start();
+        }
+
+        try {
+            for (PageKey pageKey : pageKeys) {
+                provider.onEvent(new Event<PageService, PageKey>(EventType.PAGE_CREATED, null, pageKey));
+            }
+            assertEquals(5 + pageCount, provider.getPageIdentifiers().size());
+            for (PageKey pageKey : pageKeys) {
+                provider.onEvent(new Event<PageService, PageKey>(EventType.PAGE_DESTROYED, null, pageKey));
+            }
+        } finally {
+            done.set(true);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        }
+
+        assertNull(failure.get());
+        assertEquals(5, provider.getPageIdentifiers().size());
+
+        // the pages were walked once
+        verify(structureAccess, times(1)).getPages();
+    }
+
     public void testPageUpdatedEvent() throws Exception {
         // todo!
     }